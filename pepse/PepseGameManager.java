@@ -8,37 +8,46 @@ import danogl.gui.SoundReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.WindowController;
 import danogl.gui.rendering.Camera;
-import danogl.gui.rendering.TextRenderable;
 import danogl.util.Vector2;
+import pepse.assets.AssetArchive;
+import pepse.assets.AssetManager;
+import pepse.hud.Hud;
+import pepse.hud.HudText;
+import pepse.persistence.GameSnapshot;
+import pepse.persistence.WorldDeltaStore;
+import pepse.profiling.FrameProfiler;
+import pepse.profiling.ProfilerOverlay;
+import pepse.replay.InputRecorder;
+import pepse.util.FixedTimestep;
 import pepse.world.Avatar;
+import pepse.world.AvatarAnimations;
 import pepse.world.Block;
-import pepse.world.Sky;
-import pepse.world.Terrain;
-import pepse.world.daynight.Night;
-import pepse.world.daynight.Sun;
-import pepse.world.daynight.SunHalo;
-import pepse.world.trees.Flora;
-import pepse.world.Cloud;
+import pepse.world.LoadedWindow;
+import pepse.world.WorldContext;
+import pepse.world.stats.Stat;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.Graphics2D;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Manages the Pepse game, including initialization of the game world,
- * dynamic elements like terrain, flora, clouds, and the avatar, and
- * ensuring an infinite scrolling world effect.
+ * Manages the Pepse game window: creates the {@link PepseWorld} (terrain, flora, clouds,
+ * the avatar and the infinite scrolling world effect) on top of the game's object collection,
+ * and adds the camera and the on-screen energy display.
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see GameManager
+ * @see PepseWorld
  */
 public class PepseGameManager extends GameManager {
 
-    /**
-     * The seed for random generation in the game.
-     */
-    public static int seed;
-
     /**
      * Length of the day-night cycle in seconds.
      */
@@ -55,6 +64,14 @@ public class PepseGameManager extends GameManager {
      * Tag for the sun halo game object.
      */
     public static final String SUN_HALO_TAG = "sunHalo";
+    /**
+     * Tag for the moon game object.
+     */
+    public static final String MOON_TAG = "moon";
+    /**
+     * Tag for the starfield game object.
+     */
+    public static final String STARFIELD_TAG = "starfield";
     /**
      * Tag for the fruit game object.
      */
@@ -75,6 +92,10 @@ public class PepseGameManager extends GameManager {
      * Tag for the ground (terrain) game object.
      */
     public static final String GROUND_TAG = "ground";
+    /**
+     * Tag for the ground blocks that no air cell touches, which are not colliders.
+     */
+    public static final String GROUND_INTERIOR_TAG = "groundInterior";
     /**
      * Tag for the block game object.
      */
@@ -95,6 +116,10 @@ public class PepseGameManager extends GameManager {
      * Tag for the sky game object.
      */
     public static final String SKY_TAG = "sky";
+    /**
+     * Tag for the game object drawing the world's creatures.
+     */
+    public static final String CREATURES_TAG = "creatures";
     /**
      * Tag for the text.
      */
@@ -107,33 +132,64 @@ public class PepseGameManager extends GameManager {
      *  the fruit layer.
      */
     public static final int FRUIT_LAYER = Layer.DEFAULT;
-    private static final int CLOUD_LAYER = Layer.BACKGROUND + 4;
-    private static final int SKY_LAYER = Layer.BACKGROUND;
-    private static final int GROUND_LAYER = Layer.STATIC_OBJECTS;
-    private static final int DAYNIGHT_LAYER = Layer.FOREGROUND;
-    private static final int SUN_LAYER = Layer.BACKGROUND + 2;
-    private static final int SUN_HALO_LAYER = Layer.BACKGROUND + 1;
-    private static final int LEAVES_LAYER = Layer.BACKGROUND + 5;
-    private static final int AVATAR_LAYER = Layer.DEFAULT;
     private static final int ENERGY_LAYER = Layer.UI;
-    private static final int AVATAR_HEIGHT = 80;
-    private static final int AVATAR_INITIAL_X_DIVIDER = 2;
     private static final String ENERGY_TEXT_PREFIX = "ENERGY: ";
-    private static final float THRESHOLD = 60;
     private static final Vector2 TEXT_TOP_LEFT = new Vector2(10, 10);
-    private static final Vector2 TEXT_DIMENSIONS = new Vector2(100, 20);
+    private static final int ENERGY_DIGITS = 3;
+    private static final String FPS_TEXT_PREFIX = "FPS: ";
+    private static final String COLUMN_TEXT_PREFIX = "X: ";
+    private static final String ROW_TEXT_PREFIX = "Y: ";
+    private static final String CREATURES_TEXT_PREFIX = "CREATURES: ";
+    private static final float HUD_RIGHT_COLUMN_WIDTH = 120;
+    private static final float HUD_LINE_HEIGHT = 20;
+    private static final int FPS_DIGITS = 4;
+    private static final int COORDINATE_DIGITS = 8;
+    private static final int CREATURES_DIGITS = 5;
+    private static final int CREATURES_LINE = 3;
+    private static final float FPS_SAMPLE_TIME = 1;
     private static final float CAMERA_DIST_FACTOR = 0.5f;
-    private static final int MAX_X_RANGE_FACTOR = 200;
-    private static final int MIN_X_RANGE = -200;
-    private Vector2 avatarLoc;
-    private Avatar avatar;
+    private static final int PROFILER_OVERLAY_KEY = KeyEvent.VK_F3;
+    private static final int PROFILER_EXPORT_KEY = KeyEvent.VK_F4;
+    private static final String PROFILER_EXPORT_PREFIX = "pepse-profile-";
+    private static final String PROFILER_EXPORT_SUFFIX = ".csv";
+    private static final int SAVE_KEY = KeyEvent.VK_F5;
+    private static final int LOAD_KEY = KeyEvent.VK_F9;
+    private static final int SAVE_RECORDING_KEY = KeyEvent.VK_F6;
+    private static final Path REPLAYS_DIRECTORY = Path.of("replays");
+    private static final String RECORDING_PREFIX = "replay-";
+    private static final String RECORDING_SUFFIX = ".pepse-replay";
+    private static final int KEY_CODES = 256;
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    private static final Path SAVES_DIRECTORY = Path.of("saves");
+    private static final Path QUICK_SAVE_PATH = SAVES_DIRECTORY.resolve("quicksave.pepse");
+    private static final double NANOS_IN_MILLI = 1e6;
+    private static final ExecutorService ASSET_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "asset-decoder");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final boolean[] keysWerePressed = new boolean[KEY_CODES];
+    private final FixedTimestep timestep = new FixedTimestep(PepseWorld.TICK_LENGTH, MAX_TICKS_PER_FRAME);
+    private PepseWorld world;
     private Vector2 windowDimensions;
-    private Terrain terrain;
-    private Flora flora;
-    private List<Block> groundBlocks;
-    private List<List<GameObject>> trees;
-    private int minXRange;
-    private int maxXRange;
+    private UserInputListener inputListener;
+    private WindowController windowController;
+    private ProfilerOverlay profilerOverlay;
+    private Hud hud;
+    private int framesPerSecond;
+    private int framesInSample;
+    private float sampleTime;
+    private InputRecorder inputRecorder;
+    private Path snapshotToLoad;
+    private WorldDeltaStore replacedDeltaStore;
+    private AssetManager assets;
+    private CompletableFuture<AvatarAnimations> avatarAnimations;
+    private long launchTime;
+    private long assetsIndexedTime;
+    private long assetsDecodedTime;
+    private boolean firstFrameRendered;
 
 
     /**
@@ -148,239 +204,261 @@ public class PepseGameManager extends GameManager {
     public void initializeGame(ImageReader imageReader, SoundReader soundReader,
                                UserInputListener inputListener, WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
+        // decoded while the rest of the game is set up; a loaded game acquires the cached atlas
+        // before the previous game's animations release it, so it is decoded only once
+        if (assets == null) {
+            this.assets = new AssetManager(openAssetArchive(), ASSET_EXECUTOR);
+            this.assetsIndexedTime = System.nanoTime();
+            this.avatarAnimations = AvatarAnimations.load(assets)
+                    .whenComplete((animations, error) -> assetsDecodedTime = System.nanoTime());
+        } else {
+            CompletableFuture<AvatarAnimations> previousAnimations = avatarAnimations;
+            this.avatarAnimations = AvatarAnimations.load(assets);
+            previousAnimations.join().release();
+        }
 
         this.windowDimensions = windowController.getWindowDimensions();
-        this.minXRange = MIN_X_RANGE;
-        this.maxXRange = (int) windowDimensions.x() + MAX_X_RANGE_FACTOR;
-        this.seed = new Random().nextInt();
-        //sky
-        GameObject sky = Sky.create(windowDimensions);
-        gameObjects().addGameObject(sky, SKY_LAYER);
-        //terrain
-        this.terrain = new Terrain(windowDimensions);
-        createTerrain(this.minXRange, this.maxXRange);
-        //night
-        GameObject night = Night.create(windowDimensions, DAY_CYCLE_LENGTH);
-        gameObjects().addGameObject(night, DAYNIGHT_LAYER);
-        //sun
-        GameObject sun = Sun.create(windowDimensions, DAY_CYCLE_LENGTH);
-        gameObjects().addGameObject(sun, SUN_LAYER);
-        //sun halo
-        GameObject sunHalo = SunHalo.create(sun);
-        gameObjects().addGameObject(sunHalo, SUN_HALO_LAYER);
-        //avatar
-        float initialXLocation = windowDimensions.x() / AVATAR_INITIAL_X_DIVIDER;
-        Vector2 avatarInitialPosition = new Vector2(initialXLocation,
-                terrain.groundHeightAt(initialXLocation) - AVATAR_HEIGHT);
-        this.avatar = new Avatar(avatarInitialPosition, inputListener, imageReader);
-        this.avatarLoc = avatar.getCenter();
-        gameObjects().addGameObject(avatar, AVATAR_LAYER);
-        //display energy
-        displayEnergy();
-        //flora
-        this.flora = new Flora(terrain::groundHeightAt, gameObjects()::addGameObject,
-                gameObjects()::removeGameObject,
-            avatar::addEnergy);
-        createFlora(this.minXRange, this.maxXRange);
-        //clouds
-        List<GameObject> cloudsBlocks = Cloud.create(windowDimensions, DAY_CYCLE_LENGTH,
-                gameObjects()::addGameObject,
-                avatar::addListener);
-        for(GameObject cloudBlock: cloudsBlocks) {
-        gameObjects().addGameObject(cloudBlock, CLOUD_LAYER);
+        this.inputListener = inputListener;
+        this.windowController = windowController;
+        // the avatar's contacts with the ground, trunks and fruit are found by the world
+        gameObjects().layers().shouldLayersCollide(Layer.DEFAULT, Layer.STATIC_OBJECTS, false);
+        gameObjects().layers().shouldLayersCollide(Layer.DEFAULT, Layer.DEFAULT, false);
+        GameSnapshot snapshot = readSnapshotToLoad();
+        int seed = snapshot != null ? snapshot.getSeed() : new Random().nextInt();
+        //world, its avatar's input recorded tick by tick
+        this.inputRecorder = new InputRecorder(inputListener::isKeyPressed, seed);
+        this.world = new PepseWorld(windowDimensions, gameObjects()::addGameObject,
+                gameObjects()::removeGameObject, inputRecorder, avatarAnimations.join(),
+                profiler, snapshot != null ? snapshot.getDeltaStore() : openDeltaStore(seed),
+                new WorldContext(seed, windowDimensions,
+                Boolean.getBoolean(WorldContext.CAVES_PROPERTY)));
+        if (snapshot != null) {
+            world.create(snapshot);
+        } else {
+            world.create();
         }
-        Vector2 avatarDistFromCam =
-                windowDimensions.mult(CAMERA_DIST_FACTOR).subtract(avatarInitialPosition);
+        if (replacedDeltaStore != null) {
+            deleteDeltaStore(replacedDeltaStore);
+            this.replacedDeltaStore = null;
+        }
+        Avatar avatar = world.getAvatar();
+        //heads-up display
+        createHud(avatar);
+        //profiler overlay
+        this.profilerOverlay = new ProfilerOverlay(profiler, PepseWorld.PROFILED_LAYERS,
+                PepseWorld.PROFILED_LAYER_NAMES, this::countObjectsInLayer, gameObjects()::addGameObject,
+                gameObjects()::removeGameObject, ENERGY_LAYER);
+        Vector2 avatarDistFromCam = new Vector2(0,
+                windowDimensions.y() * CAMERA_DIST_FACTOR - avatar.getTopLeftCorner().y());
         Camera camera = new Camera(avatar, avatarDistFromCam, windowDimensions, windowDimensions);
         setCamera(camera);
     }
 
     /**
      * Updates the terrain and flora as the avatar moves, ensuring the world remains infinite.
+     * The game objects and the world are advanced in fixed ticks of {@link PepseWorld#TICK_LENGTH},
+     * as many as the frame's time covers, so the game runs at the same speed at any frame rate.
+     * A frame that takes too long runs a bounded number of ticks, dropping the rest of its time.
+     * F3 toggles the profiler overlay, F4 exports the recent frames' timings to a CSV file,
+     * F5 saves the game, F6 saves the input recorded since the game started (for replaying it
+     * headlessly) and F9 loads the last save.
      *
      * @param deltaTime Time elapsed since the last update.
      */
     @Override
     public void update(float deltaTime) {
-        super.update(deltaTime);
-        updateMinAndMax();
+        profiler.beginFrame();
+        profiler.begin(FrameProfiler.UPDATE);
+        int ticks = timestep.advance(deltaTime);
+        for (int i = 0; i < ticks; i++) {
+            inputRecorder.sample();
+            super.update(PepseWorld.TICK_LENGTH);
+            world.update(PepseWorld.TICK_LENGTH);
+        }
+        handleKeys();
+        countFrame(deltaTime);
+        hud.update();
+        profiler.end(FrameProfiler.UPDATE);
     }
 
-    /*
-     * Displays the avatar's energy level on the screen.
+    /**
+     * Renders the game. The first rendered frame reports the game's cold start time: since the
+     * JVM started and since the game was launched, and when the assets were indexed and the
+     * avatar's atlas decoded.
      *
-     * Updates the text and its position in the game UI.
-     */
-    private void displayEnergy() {
-        TextRenderable energyText = new TextRenderable(ENERGY_TEXT_PREFIX + avatar.getEnergy());
-        GameObject energyDisplay = new GameObject(TEXT_TOP_LEFT,
-               TEXT_DIMENSIONS, energyText);
-        energyDisplay.setCoordinateSpace(danogl.components.CoordinateSpace.CAMERA_COORDINATES);
-        energyDisplay.addComponent((deltaTime) -> {
-            energyText.setString(ENERGY_TEXT_PREFIX + avatar.getEnergy());
-        });
-        energyDisplay.setTag(TEXT_TAG);
-        gameObjects().addGameObject(energyDisplay, ENERGY_LAYER);
+     * @param g The graphics to render on.
+     */
+    @Override
+    public void render(Graphics2D g) {
+        super.render(g);
+        if (!firstFrameRendered) {
+            firstFrameRendered = true;
+            reportColdStart();
+        }
     }
 
     /*
-     * Creates terrain within the specified range.
-     *
-     * Generates and adds blocks to form the ground, based on the given x-coordinate range.
+     * Prints the time it took to render the first frame and to load the assets.
      */
-    private void createTerrain(int minXRange, int maxXRange) {
-        this.groundBlocks = this.terrain.createInRange(minXRange,maxXRange);
-        for (GameObject block : groundBlocks) {
-            gameObjects().addGameObject(block, GROUND_LAYER);
-        }
+    private void reportColdStart() {
+        long now = System.nanoTime();
+        System.out.printf("Cold start: first frame %d ms after the JVM started, %.1f ms after launch "
+                        + "(assets indexed at %.1f ms, avatar atlas decoded at %.1f ms)%n",
+                ManagementFactory.getRuntimeMXBean().getUptime(), (now - launchTime) / NANOS_IN_MILLI,
+                (assetsIndexedTime - launchTime) / NANOS_IN_MILLI, (assetsDecodedTime - launchTime) / NANOS_IN_MILLI);
     }
 
     /*
-     * Creates flora (trees and fruits) within the specified range.
-     *
-     * Spawns trees and their associated components (leaves, fruits) in the
-     * specified x-coordinate range.
-     */
-    private void createFlora(int minXRange, int maxXRange) {
-        this.trees = flora.createInRange(minXRange, maxXRange);
-        for (List<GameObject> tree : trees) {
-            for (GameObject treePart : tree) {
-                String tag = treePart.getTag();
-                if (TREE_TRUNK_TAG.equals(tag)) {
-                    gameObjects().addGameObject(treePart, GROUND_LAYER);
-                } else if (LEAF_TAG.equals(tag)) {
-                    gameObjects().addGameObject(treePart, LEAVES_LAYER);
-                } else if(FRUIT_TAG.equals(tag)) {
-                    gameObjects().addGameObject(treePart, FRUIT_LAYER);
-                }
+     * Handles the profiler, save/load and recording keys, each acting once when it is first pressed.
+     */
+    private void handleKeys() {
+        if (isNewlyPressed(PROFILER_OVERLAY_KEY)) {
+            profilerOverlay.toggle();
+        }
+        if (isNewlyPressed(PROFILER_EXPORT_KEY)) {
+            Path path = Path.of(PROFILER_EXPORT_PREFIX + System.currentTimeMillis() + PROFILER_EXPORT_SUFFIX);
+            try {
+                profiler.export(path);
+            } catch (IOException e) {
+                System.err.println("Failed to export profile to " + path + ": " + e.getMessage());
             }
         }
+        if (isNewlyPressed(SAVE_KEY)) {
+            try {
+                Files.createDirectories(SAVES_DIRECTORY);
+                world.snapshot().write(QUICK_SAVE_PATH, world.getDeltaStore());
+            } catch (IOException e) {
+                System.err.println("Failed to save the game to " + QUICK_SAVE_PATH + ": " + e.getMessage());
+            }
+        }
+        if (isNewlyPressed(SAVE_RECORDING_KEY)) {
+            saveRecording();
+        }
+        if (isNewlyPressed(LOAD_KEY) && QUICK_SAVE_PATH.toFile().exists()) {
+            this.replacedDeltaStore = world.getDeltaStore();
+            this.snapshotToLoad = QUICK_SAVE_PATH;
+            windowController.resetGame();
+        }
     }
 
-
     /*
-     * Updates the terrain and flora boundaries as the avatar moves.
-     *
-     * Dynamically adjusts the world to ensure continuous generation of terrain and flora
-     * while removing objects that move out of the visible frame.
-     */
-    private void updateMinAndMax() {
-        boolean removeFromLeft;
-        float CurrentAvatarX = this.avatar.getCenter().x();
-        float PreviousAvatarX = this.avatarLoc.x();
-        float avaterMovement = CurrentAvatarX - PreviousAvatarX; //not abs?
-        if(avaterMovement > THRESHOLD) {
-            removeFromLeft = true;
-            int newMax = (int) (avaterMovement + this.maxXRange);
-            createTerrain(this.maxXRange, newMax);
-            createFlora(this.maxXRange, newMax);
-            cleanFrame(this.minXRange + avaterMovement, removeFromLeft);
-            this.maxXRange = newMax;
-            this.minXRange += (int) avaterMovement;
-            this.avatarLoc = this.avatar.getCenter();
-        }
-        else if(avaterMovement < -THRESHOLD) {
-            removeFromLeft = false;
-            int newMin = (int) (this.minXRange + avaterMovement);
-            createTerrain(newMin, this.minXRange);
-            createFlora(newMin, this.minXRange);
-            cleanFrame(this.maxXRange + avaterMovement, removeFromLeft);
-            this.minXRange = newMin;
-            this.maxXRange += (int) avaterMovement;
-            this.avatarLoc = this.avatar.getCenter();
+     * Writes the input recorded so far to a new file under the replays directory.
+     */
+    private void saveRecording() {
+        Path path = REPLAYS_DIRECTORY.resolve(RECORDING_PREFIX + System.currentTimeMillis() + RECORDING_SUFFIX);
+        try {
+            Files.createDirectories(REPLAYS_DIRECTORY);
+            inputRecorder.getRecording().write(path);
+        } catch (IOException e) {
+            System.err.println("Failed to save the input recording to " + path + ": " + e.getMessage());
         }
-
     }
 
+    /*
+     * Returns whether a key is pressed in this frame but was not pressed in the previous one.
+     */
+    private boolean isNewlyPressed(int keyCode) {
+        boolean pressed = inputListener.isKeyPressed(keyCode);
+        boolean newlyPressed = pressed && !keysWerePressed[keyCode];
+        keysWerePressed[keyCode] = pressed;
+        return newlyPressed;
+    }
 
     /*
-     * Removes game objects that are outside the visible frame.
-     *
-     * Identifies and deletes ground blocks and flora outside the given boundary
-     * based on the avatar's position.
-     */
-    private void cleanFrame(float boundary, boolean removeFromLeft) {
-        ArrayList<Block> groundToRemove = new ArrayList<>();
-        for (Block block : this.groundBlocks) {
-            if ((removeFromLeft && block.getTopLeftCorner().x() <= boundary) ||
-                    (!removeFromLeft && block.getTopLeftCorner().x() >= boundary)) {
-                groundToRemove.add(block);
-                gameObjects().removeGameObject(block, GROUND_LAYER);
-            }
+     * Reads the snapshot the game should start from, if one was requested. A snapshot that
+     * can not be read is reported and a new game is started instead.
+     */
+    private GameSnapshot readSnapshotToLoad() {
+        if (snapshotToLoad == null) {
+            return null;
         }
-        this.groundBlocks.removeAll(groundToRemove);
+        Path path = snapshotToLoad;
+        this.snapshotToLoad = null;
+        try {
+            return GameSnapshot.read(path);
+        } catch (IOException e) {
+            System.err.println("Failed to load the game from " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
 
-        for (List<GameObject> tree : trees) {
-            for (GameObject treePart : tree) {
-                if (removeFromLeft) {
-                    if (TREE_TRUNK_TAG.equals(treePart.getTag())) {
-                        if (treePart.getCenter().x() <= boundary) {
-                            removeTree(tree);
-                            break;
-                        }
-                    }
-                } else if (!removeFromLeft) {
-                    if (TREE_TRUNK_TAG.equals(treePart.getTag())) {
-                        if (treePart.getCenter().x() >= boundary) {
-                            removeTree(tree);
-                            break;
-                        }
-                    }
-                }
-            }
+    /*
+     * Deletes a world's delta store, whose changes are kept only by the saves, once it is
+     * replaced by a loaded game's or when the game exits.
+     */
+    private static void deleteDeltaStore(WorldDeltaStore deltaStore) {
+        try {
+            deltaStore.delete();
+        } catch (IOException e) {
+            System.err.println("Failed to delete the world delta store: " + e.getMessage());
         }
     }
 
-//        ArrayList<GameObject> floraToRemove = new ArrayList<>();
-//        for (List<GameObject> tree : trees) {
-//            for (GameObject treePart : tree) {
-//                if (removeFromLeft) {
-//                    if (treePart.getCenter().x() <= boundary) {
-//                        floraToRemove.add(treePart);
-//                        String tag = treePart.getTag();
-//                        removeTreePart(treePart, tag);
-//                    }
-//                }
-//                else {
-//                    if (treePart.getCenter().x() >= boundary) {
-//                        floraToRemove.add(treePart);
-//                        String tag = treePart.getTag();
-//                        removeTreePart(treePart, tag);
-//                    }
-//                }
-//            }
-//            this.trees.removeAll(floraToRemove);
-//        }
-//    }
+    /*
+     * Opens the packed asset archive, or packs the loose asset directory if there is none.
+     */
+    private static AssetArchive openAssetArchive() {
+        try {
+            return AssetArchive.openOrPack(AssetArchive.DEFAULT_ARCHIVE, AssetArchive.DEFAULT_DIRECTORY);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open the game's assets", e);
+        }
+    }
 
+    /*
+     * Opens a new store of the given seed's world changes, in a temporary file that a save
+     * copies the changes out of.
+     */
+    private static WorldDeltaStore openDeltaStore(int seed) {
+        try {
+            return WorldDeltaStore.openTemporary(seed);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open the world delta store", e);
+        }
+    }
 
     /*
-     * Removes a tree and all its parts from the game.
-     *
-     * Deletes the entire tree (trunk, leaves, and fruits) from the game objects
-     * and internal list of trees.
+     * Returns the number of game objects in the given layer.
      */
-    private void removeTree(List<GameObject> tree) {
-        for (GameObject treePart : tree) {
-            String tag = treePart.getTag();
-            removeTreePart(treePart, tag);
+    private int countObjectsInLayer(int layer) {
+        int count = 0;
+        for (GameObject ignored : gameObjects().objectsInLayer(layer)) {
+            count++;
         }
-        this.trees.remove(tree);
+        return count;
     }
 
     /*
-     * Removes a specific tree part based on its tag.
-     *
-     * Deletes a tree component (trunk, leaf, or fruit) from the game,
-     * depending on its tag and associated layer.
-     */
-    private void removeTreePart(GameObject treePart, String tag) {
-        if (TREE_TRUNK_TAG.equals(tag)) {
-            gameObjects().removeGameObject(treePart, GROUND_LAYER);
-        } else if (LEAF_TAG.equals(tag)) {
-            gameObjects().removeGameObject(treePart, LEAVES_LAYER);
-        } else if (FRUIT_TAG.equals(tag)) {
-            gameObjects().removeGameObject(treePart, FRUIT_LAYER);
+     * Creates the heads-up display: the avatar's energy, updated by its stat engine when the
+     * displayed energy changes, and the frame rate, the avatar's cell and the number of awake
+     * creatures, polled every frame.
+     */
+    private void createHud(Avatar avatar) {
+        this.hud = new Hud(gameObjects()::addGameObject, ENERGY_LAYER);
+        HudText energyText = hud.addText(ENERGY_TEXT_PREFIX, TEXT_TOP_LEFT, ENERGY_DIGITS);
+        energyText.setValue(avatar.getStats().getDisplayed(Stat.ENERGY));
+        avatar.getStats().addListener(Stat.ENERGY, (stat, value) -> energyText.setValue(value));
+        Vector2 rightColumn = new Vector2(windowDimensions.x() - HUD_RIGHT_COLUMN_WIDTH, TEXT_TOP_LEFT.y());
+        Vector2 lineOffset = new Vector2(0, HUD_LINE_HEIGHT);
+        hud.addPolledText(FPS_TEXT_PREFIX, rightColumn, FPS_DIGITS, () -> framesPerSecond);
+        hud.addPolledText(COLUMN_TEXT_PREFIX, rightColumn.add(lineOffset), COORDINATE_DIGITS,
+                () -> LoadedWindow.columnOf(avatar.getCenter().x()));
+        hud.addPolledText(ROW_TEXT_PREFIX, rightColumn.add(lineOffset.mult(2)), COORDINATE_DIGITS,
+                () -> (int) Math.floor(avatar.getCenter().y() / Block.SIZE));
+        hud.addPolledText(CREATURES_TEXT_PREFIX, rightColumn.add(lineOffset.mult(CREATURES_LINE)),
+                CREATURES_DIGITS, () -> world.getCreatures().awakeCount());
+    }
+
+    /*
+     * Counts a rendered frame, updating the frame rate once every sample time.
+     */
+    private void countFrame(float deltaTime) {
+        framesInSample++;
+        sampleTime += deltaTime;
+        if (sampleTime >= FPS_SAMPLE_TIME) {
+            framesPerSecond = Math.round(framesInSample / sampleTime);
+            framesInSample = 0;
+            sampleTime = 0;
         }
     }
 
@@ -388,9 +466,19 @@ public class PepseGameManager extends GameManager {
     /**
      * Main entry point to run the Pepse game.
      *
-     * @param args Command-line arguments (not used).
+     * @param args Command-line arguments: optionally, the path of a saved game to start from.
      */
     public static void main(String[] args) {
-        new PepseGameManager().run();
+        PepseGameManager game = new PepseGameManager();
+        game.launchTime = System.nanoTime();
+        if (args.length > 0) {
+            game.snapshotToLoad = Path.of(args[0]);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (game.world != null) {
+                deleteDeltaStore(game.world.getDeltaStore());
+            }
+        }));
+        game.run();
     }
 }
\ No newline at end of file
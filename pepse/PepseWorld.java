@@ -0,0 +1,614 @@
+package pepse;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.util.Vector2;
+import pepse.persistence.GameSnapshot;
+import pepse.persistence.WorldDeltaStore;
+import pepse.profiling.FrameProfiler;
+import pepse.world.Avatar;
+import pepse.world.AvatarAnimations;
+import pepse.world.Block;
+import pepse.world.BlockTracker;
+import pepse.world.Cloud;
+import pepse.world.LoadedWindow;
+import pepse.world.Sky;
+import pepse.world.Terrain;
+import pepse.world.WorldContext;
+import pepse.world.creatures.Creatures;
+import pepse.world.daynight.DayCycleClock;
+import pepse.world.daynight.DayCycleLighting;
+import pepse.world.daynight.Moon;
+import pepse.world.daynight.Night;
+import pepse.world.daynight.Starfield;
+import pepse.world.daynight.Sun;
+import pepse.world.daynight.SunHalo;
+import pepse.world.parallax.ParallaxBackground;
+import pepse.world.physics.AvatarContacts;
+import pepse.world.physics.KinematicController;
+import pepse.world.physics.SpatialHash;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.FruitTracker;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Holds the world logic of the Pepse game: the sky, terrain, day-night cycle, avatar,
+ * flora, creatures and clouds, together with the infinite scrolling of terrain and flora.
+ * The world does not depend on a window - it only adds and removes game objects through
+ * the given functions, so it can be driven both by {@link PepseGameManager} and by a
+ * headless runner.
+ *
+ * Blocks can be dug out of and placed in the terrain, either through {@link #digBlock} and
+ * {@link #placeBlock} or by the avatar, with {@link #DIG_KEY} and {@link #PLACE_KEY}. An edit
+ * is kept in the world's delta store and marks its chunk of {@link Terrain#CHUNK_COLUMNS}
+ * columns dirty; on the next update only the ground blocks of the loaded columns of dirty
+ * chunks are rebuilt, and the rest of the loaded world is left as it is.
+ *
+ * The ground blocks, trunks and fruits that the avatar can touch are registered in a
+ * {@link SpatialHash} as their columns are loaded, and the avatar's contacts with them are
+ * resolved through it once per update, so danogl does not need to check the avatar against
+ * every loaded object. Setting the system property "pepse.kinematicAvatar" to true moves the
+ * avatar through the terrain with a {@link KinematicController} instead, which sweeps it
+ * against the terrain's solid cells, so ground blocks are not registered for collision at all.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see PepseGameManager
+ */
+public class PepseWorld {
+
+    /**
+     * The length, in seconds, of a simulation tick. The world is always advanced in ticks of
+     * this length, whatever the frame rate, so that a game plays out the same on every machine.
+     */
+    public static final float TICK_LENGTH = 1f / 60;
+    /**
+     * The key with which the avatar digs out the block in front of its feet, or the block under
+     * it if there is none in front.
+     */
+    public static final int DIG_KEY = KeyEvent.VK_Z;
+    /**
+     * The key with which the avatar places a block in front of its feet.
+     */
+    public static final int PLACE_KEY = KeyEvent.VK_X;
+
+    private static final int CLOUD_LAYER = Layer.BACKGROUND + 4;
+    private static final int SKY_LAYER = Layer.BACKGROUND;
+    private static final int GROUND_LAYER = Layer.STATIC_OBJECTS;
+    // Ground blocks that touch no air, in a layer that collides with nothing
+    private static final int GROUND_INTERIOR_LAYER = Layer.STATIC_OBJECTS - 1;
+    private static final int DAYNIGHT_LAYER = Layer.FOREGROUND;
+    private static final int SUN_LAYER = Layer.BACKGROUND + 2;
+    private static final int SUN_HALO_LAYER = Layer.BACKGROUND + 1;
+    // Drawn over the sky, which is added to the same layer first
+    private static final int STARFIELD_LAYER = Layer.BACKGROUND;
+    private static final int MOON_LAYER = Layer.BACKGROUND + 2;
+    // In front of the sun and moon, behind the rain drops, which are added to the same layer later
+    private static final int HILLS_LAYER = PepseGameManager.RAIN_DROP_LAYER;
+    private static final int LEAVES_LAYER = Layer.BACKGROUND + 5;
+    // In front of the leaves, behind the trunks and ground
+    private static final int CREATURES_LAYER = Layer.BACKGROUND + 6;
+    private static final int AVATAR_LAYER = Layer.DEFAULT;
+    private static final int AVATAR_HEIGHT = 80;
+    private static final int AVATAR_INITIAL_X_DIVIDER = 2;
+    private static final int LOADED_MARGIN = 200;
+    private static final int UNLOAD_MARGIN_COLUMNS = 2;
+    private static final int AVATAR_CENTER_DIVIDER = 2;
+    private static final String DEBUG_PROPERTY = "pepse.debugWorld";
+    private static final String KINEMATIC_AVATAR_PROPERTY = "pepse.kinematicAvatar";
+    private static final float FAST_FORWARD_STEP = 0.5f;
+    // How far into a block the avatar's edges reach for the cells around them
+    private static final float EDIT_REACH = Block.SIZE / 2f;
+    /*
+     * The layers whose object counts are profiled, and their names.
+     */
+    static final int[] PROFILED_LAYERS = {SKY_LAYER, SUN_HALO_LAYER, SUN_LAYER,
+            PepseGameManager.RAIN_DROP_LAYER, CLOUD_LAYER, LEAVES_LAYER, CREATURES_LAYER, GROUND_INTERIOR_LAYER,
+            GROUND_LAYER, AVATAR_LAYER, DAYNIGHT_LAYER};
+    static final String[] PROFILED_LAYER_NAMES = {"sky & stars", "sun halo", "sun & moon", "hills & rain",
+            "clouds", "leaves", "creatures", "ground interior", "ground", "avatar & fruit", "night"};
+    private final Vector2 windowDimensions;
+    private final BiConsumer<GameObject, Integer> addFunc;
+    private final BiConsumer<GameObject, Integer> removeFunc;
+    private final Predicate<Integer> isKeyPressedFunc;
+    private final AvatarAnimations avatarAnimations;
+    private final FrameProfiler profiler;
+    private final WorldDeltaStore deltaStore;
+    private final WorldContext context;
+    private final LoadedWindow loadedWindow;
+    private final int loadedHalfWidth;
+    private final DayCycleLighting lighting = new DayCycleLighting();
+    private final DayCycleClock dayCycleClock;
+    private final Set<Integer> dirtyChunks = new HashSet<>();
+    private final SpatialHash spatialHash = new SpatialHash();
+    private final boolean kinematicAvatar = Boolean.getBoolean(KINEMATIC_AVATAR_PROPERTY);
+    private AvatarContacts avatarContacts;
+    private KinematicController avatarController;
+    private float worldTime;
+    private boolean digKeyWasPressed;
+    private boolean placeKeyWasPressed;
+    private Avatar avatar;
+    private Terrain terrain;
+    private Flora flora;
+    private Creatures creatures;
+
+    /**
+     * Constructs a new, still empty, world.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param addFunc          A consumer that adds a GameObject to a specific layer.
+     * @param removeFunc       A consumer that removes a GameObject from a specific layer.
+     * @param isKeyPressedFunc A predicate telling whether a key (by its KeyEvent code) is pressed.
+     * @param avatarAnimations The avatar's animations.
+     * @param profiler         The profiler timing the world's streaming subsystems.
+     * @param deltaStore       The store of the world's changes (such as eaten fruit), which
+     *                         also holds the world's clock.
+     * @param context          The world's seed and generation context.
+     */
+    public PepseWorld(Vector2 windowDimensions, BiConsumer<GameObject, Integer> addFunc,
+                      BiConsumer<GameObject, Integer> removeFunc, Predicate<Integer> isKeyPressedFunc,
+                      AvatarAnimations avatarAnimations, FrameProfiler profiler,
+                      WorldDeltaStore deltaStore, WorldContext context) {
+        this.windowDimensions = windowDimensions;
+        this.addFunc = addFunc;
+        this.removeFunc = removeFunc;
+        this.isKeyPressedFunc = isKeyPressedFunc;
+        this.avatarAnimations = avatarAnimations;
+        this.profiler = profiler;
+        this.deltaStore = deltaStore;
+        this.context = context;
+        this.worldTime = deltaStore.getWorldTime();
+        this.dayCycleClock = new DayCycleClock(PepseGameManager.DAY_CYCLE_LENGTH, worldTime);
+        this.loadedHalfWidth = (int) windowDimensions.x() / AVATAR_CENTER_DIVIDER + LOADED_MARGIN;
+        this.loadedWindow = new LoadedWindow(loadedHalfWidth, loadedHalfWidth, UNLOAD_MARGIN_COLUMNS,
+                this::loadColumn, this::unloadColumn, Boolean.getBoolean(DEBUG_PROPERTY));
+    }
+
+    /**
+     * Creates all the game objects of the world around the avatar's initial position.
+     * Setting the system property "pepse.debugWorld" to true verifies the loaded window's
+     * invariants on every update.
+     */
+    public void create() {
+        createWorld(null);
+    }
+
+    /**
+     * Creates the world as it was when a snapshot was taken: the avatar's state is restored,
+     * and only the columns around the avatar are generated. The world's changes and its clock,
+     * which sets the phases of the day cycle and the clouds, are read from the delta store this
+     * world was constructed with, which should be the one restored from the snapshot.
+     *
+     * @param snapshot The snapshot to restore.
+     */
+    public void create(GameSnapshot snapshot) {
+        createWorld(snapshot);
+    }
+
+    /**
+     * Takes a snapshot of the world's current state.
+     *
+     * @return The snapshot.
+     */
+    public GameSnapshot snapshot() {
+        return new GameSnapshot(context.getSeed(), avatar.getTopLeftCorner().x(),
+                avatar.getTopLeftCorner().y(), avatar.getVelocity().x(), avatar.getVelocity().y(),
+                avatar.getEnergy());
+    }
+
+    /**
+     * Returns the store of the world's changes.
+     *
+     * @return The world delta store.
+     */
+    public WorldDeltaStore getDeltaStore() {
+        return deltaStore;
+    }
+
+    /*
+     * Creates all the game objects of the world, restoring the given snapshot if it is not null.
+     */
+    private void createWorld(GameSnapshot snapshot) {
+        //sky
+        GameObject sky = Sky.create(windowDimensions, lighting, dayCycleClock);
+        addFunc.accept(sky, SKY_LAYER);
+        //terrain
+        this.terrain = new Terrain(context, new StoredBlockTracker());
+        //night
+        GameObject night = Night.create(windowDimensions, lighting, dayCycleClock);
+        addFunc.accept(night, DAYNIGHT_LAYER);
+        //sun
+        GameObject sun = Sun.create(windowDimensions, dayCycleClock);
+        addFunc.accept(sun, SUN_LAYER);
+        //sun halo
+        GameObject sunHalo = SunHalo.create(sun, windowDimensions, dayCycleClock);
+        addFunc.accept(sunHalo, SUN_HALO_LAYER);
+        //avatar
+        float initialXLocation = windowDimensions.x() / AVATAR_INITIAL_X_DIVIDER;
+        Vector2 avatarInitialPosition = snapshot != null ?
+                new Vector2(snapshot.getAvatarX(), snapshot.getAvatarY()) :
+                new Vector2(initialXLocation, terrain.groundHeightAt(initialXLocation) - AVATAR_HEIGHT);
+        this.avatar = new Avatar(avatarInitialPosition, isKeyPressedFunc, avatarAnimations);
+        addFunc.accept(avatar, AVATAR_LAYER);
+        this.avatarContacts = new AvatarContacts(spatialHash, avatar);
+        if (kinematicAvatar) {
+            this.avatarController = new KinematicController(avatar, terrain, avatar::land);
+        }
+        //stars and moon
+        GameObject starfield = Starfield.create(windowDimensions, context, lighting, dayCycleClock, avatar);
+        addFunc.accept(starfield, STARFIELD_LAYER);
+        GameObject moon = Moon.create(windowDimensions, lighting, dayCycleClock);
+        addFunc.accept(moon, MOON_LAYER);
+        //background hills
+        for (GameObject hills : ParallaxBackground.create(windowDimensions, context, avatar)) {
+            addFunc.accept(hills, HILLS_LAYER);
+        }
+        //flora
+        this.flora = new Flora(terrain::groundHeightAt, addFunc, removeFunc, avatar::addEnergy,
+                new StoredFruitTracker(), context);
+        float avatarX = avatar.getCenter().x();
+        terrain.prepareColumns((int) Math.floor((avatarX - loadedHalfWidth) / Block.SIZE),
+                (int) Math.ceil((avatarX + loadedHalfWidth) / Block.SIZE));
+        loadedWindow.update(avatarX);
+        //creatures
+        this.creatures = new Creatures(terrain, context, loadedHalfWidth);
+        addFunc.accept(creatures.getBatch(), CREATURES_LAYER);
+        //clouds
+        List<GameObject> cloudsBlocks = Cloud.create(context, windowDimensions,
+                PepseGameManager.DAY_CYCLE_LENGTH, addFunc, removeFunc, avatar::addListener);
+        for (GameObject cloudBlock : cloudsBlocks) {
+            addFunc.accept(cloudBlock, CLOUD_LAYER);
+        }
+        if (snapshot != null) {
+            avatar.setVelocity(new Vector2(snapshot.getAvatarVelocityX(), snapshot.getAvatarVelocityY()));
+            avatar.setEnergy(snapshot.getAvatarEnergy());
+            fastForward(cloudsBlocks, worldTime % Cloud.CYCLE_LENGTH);
+        }
+    }
+
+    /*
+     * Advances the transitions of the given game objects by the given time, in small steps,
+     * so that they continue from the phase they were in instead of from their start.
+     */
+    private static void fastForward(List<GameObject> gameObjects, float time) {
+        for (float passed = 0; passed < time; passed += FAST_FORWARD_STEP) {
+            float step = Math.min(FAST_FORWARD_STEP, time - passed);
+            for (GameObject gameObject : gameObjects) {
+                gameObject.update(step);
+            }
+        }
+    }
+
+    /**
+     * Updates the terrain and flora as the avatar moves, ensuring the world remains infinite:
+     * columns entering the loaded window around the avatar are created and columns leaving it
+     * are removed. The avatar's digging and placing is applied, the ground of the chunks
+     * edited since the last update is rebuilt, the creatures are advanced, the avatar's
+     * contacts are resolved and its stat modifiers of the tick are applied.
+     *
+     * @param deltaTime Time elapsed since the last update.
+     */
+    public void update(float deltaTime) {
+        this.worldTime += deltaTime;
+        deltaStore.setWorldTime(worldTime);
+        dayCycleClock.setTime(worldTime);
+        boolean digKeyPressed = isKeyPressedFunc.test(DIG_KEY);
+        if (digKeyPressed && !digKeyWasPressed) {
+            digInFrontOfAvatar();
+        }
+        digKeyWasPressed = digKeyPressed;
+        boolean placeKeyPressed = isKeyPressedFunc.test(PLACE_KEY);
+        if (placeKeyPressed && !placeKeyWasPressed) {
+            placeInFrontOfAvatar();
+        }
+        placeKeyWasPressed = placeKeyPressed;
+        profiler.begin(FrameProfiler.UPDATE_MIN_AND_MAX);
+        loadedWindow.update(avatar.getCenter().x());
+        profiler.end(FrameProfiler.UPDATE_MIN_AND_MAX);
+        rebuildDirtyChunks();
+        profiler.begin(FrameProfiler.CREATURES);
+        creatures.update(avatar.getCenter().x(), deltaTime);
+        profiler.end(FrameProfiler.CREATURES);
+        profiler.begin(FrameProfiler.AVATAR_CONTACTS);
+        if (avatarController != null) {
+            avatarController.update();
+        }
+        avatarContacts.update();
+        profiler.end(FrameProfiler.AVATAR_CONTACTS);
+        avatar.getStats().apply();
+    }
+
+    /**
+     * Digs out the block of a cell. The cell's ground is rebuilt on the next update.
+     *
+     * @param column The cell's column.
+     * @param row    The cell's row.
+     * @return true if a block was dug out.
+     * @see Terrain#removeBlock(int, int)
+     */
+    public boolean digBlock(int column, int row) {
+        if (!terrain.removeBlock(column, row)) {
+            return false;
+        }
+        markDirty(column);
+        return true;
+    }
+
+    /**
+     * Places a block in an empty cell that the avatar does not stand in. The cell's ground is
+     * rebuilt on the next update.
+     *
+     * @param column The cell's column.
+     * @param row    The cell's row.
+     * @return true if a block was placed.
+     * @see Terrain#placeBlock(int, int)
+     */
+    public boolean placeBlock(int column, int row) {
+        Vector2 avatarTopLeft = avatar.getTopLeftCorner();
+        Vector2 avatarBottomRight = avatarTopLeft.add(avatar.getDimensions());
+        boolean overlapsAvatar = column * Block.SIZE < avatarBottomRight.x()
+                && (column + 1) * Block.SIZE > avatarTopLeft.x()
+                && row * Block.SIZE < avatarBottomRight.y()
+                && (row + 1) * Block.SIZE > avatarTopLeft.y();
+        if (overlapsAvatar || !terrain.placeBlock(column, row)) {
+            return false;
+        }
+        markDirty(column);
+        return true;
+    }
+
+    /**
+     * Returns the avatar of this world.
+     *
+     * @return The avatar.
+     */
+    public Avatar getAvatar() {
+        return avatar;
+    }
+
+    /**
+     * Returns the terrain of this world.
+     *
+     * @return The terrain.
+     */
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    /**
+     * Returns the seed and generation context of this world.
+     *
+     * @return The world's context.
+     */
+    public WorldContext getContext() {
+        return context;
+    }
+
+    /**
+     * Returns the world's creatures.
+     *
+     * @return The creatures.
+     */
+    public Creatures getCreatures() {
+        return creatures;
+    }
+
+    /**
+     * Returns the spatial hash holding the objects the avatar can touch.
+     *
+     * @return The spatial hash.
+     */
+    public SpatialHash getSpatialHash() {
+        return spatialHash;
+    }
+
+    /**
+     * Returns the window of world columns loaded around the avatar.
+     *
+     * @return The loaded window.
+     */
+    public LoadedWindow getLoadedWindow() {
+        return loadedWindow;
+    }
+
+    /*
+     * Digs out the block in front of the avatar's feet, or the block under it if there is no
+     * block in front.
+     */
+    private void digInFrontOfAvatar() {
+        int feetRow = (int) Math.floor((avatar.getTopLeftCorner().y() + avatar.getDimensions().y()
+                - EDIT_REACH) / Block.SIZE);
+        if (!digBlock(frontColumn(), feetRow)) {
+            digBlock(LoadedWindow.columnOf(avatar.getCenter().x()), feetRow + 1);
+        }
+    }
+
+    /*
+     * Places a block in front of the avatar's feet.
+     */
+    private void placeInFrontOfAvatar() {
+        int feetRow = (int) Math.floor((avatar.getTopLeftCorner().y() + avatar.getDimensions().y()
+                - EDIT_REACH) / Block.SIZE);
+        placeBlock(frontColumn(), feetRow);
+    }
+
+    /*
+     * Returns the column right in front of the avatar, in the direction it faces.
+     */
+    private int frontColumn() {
+        float frontX = avatar.isFacingLeft() ? avatar.getTopLeftCorner().x() - EDIT_REACH :
+                avatar.getTopLeftCorner().x() + avatar.getDimensions().x() + EDIT_REACH;
+        return LoadedWindow.columnOf(frontX);
+    }
+
+    /*
+     * Marks the chunk of an edited column dirty, and the chunk next to it if the column is at
+     * the chunk's edge, since an edit can expose or enclose the blocks beside it.
+     */
+    private void markDirty(int column) {
+        int chunk = Math.floorDiv(column, Terrain.CHUNK_COLUMNS);
+        dirtyChunks.add(chunk);
+        int columnInChunk = Math.floorMod(column, Terrain.CHUNK_COLUMNS);
+        if (columnInChunk == 0) {
+            dirtyChunks.add(chunk - 1);
+        } else if (columnInChunk == Terrain.CHUNK_COLUMNS - 1) {
+            dirtyChunks.add(chunk + 1);
+        }
+    }
+
+    /*
+     * Rebuilds the ground of the loaded columns of the dirty chunks.
+     */
+    private void rebuildDirtyChunks() {
+        if (dirtyChunks.isEmpty()) {
+            return;
+        }
+        profiler.begin(FrameProfiler.REBUILD_TERRAIN);
+        for (int chunk : dirtyChunks) {
+            int firstColumn = Math.max(chunk * Terrain.CHUNK_COLUMNS, loadedWindow.getMinColumn());
+            int lastColumn = Math.min((chunk + 1) * Terrain.CHUNK_COLUMNS - 1, loadedWindow.getMaxColumn());
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int rebuiltColumn = column;
+                loadedWindow.rebuildColumn(column, columnObjects -> rebuildGround(rebuiltColumn, columnObjects));
+            }
+        }
+        dirtyChunks.clear();
+        profiler.end(FrameProfiler.REBUILD_TERRAIN);
+    }
+
+    /*
+     * Replaces the ground blocks among a column's game objects by newly created ones, keeping
+     * its tree.
+     */
+    private List<GameObject> rebuildGround(int column, List<GameObject> columnObjects) {
+        List<GameObject> rebuilt = new ArrayList<>();
+        List<GameObject> oldGround = new ArrayList<>();
+        for (GameObject gameObject : columnObjects) {
+            String tag = gameObject.getTag();
+            if (PepseGameManager.GROUND_TAG.equals(tag) || PepseGameManager.GROUND_INTERIOR_TAG.equals(tag)) {
+                oldGround.add(gameObject);
+            } else {
+                rebuilt.add(gameObject);
+            }
+        }
+        unloadColumn(oldGround);
+        addGround(column, rebuilt);
+        return rebuilt;
+    }
+
+    /*
+     * Creates the ground blocks of a column, adding them to the game and to the column's objects.
+     */
+    private void addGround(int column, List<GameObject> columnObjects) {
+        int x = column * Block.SIZE;
+        profiler.begin(FrameProfiler.CREATE_TERRAIN);
+        for (Block block : this.terrain.createInRange(x, x)) {
+            if (PepseGameManager.GROUND_TAG.equals(block.getTag())) {
+                addFunc.accept(block, GROUND_LAYER);
+                if (!kinematicAvatar) {
+                    spatialHash.insert(block);
+                }
+            } else {
+                addFunc.accept(block, GROUND_INTERIOR_LAYER);
+            }
+            columnObjects.add(block);
+        }
+        profiler.end(FrameProfiler.CREATE_TERRAIN);
+    }
+
+    /*
+     * Loads a single column of the world: its ground blocks and its tree, if it has one.
+     */
+    private List<GameObject> loadColumn(int column) {
+        int x = column * Block.SIZE;
+        List<GameObject> columnObjects = new ArrayList<>();
+        addGround(column, columnObjects);
+        profiler.begin(FrameProfiler.CREATE_FLORA);
+        for (List<GameObject> tree : flora.createInRange(x, x)) {
+            for (GameObject treePart : tree) {
+                String tag = treePart.getTag();
+                if (PepseGameManager.TREE_TRUNK_TAG.equals(tag)) {
+                    addFunc.accept(treePart, GROUND_LAYER);
+                    spatialHash.insert(treePart);
+                } else if (PepseGameManager.LEAF_TAG.equals(tag)) {
+                    addFunc.accept(treePart, LEAVES_LAYER);
+                } else if (PepseGameManager.FRUIT_TAG.equals(tag)) {
+                    // an eaten fruit waits in the background layer until it grows back
+                    addFunc.accept(treePart, ((Fruit) treePart).isEaten() ?
+                            Layer.BACKGROUND : PepseGameManager.FRUIT_LAYER);
+                    spatialHash.insert(treePart);
+                }
+                columnObjects.add(treePart);
+            }
+        }
+        profiler.end(FrameProfiler.CREATE_FLORA);
+        return columnObjects;
+    }
+
+    /*
+     * Removes all the game objects of an unloaded column from the game.
+     */
+    private void unloadColumn(List<GameObject> columnObjects) {
+        profiler.begin(FrameProfiler.CLEAN_FRAME);
+        for (GameObject gameObject : columnObjects) {
+            String tag = gameObject.getTag();
+            if (PepseGameManager.GROUND_TAG.equals(tag) || PepseGameManager.TREE_TRUNK_TAG.equals(tag)) {
+                removeFunc.accept(gameObject, GROUND_LAYER);
+                spatialHash.remove(gameObject);
+            } else if (PepseGameManager.GROUND_INTERIOR_TAG.equals(tag)) {
+                removeFunc.accept(gameObject, GROUND_INTERIOR_LAYER);
+            } else if (PepseGameManager.LEAF_TAG.equals(tag)) {
+                removeFunc.accept(gameObject, LEAVES_LAYER);
+            } else if (PepseGameManager.FRUIT_TAG.equals(tag)) {
+                // an eaten fruit waits in the background layer until it grows back
+                removeFunc.accept(gameObject, PepseGameManager.FRUIT_LAYER);
+                removeFunc.accept(gameObject, Layer.BACKGROUND);
+                spatialHash.remove(gameObject);
+            }
+        }
+        profiler.end(FrameProfiler.CLEAN_FRAME);
+    }
+
+    /*
+     * Keeps the edited blocks in the world's delta store.
+     */
+    private class StoredBlockTracker implements BlockTracker {
+        @Override
+        public long removedBlocks(int column) {
+            return deltaStore.removedBlocks(column);
+        }
+
+        @Override
+        public long placedBlocks(int column) {
+            return deltaStore.placedBlocks(column);
+        }
+
+        @Override
+        public void blocksEdited(int column, int baseRow, long removed, long placed) {
+            deltaStore.setBlocks(column, baseRow, removed, placed);
+        }
+    }
+
+    /*
+     * Keeps the state of eaten fruits in the world's delta store, with respawn times on the
+     * world's clock.
+     */
+    private class StoredFruitTracker implements FruitTracker {
+        @Override
+        public float respawnDelay(int column, int fruitIndex) {
+            return deltaStore.fruitRespawnDelay(column, fruitIndex, worldTime);
+        }
+
+        @Override
+        public void fruitEaten(int column, int fruitIndex) {
+            deltaStore.markFruitEaten(column, fruitIndex, worldTime + PepseGameManager.DAY_CYCLE_LENGTH);
+        }
+    }
+}
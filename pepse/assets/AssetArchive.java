@@ -0,0 +1,254 @@
+package pepse.assets;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The game's assets packed into a single file, whose index of every asset is read once, when
+ * the archive is opened; the file is memory-mapped, so an asset is read straight from the
+ * mapping. Where there is no packed file, the loose asset directory can be packed into an
+ * archive in memory instead, so the game reads its assets the same way in both cases.
+ *
+ * File layout (little endian): a header of magic, version and entry count, then the index, an
+ * entry per asset of name length (short), UTF-8 name, offset (int) and length (int), and then
+ * the assets' bytes. An asset is named by its path relative to the packed directory's parent,
+ * with '/' separators, e.g. "assets/idle_0.png".
+ *
+ * Usage: AssetArchive [directory] [archive]
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see AssetManager
+ */
+public class AssetArchive {
+
+    /** The default directory of the loose assets. */
+    public static final Path DEFAULT_DIRECTORY = Path.of("assets");
+    /** The default path of the packed archive. */
+    public static final Path DEFAULT_ARCHIVE = Path.of("assets.pak");
+
+    private static final int MAGIC = 0x50415243;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_FIXED_SIZE = Short.BYTES + 2 * Integer.BYTES;
+    private static final char SEPARATOR = '/';
+    private final ByteBuffer data;
+    private final Map<String, Integer> index;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    /*
+     * Reads the index of an archive's bytes.
+     */
+    private AssetArchive(ByteBuffer data, String source) throws IOException {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException(source + " is not an asset archive");
+        }
+        int version = data.getInt(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException(source + " is a version " + version + " asset archive, expected " + VERSION);
+        }
+        int count = data.getInt(2 * Integer.BYTES);
+        this.index = new HashMap<>(count * 2);
+        this.offsets = new int[count];
+        this.lengths = new int[count];
+        ByteBuffer entries = data.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(HEADER_SIZE);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[entries.getShort()];
+            entries.get(name);
+            offsets[i] = entries.getInt();
+            lengths[i] = entries.getInt();
+            if (offsets[i] < 0 || lengths[i] < 0 || (long) offsets[i] + lengths[i] > data.limit()) {
+                throw new IOException(source + " has an asset out of its bounds");
+            }
+            index.put(new String(name, StandardCharsets.UTF_8), i);
+        }
+    }
+
+    /**
+     * Opens a packed archive file, mapping it into memory and reading its index.
+     *
+     * @param path The archive's path.
+     * @return The archive.
+     * @throws IOException if the file can not be read or is not a valid archive.
+     */
+    public static AssetArchive open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new AssetArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                    path.toString());
+        }
+    }
+
+    /**
+     * Packs the files under a directory into an archive in memory.
+     *
+     * @param directory The directory.
+     * @return The archive.
+     * @throws IOException if the directory's files can not be read.
+     */
+    public static AssetArchive pack(Path directory) throws IOException {
+        return new AssetArchive(packBytes(directory), directory.toString());
+    }
+
+    /**
+     * Opens the packed archive if it exists and packs the loose directory in memory otherwise.
+     *
+     * @param archive   The packed archive's path.
+     * @param directory The loose assets' directory.
+     * @return The archive.
+     * @throws IOException if neither can be read.
+     */
+    public static AssetArchive openOrPack(Path archive, Path directory) throws IOException {
+        return Files.exists(archive) ? open(archive) : pack(directory);
+    }
+
+    /**
+     * Packs the files under a directory into an archive file.
+     *
+     * @param directory The directory.
+     * @param archive   The archive's path, replaced if it exists.
+     * @throws IOException if the files can not be read or the archive can not be written.
+     */
+    public static void write(Path directory, Path archive) throws IOException {
+        ByteBuffer bytes = packBytes(directory);
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Returns the names of the archive's assets.
+     *
+     * @return The names.
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Tells whether the archive holds an asset.
+     *
+     * @param name The asset's name.
+     * @return true if the archive holds it.
+     */
+    public boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    /**
+     * Returns an asset's bytes, a read-only view of the archive's memory.
+     *
+     * @param name The asset's name.
+     * @return The asset's bytes.
+     * @throws NoSuchFileException if the archive does not hold the asset.
+     */
+    public ByteBuffer read(String name) throws NoSuchFileException {
+        Integer entry = index.get(name);
+        if (entry == null) {
+            throw new NoSuchFileException(name, null, "not in the asset archive");
+        }
+        return data.asReadOnlyBuffer().position(offsets[entry]).limit(offsets[entry] + lengths[entry]).slice();
+    }
+
+    /**
+     * Opens a stream over an asset's bytes.
+     *
+     * @param name The asset's name.
+     * @return The stream.
+     * @throws NoSuchFileException if the archive does not hold the asset.
+     */
+    public InputStream openStream(String name) throws NoSuchFileException {
+        ByteBuffer bytes = read(name);
+        return new InputStream() {
+            @Override
+            public int read() {
+                return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (!bytes.hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(length, bytes.remaining());
+                bytes.get(buffer, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return bytes.remaining();
+            }
+        };
+    }
+
+    /*
+     * Packs the files under a directory into an archive's bytes, in the order of their names.
+     */
+    private static ByteBuffer packBytes(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.filter(Files::isRegularFile).sorted().forEach(files::add);
+        }
+        Path root = directory.toAbsolutePath().getParent();
+        List<byte[]> names = new ArrayList<>();
+        int indexSize = 0;
+        long dataSize = 0;
+        for (Path file : files) {
+            byte[] name = root.relativize(file.toAbsolutePath()).toString()
+                    .replace(file.getFileSystem().getSeparator(), String.valueOf(SEPARATOR))
+                    .getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            indexSize += ENTRY_FIXED_SIZE + name.length;
+            dataSize += Files.size(file);
+        }
+        if (HEADER_SIZE + indexSize + dataSize > Integer.MAX_VALUE) {
+            throw new IOException(directory + " is too large to pack");
+        }
+        ByteBuffer bytes = ByteBuffer.allocate((int) (HEADER_SIZE + indexSize + dataSize))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(MAGIC).putInt(VERSION).putInt(files.size());
+        int offset = HEADER_SIZE + indexSize;
+        byte[][] contents = new byte[files.size()][];
+        for (int i = 0; i < files.size(); i++) {
+            contents[i] = Files.readAllBytes(files.get(i));
+            bytes.putShort((short) names.get(i).length).put(names.get(i)).putInt(offset).putInt(contents[i].length);
+            offset += contents[i].length;
+        }
+        for (byte[] content : contents) {
+            bytes.put(content);
+        }
+        return bytes.flip();
+    }
+
+    /**
+     * Packs the loose asset directory into an archive file.
+     *
+     * @param args Optionally, the directory and the archive's path.
+     * @throws IOException if the archive can not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = args.length > 0 ? Path.of(args[0]) : DEFAULT_DIRECTORY;
+        Path archive = args.length > 1 ? Path.of(args[1]) : DEFAULT_ARCHIVE;
+        write(directory, archive);
+        System.out.println("Packed " + open(archive).names().size() + " assets into " + archive);
+    }
+}
@@ -0,0 +1,70 @@
+package pepse.assets;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A reference to an asset of the {@link AssetManager}, typed by what the asset decodes to.
+ * The asset stays cached while any handle to it is held; releasing the last handle evicts it,
+ * and acquiring it again decodes it again.
+ *
+ * @param <T> The type of the decoded asset.
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see AssetManager
+ */
+public class AssetHandle<T> {
+
+    private final AssetManager manager;
+    private final String key;
+    private final CompletableFuture<T> asset;
+    private boolean released;
+
+    /*
+     * Constructs a handle to a cached asset, whose reference the manager already counted.
+     */
+    AssetHandle(AssetManager manager, String key, CompletableFuture<T> asset) {
+        this.manager = manager;
+        this.key = key;
+        this.asset = asset;
+    }
+
+    /**
+     * Returns the asset, waiting for it to be decoded if it is not yet.
+     *
+     * @return The asset.
+     * @throws java.util.concurrent.CompletionException if the asset could not be loaded.
+     */
+    public T get() {
+        return asset.join();
+    }
+
+    /**
+     * Returns the asset's loading, to act once it is decoded without waiting for it.
+     *
+     * @return A future completed with the asset.
+     */
+    public CompletableFuture<T> future() {
+        return asset;
+    }
+
+    /**
+     * Returns the asset's key in the manager's cache.
+     *
+     * @return The key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Releases the handle's reference to the asset. Releasing a handle more than once does
+     * nothing.
+     */
+    public void release() {
+        synchronized (manager) {
+            if (!released) {
+                released = true;
+                manager.release(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package pepse.assets;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Loads the game's assets from an {@link AssetArchive} and caches them while they are used.
+ * Assets are decoded on an executor, so that images requested together are decoded in
+ * parallel, and are handed out as {@link AssetHandle}s: an asset is decoded once however many
+ * handles to it are held, and is evicted from the cache when the last of them is released.
+ *
+ * A sprite atlas is an asset too, keyed by its frames' names; its frames' images are only
+ * held until they are packed into its texture.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see AssetHandle
+ */
+public class AssetManager {
+
+    private static final String ATLAS_KEY_PREFIX = "atlas:";
+    private static final String ATLAS_KEY_SEPARATOR = ",";
+    private final AssetArchive archive;
+    private final Executor executor;
+    private final Map<String, Entry> cache = new HashMap<>();
+
+    /**
+     * Constructs a manager of an archive's assets.
+     *
+     * @param archive  The archive.
+     * @param executor The executor assets are decoded on.
+     */
+    public AssetManager(AssetArchive archive, Executor executor) {
+        this.archive = archive;
+        this.executor = executor;
+    }
+
+    /**
+     * Acquires an image, decoding it off the calling thread if it is not cached.
+     *
+     * @param name The image's name in the archive.
+     * @return A handle to the image, whose future fails with an {@link UncheckedIOException} if
+     * the image can not be read.
+     */
+    public synchronized AssetHandle<BufferedImage> image(String name) {
+        return acquire(name, () -> CompletableFuture.supplyAsync(() -> decodeImage(name), executor));
+    }
+
+    /**
+     * Acquires a sprite atlas of images, decoding the images in parallel and packing them off
+     * the calling thread if the atlas is not cached.
+     *
+     * @param names The images' names in the archive, by frame index.
+     * @return A handle to the atlas.
+     */
+    public synchronized AssetHandle<SpriteAtlas> atlas(String[] names) {
+        return acquire(ATLAS_KEY_PREFIX + String.join(ATLAS_KEY_SEPARATOR, names), () -> packAtlas(names));
+    }
+
+    /**
+     * Returns the number of cached assets.
+     *
+     * @return The number of assets held by at least one handle.
+     */
+    public synchronized int cachedAssets() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the archive the assets are loaded from.
+     *
+     * @return The archive.
+     */
+    public AssetArchive getArchive() {
+        return archive;
+    }
+
+    /*
+     * Drops a reference to a cached asset, evicting it when none are left.
+     */
+    synchronized void release(String key) {
+        Entry entry = cache.get(key);
+        if (entry != null && --entry.references == 0) {
+            cache.remove(key);
+        }
+    }
+
+    /*
+     * Counts a reference to an asset, starting its loading if it is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> AssetHandle<T> acquire(String key, Supplier<CompletableFuture<T>> loader) {
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            entry = new Entry(loader.get());
+            cache.put(key, entry);
+        }
+        entry.references++;
+        return new AssetHandle<>(this, key, (CompletableFuture<T>) entry.asset);
+    }
+
+    /*
+     * Decodes an atlas's images and packs them, releasing the images once they are packed.
+     */
+    private CompletableFuture<SpriteAtlas> packAtlas(String[] names) {
+        List<AssetHandle<BufferedImage>> images = new ArrayList<>(names.length);
+        CompletableFuture<?>[] decoded = new CompletableFuture<?>[names.length];
+        for (int i = 0; i < names.length; i++) {
+            images.add(image(names[i]));
+            decoded[i] = images.get(i).future();
+        }
+        return CompletableFuture.allOf(decoded).thenApplyAsync(ignored -> {
+            BufferedImage[] frames = new BufferedImage[images.size()];
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = images.get(i).get();
+            }
+            return new SpriteAtlas(frames);
+        }, executor).whenComplete((atlas, error) -> images.forEach(AssetHandle::release));
+    }
+
+    /*
+     * Decodes an image of the archive.
+     */
+    private BufferedImage decodeImage(String name) {
+        try (InputStream in = archive.openStream(name)) {
+            BufferedImage image = ImageIO.read(in);
+            if (image == null) {
+                throw new IOException("Not a readable image");
+            }
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + name, e);
+        }
+    }
+
+    /*
+     * A cached asset and the number of handles held to it.
+     */
+    private static class Entry {
+
+        private final CompletableFuture<?> asset;
+        private int references;
+
+        /*
+         * Constructs an entry of an asset with no references yet.
+         */
+        Entry(CompletableFuture<?> asset) {
+            this.asset = asset;
+        }
+    }
+}
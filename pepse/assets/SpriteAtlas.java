@@ -0,0 +1,148 @@
+package pepse.assets;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Sprite frames packed into a single texture. The frames' images are packed in rows, left to
+ * right, into one image; every frame is then a {@link Renderable} drawing its rectangle of that
+ * image. An atlas is immutable once packed, so it can be shared by any number of game objects,
+ * which keep only their own animation state.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see AssetManager#atlas(String[])
+ */
+public class SpriteAtlas {
+
+    private static final int MAX_WIDTH = 2048;
+    // Transparent pixels between frames, so scaled frames do not bleed into their neighbours
+    private static final int PADDING = 1;
+    private final BufferedImage texture;
+    private final Renderable[] frames;
+
+    /**
+     * Packs images into an atlas.
+     *
+     * @param images The frames' images, by frame index.
+     */
+    public SpriteAtlas(BufferedImage[] images) {
+        int[] lefts = new int[images.length];
+        int[] tops = new int[images.length];
+        int width = 0;
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (int i = 0; i < images.length; i++) {
+            if (x > 0 && x + images[i].getWidth() > MAX_WIDTH) {
+                x = 0;
+                y += rowHeight + PADDING;
+                rowHeight = 0;
+            }
+            lefts[i] = x;
+            tops[i] = y;
+            x += images[i].getWidth() + PADDING;
+            width = Math.max(width, x);
+            rowHeight = Math.max(rowHeight, images[i].getHeight());
+        }
+        this.texture = new BufferedImage(Math.max(1, width), Math.max(1, y + rowHeight),
+                BufferedImage.TYPE_INT_ARGB);
+        this.frames = new Renderable[images.length];
+        Graphics2D g = texture.createGraphics();
+        for (int i = 0; i < images.length; i++) {
+            g.drawImage(images[i], lefts[i], tops[i], null);
+            frames[i] = new Frame(texture, lefts[i], tops[i], images[i].getWidth(), images[i].getHeight());
+        }
+        g.dispose();
+    }
+
+    /**
+     * Returns the number of frames in the atlas.
+     *
+     * @return The number of frames.
+     */
+    public int size() {
+        return frames.length;
+    }
+
+    /**
+     * Returns a frame of the atlas. The same renderable is returned on every call.
+     *
+     * @param index The frame's index.
+     * @return A renderable drawing the frame.
+     */
+    public Renderable frame(int index) {
+        return frames[index];
+    }
+
+    /**
+     * Returns the atlas's texture, holding all of its frames.
+     *
+     * @return The texture.
+     */
+    public BufferedImage getTexture() {
+        return texture;
+    }
+
+    /*
+     * A frame of an atlas: a rectangle of its texture, drawn scaled to the object's dimensions.
+     */
+    private static class Frame implements Renderable {
+
+        private final BufferedImage texture;
+        private final int left;
+        private final int top;
+        private final int width;
+        private final int height;
+
+        /*
+         * Constructs a frame of a texture's rectangle.
+         */
+        Frame(BufferedImage texture, int left, int top, int width, int height) {
+            this.texture = texture;
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+        }
+
+        /*
+         * Draws the frame's rectangle, flipped by swapping its destination's edges, rotated
+         * about its center and faded by the given opaqueness.
+         */
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions, double rotation,
+                           boolean isFlippedHorizontally, boolean isFlippedVertically, double opaqueness) {
+            int x1 = Math.round(topLeftCorner.x());
+            int y1 = Math.round(topLeftCorner.y());
+            int x2 = x1 + Math.round(dimensions.x());
+            int y2 = y1 + Math.round(dimensions.y());
+            AffineTransform transform = null;
+            if (rotation != 0) {
+                transform = g.getTransform();
+                g.rotate(Math.toRadians(rotation), (x1 + x2) / 2.0, (y1 + y2) / 2.0);
+            }
+            Composite composite = null;
+            if (opaqueness < 1) {
+                composite = g.getComposite();
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER,
+                        (float) Math.max(0, opaqueness)));
+            }
+            g.drawImage(texture,
+                    isFlippedHorizontally ? x2 : x1, isFlippedVertically ? y2 : y1,
+                    isFlippedHorizontally ? x1 : x2, isFlippedVertically ? y1 : y2,
+                    left, top, left + width, top + height, null);
+            if (composite != null) {
+                g.setComposite(composite);
+            }
+            if (transform != null) {
+                g.setTransform(transform);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package pepse.bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * A small, dependency-free micro-benchmark harness. Each benchmark is warmed up, then run in
+ * batches for a fixed amount of time while measuring the average time and the average number
+ * of bytes allocated per operation (through the JVM's per-thread allocation counter, the same
+ * source JMH's GC profiler reads). Operations with primitive results should return
+ * {@link #consume(double)} so that boxing does not show up in the allocation numbers.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see WorldGenerationBenchmarks
+ */
+public final class MicroBenchmark {
+
+    /**
+     * A single benchmarked operation. The returned value is consumed so that the JIT can not
+     * eliminate the work.
+     */
+    public interface Operation {
+        /**
+         * Runs the operation once.
+         *
+         * @return The result of the operation.
+         */
+        Object run();
+    }
+
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+    private static final int BATCH_SIZE = 16;
+    private static final String HEADER_FORMAT = "%-32s %12s %8s %14s %14s %10s%n";
+    private static final String ROW_FORMAT = "%-32s %12d %8d %14.1f %14.1f %10d%n";
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static volatile int sink;
+    private static volatile double primitiveSink;
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * Prints the header of the results table.
+     */
+    public static void printHeader() {
+        System.out.printf(HEADER_FORMAT, "benchmark", "seed", "width", "ns/op", "bytes/op", "ops");
+    }
+
+    /**
+     * Consumes a primitive result without boxing it, so it does not count as an allocation.
+     *
+     * @param value The result to consume.
+     * @return null, to be returned from an operation.
+     */
+    public static Object consume(double value) {
+        primitiveSink += value;
+        return null;
+    }
+
+    /**
+     * Warms up, measures and prints a row of the results table for the given operation.
+     *
+     * @param name      The name of the benchmark.
+     * @param seed      The world seed the operation runs with.
+     * @param width     The window width the operation runs with.
+     * @param operation The operation to measure.
+     */
+    public static void measure(String name, int seed, int width, Operation operation) {
+        runFor(operation, WARMUP_NANOS);
+        long threadId = Thread.currentThread().getId();
+        long startBytes = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long ops = runFor(operation, MEASURE_NANOS);
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - startBytes;
+        System.out.printf(ROW_FORMAT, name, seed, width, (double) elapsed / ops,
+                (double) allocated / ops, ops);
+    }
+
+    /*
+     * Runs the operation in batches until the given time has passed, returning the number of
+     * operations run.
+     */
+    private static long runFor(Operation operation, long nanos) {
+        long ops = 0;
+        long end = System.nanoTime() + nanos;
+        int consumed = 0;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                consumed += System.identityHashCode(operation.run());
+            }
+            ops += BATCH_SIZE;
+        }
+        sink += consumed;
+        return ops;
+    }
+}
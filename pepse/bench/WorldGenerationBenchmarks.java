@@ -0,0 +1,124 @@
+package pepse.bench;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.PepseWorld;
+import pepse.util.ColorSupplier;
+import pepse.util.NoiseGenerator;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.WorldContext;
+import pepse.world.creatures.Creatures;
+import pepse.world.trees.Flora;
+import pepse.world.trees.FruitTracker;
+import pepse.world.trees.Tree;
+
+import java.awt.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks for the world generation hot paths: noise, ground height, terrain and flora
+ * creation, tree creation, color approximation and a tick of the creatures, over several
+ * window widths and seeds.
+ * Every operation covers one window width worth of columns, so results of different widths
+ * can be compared directly.
+ *
+ * Usage: WorldGenerationBenchmarks [benchmark name filter]
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see MicroBenchmark
+ */
+public class WorldGenerationBenchmarks {
+
+    private static final int[] WINDOW_WIDTHS = {800, 1280, 1920, 3840};
+    private static final int[] SEEDS = {1, 1234, -987654321};
+    private static final float WINDOW_HEIGHT = 720;
+    private static final double NOISE_FACTOR = 5 * Block.SIZE;
+    private static final Color BASE_COLOR = new Color(212, 123, 74);
+    private static final Vector2 TREE_LOCATION = new Vector2(600, 480);
+    private static final BiConsumer<GameObject, Integer> NO_OP_LAYER_FUNC = (gameObject, layer) -> { };
+    private static final Consumer<Float> NO_OP_ENERGY_FUNC = energy -> { };
+    private static final FruitTracker NO_EATEN_FRUIT = new FruitTracker() {
+        @Override
+        public float respawnDelay(int column, int fruitIndex) {
+            return 0;
+        }
+
+        @Override
+        public void fruitEaten(int column, int fruitIndex) {
+        }
+    };
+
+    /**
+     * Runs all the benchmarks whose name contains the given filter.
+     *
+     * @param args Optional: a filter on the benchmark names.
+     */
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        MicroBenchmark.printHeader();
+        for (int seed : SEEDS) {
+            WorldContext context = new WorldContext(seed, new Vector2(0, WINDOW_HEIGHT));
+            if ("colorSupplier.approximateColor".contains(filter)) {
+                MicroBenchmark.measure("colorSupplier.approximateColor", seed, 0,
+                        () -> ColorSupplier.approximateColor(BASE_COLOR));
+            }
+            if ("tree.createTree".contains(filter)) {
+                MicroBenchmark.measure("tree.createTree", seed, 0,
+                        () -> new Tree(TREE_LOCATION, NO_OP_LAYER_FUNC, NO_OP_LAYER_FUNC,
+                                NO_OP_ENERGY_FUNC, NO_EATEN_FRUIT, context).createTree());
+            }
+            for (int width : WINDOW_WIDTHS) {
+                runWidthBenchmarks(filter, seed, width);
+            }
+        }
+    }
+
+    /*
+     * Runs the benchmarks whose work depends on the window width.
+     */
+    private static void runWidthBenchmarks(String filter, int seed, int width) {
+        Vector2 windowDimensions = new Vector2(width, WINDOW_HEIGHT);
+        NoiseGenerator noiseGenerator = new NoiseGenerator(seed, (int) WINDOW_HEIGHT);
+        WorldContext context = new WorldContext(seed, windowDimensions);
+        Terrain terrain = new Terrain(context);
+        Flora flora = new Flora(terrain::groundHeightAt, NO_OP_LAYER_FUNC, NO_OP_LAYER_FUNC,
+                NO_OP_ENERGY_FUNC, NO_EATEN_FRUIT, context);
+        if ("noiseGenerator.noise".contains(filter)) {
+            MicroBenchmark.measure("noiseGenerator.noise", seed, width, () -> {
+                double sum = 0;
+                for (int x = 0; x <= width; x += Block.SIZE) {
+                    sum += noiseGenerator.noise(x, NOISE_FACTOR);
+                }
+                return MicroBenchmark.consume(sum);
+            });
+        }
+        if ("terrain.groundHeightAt".contains(filter)) {
+            MicroBenchmark.measure("terrain.groundHeightAt", seed, width, () -> {
+                float sum = 0;
+                for (int x = 0; x <= width; x += Block.SIZE) {
+                    sum += terrain.groundHeightAt(x);
+                }
+                return MicroBenchmark.consume(sum);
+            });
+        }
+        if ("terrain.createInRange".contains(filter)) {
+            MicroBenchmark.measure("terrain.createInRange", seed, width,
+                    () -> terrain.createInRange(0, width));
+        }
+        if ("flora.createInRange".contains(filter)) {
+            MicroBenchmark.measure("flora.createInRange", seed, width,
+                    () -> flora.createInRange(0, width));
+        }
+        if ("creatures.update".contains(filter)) {
+            // every creature within the window is awake, the rest sleep
+            Creatures creatures = new Creatures(terrain, context, width / 2f);
+            creatures.update(width / 2f, PepseWorld.TICK_LENGTH);
+            MicroBenchmark.measure("creatures.update", seed, width, () -> {
+                creatures.update(width / 2f, PepseWorld.TICK_LENGTH);
+                return MicroBenchmark.consume(creatures.awakeCount());
+            });
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package pepse.bench;
+
+import danogl.util.Vector2;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.WorldContext;
+import pepse.world.trees.Flora;
+import pepse.world.trees.TreeLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Stress tool for world generation over many seeds. Generates a number of terrain chunks
+ * ({@link Terrain#CHUNK_COLUMNS} columns each) for each of a number of seeds in parallel on a
+ * fork-join pool, using only the data phase of generation (ground heights, tree placement and
+ * tree layouts) so that no game objects are created. Prints, for every seed, the distribution of the ground's top row and a checksum of
+ * the generated world, then the overall throughput. The checksums depend only on the seed and
+ * the number of chunks, so they can be compared across builds to catch generation changes.
+ * Setting the system property "pepse.caves" to true generates worlds with caves.
+ *
+ * Usage: WorldGenerationStress [seeds] [chunks per seed] [first seed] [threads]
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Terrain
+ * @see Flora
+ * @see TreeLayout
+ */
+public class WorldGenerationStress {
+
+    private static final int DEFAULT_SEEDS = 32;
+    private static final int DEFAULT_CHUNKS = 1024;
+    private static final int DEFAULT_FIRST_SEED = 1;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+    private static final float NANOS_IN_SECOND = 1e9f;
+    private static final long COLUMN_MIX = 0x9E3779B97F4A7C15L;
+    private static final long ROW_MIX = 0xC2B2AE3D27D4EB4FL;
+    private static final long TRUNK_MIX = 0x165667B19E3779F9L;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private static final long MIX_MULTIPLIER_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94D049BB133111EBL;
+
+    /*
+     * Statistics of a range of generated columns, mergeable with the statistics of other ranges.
+     * The checksum is a sum of per-column hashes, so it does not depend on the merge order.
+     */
+    private static class GenerationStats {
+        private long columns;
+        private long trees;
+        private long leaves;
+        private long fruits;
+        private int minRow = Integer.MAX_VALUE;
+        private int maxRow = Integer.MIN_VALUE;
+        private double rowSum;
+        private double rowSquareSum;
+        private long checksum;
+
+        private void merge(GenerationStats other) {
+            columns += other.columns;
+            trees += other.trees;
+            leaves += other.leaves;
+            fruits += other.fruits;
+            minRow = Math.min(minRow, other.minRow);
+            maxRow = Math.max(maxRow, other.maxRow);
+            rowSum += other.rowSum;
+            rowSquareSum += other.rowSquareSum;
+            checksum += other.checksum;
+        }
+    }
+
+    /*
+     * Generates a range of chunks of a seed, splitting it in halves down to single chunks.
+     */
+    private static class ChunkRangeTask extends RecursiveTask<GenerationStats> {
+        private static final long serialVersionUID = 1L;
+        private final WorldContext context;
+        private final Terrain terrain;
+        private final int firstChunk;
+        private final int lastChunk;
+
+        private ChunkRangeTask(WorldContext context, Terrain terrain, int firstChunk, int lastChunk) {
+            this.context = context;
+            this.terrain = terrain;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        protected GenerationStats compute() {
+            if (firstChunk == lastChunk) {
+                return generateChunk(context, terrain, firstChunk);
+            }
+            int middle = firstChunk + (lastChunk - firstChunk) / 2;
+            ChunkRangeTask left = new ChunkRangeTask(context, terrain, firstChunk, middle);
+            left.fork();
+            GenerationStats stats = new ChunkRangeTask(context, terrain, middle + 1, lastChunk).compute();
+            stats.merge(left.join());
+            return stats;
+        }
+    }
+
+    /**
+     * Runs the stress tool.
+     *
+     * @param args Optional: the number of seeds, the number of chunks per seed, the first seed
+     *             and the number of threads.
+     */
+    public static void main(String[] args) {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SEEDS;
+        int chunks = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CHUNKS;
+        int firstSeed = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_FIRST_SEED;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<ForkJoinTask<GenerationStats>> tasks = new ArrayList<>();
+        for (int i = 0; i < seeds; i++) {
+            WorldContext context = new WorldContext(firstSeed + i, WINDOW_DIMENSIONS,
+                    Boolean.getBoolean(WorldContext.CAVES_PROPERTY));
+            // Chunks are centered around the world's origin
+            tasks.add(pool.submit(new ChunkRangeTask(context, new Terrain(context),
+                    -chunks / 2, chunks - chunks / 2 - 1)));
+        }
+        GenerationStats total = new GenerationStats();
+        System.out.printf("%12s %8s %8s %8s %8s %8s %18s%n",
+                "seed", "trees", "minRow", "meanRow", "stdRow", "maxRow", "checksum");
+        for (int i = 0; i < seeds; i++) {
+            GenerationStats stats = tasks.get(i).join();
+            double meanRow = stats.rowSum / stats.columns;
+            double stdRow = Math.sqrt(Math.max(0, stats.rowSquareSum / stats.columns - meanRow * meanRow));
+            System.out.printf("%12d %8d %8d %8.2f %8.2f %8d %18s%n", firstSeed + i, stats.trees,
+                    stats.minRow, meanRow, stdRow, stats.maxRow, Long.toHexString(stats.checksum));
+            total.merge(stats);
+        }
+        float seconds = (System.nanoTime() - start) / NANOS_IN_SECOND;
+        pool.shutdown();
+        System.out.printf("%d seeds x %d chunks of %d columns on %d threads in %.2f s: " +
+                        "%.0f columns/sec, %.0f trees/sec (%d leaves, %d fruits)%n",
+                seeds, chunks, Terrain.CHUNK_COLUMNS, threads, seconds, total.columns / seconds,
+                total.trees / seconds, total.leaves, total.fruits);
+    }
+
+    /*
+     * Generates the data of a single chunk of a seed.
+     */
+    private static GenerationStats generateChunk(WorldContext context, Terrain terrain, int chunk) {
+        GenerationStats stats = new GenerationStats();
+        int firstColumn = chunk * Terrain.CHUNK_COLUMNS;
+        for (int column = firstColumn; column < firstColumn + Terrain.CHUNK_COLUMNS; column++) {
+            int x = column * Block.SIZE;
+            int row = (int) Math.floor(terrain.groundHeightAt(x) / Block.SIZE);
+            long hash = column * COLUMN_MIX ^ row * ROW_MIX;
+            if (context.hasCaves()) {
+                hash ^= Long.rotateLeft(mix(terrain.solidMask(column)), 2);
+            }
+            if (Flora.hasTreeAt(x, context)) {
+                TreeLayout layout = TreeLayout.generate(x, context);
+                stats.trees++;
+                stats.leaves += layout.leafCount();
+                stats.fruits += layout.fruitCount();
+                hash ^= layout.getTrunkHeight() * TRUNK_MIX ^ mix(layout.getLeafMask())
+                        ^ Long.rotateLeft(mix(layout.getFruitMask()), 1);
+            }
+            stats.columns++;
+            stats.minRow = Math.min(stats.minRow, row);
+            stats.maxRow = Math.max(stats.maxRow, row);
+            stats.rowSum += row;
+            stats.rowSquareSum += (double) row * row;
+            stats.checksum += mix(hash);
+        }
+        return stats;
+    }
+
+    /*
+     * Scrambles the bits of a value (the SplitMix64 finalizer).
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        value = (value ^ (value >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+        return value ^ (value >>> MIX_SHIFT_3);
+    }
+}
@@ -0,0 +1,110 @@
+package pepse.headless;
+
+import danogl.GameObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A window-less replacement for danogl's game object collection. Holds game objects by layer
+ * and updates them once per frame. Additions and removals requested while a frame is being
+ * updated (e.g. rain drops created by a jump) are deferred to the end of the frame, as in danogl.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see HeadlessRunner
+ */
+public class HeadlessObjectCollection {
+
+    private final Map<Integer, Set<GameObject>> layers = new TreeMap<>();
+    private final List<GameObject> pendingAdd = new ArrayList<>();
+    private final List<Integer> pendingAddLayers = new ArrayList<>();
+    private final List<GameObject> pendingRemove = new ArrayList<>();
+    private final List<Integer> pendingRemoveLayers = new ArrayList<>();
+    private boolean updating;
+
+    /**
+     * Adds a game object to the given layer.
+     *
+     * @param gameObject The game object to add.
+     * @param layer      The layer to add it to.
+     */
+    public void addGameObject(GameObject gameObject, Integer layer) {
+        if (updating) {
+            pendingAdd.add(gameObject);
+            pendingAddLayers.add(layer);
+            return;
+        }
+        layers.computeIfAbsent(layer, key -> new LinkedHashSet<>()).add(gameObject);
+    }
+
+    /**
+     * Removes a game object from the given layer.
+     *
+     * @param gameObject The game object to remove.
+     * @param layer      The layer to remove it from.
+     */
+    public void removeGameObject(GameObject gameObject, Integer layer) {
+        if (updating) {
+            pendingRemove.add(gameObject);
+            pendingRemoveLayers.add(layer);
+            return;
+        }
+        Set<GameObject> layerObjects = layers.get(layer);
+        if (layerObjects != null) {
+            layerObjects.remove(gameObject);
+        }
+    }
+
+    /**
+     * Updates every game object, layer by layer, then applies the deferred additions and removals.
+     *
+     * @param deltaTime The time interval of the frame.
+     */
+    public void update(float deltaTime) {
+        updating = true;
+        for (Set<GameObject> layerObjects : layers.values()) {
+            for (GameObject gameObject : layerObjects) {
+                gameObject.update(deltaTime);
+            }
+        }
+        updating = false;
+        for (int i = 0; i < pendingAdd.size(); i++) {
+            addGameObject(pendingAdd.get(i), pendingAddLayers.get(i));
+        }
+        for (int i = 0; i < pendingRemove.size(); i++) {
+            removeGameObject(pendingRemove.get(i), pendingRemoveLayers.get(i));
+        }
+        pendingAdd.clear();
+        pendingAddLayers.clear();
+        pendingRemove.clear();
+        pendingRemoveLayers.clear();
+    }
+
+    /**
+     * Returns the number of game objects in the given layer.
+     *
+     * @param layer The layer.
+     * @return The number of game objects in the layer.
+     */
+    public int count(int layer) {
+        Set<GameObject> layerObjects = layers.get(layer);
+        return layerObjects == null ? 0 : layerObjects.size();
+    }
+
+    /**
+     * Returns the total number of game objects in all layers.
+     *
+     * @return The number of game objects.
+     */
+    public int count() {
+        int count = 0;
+        for (Set<GameObject> layerObjects : layers.values()) {
+            count += layerObjects.size();
+        }
+        return count;
+    }
+}
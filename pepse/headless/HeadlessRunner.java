@@ -0,0 +1,188 @@
+package pepse.headless;
+
+import danogl.gui.rendering.Renderable;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.PepseWorld;
+import pepse.persistence.WorldDeltaStore;
+import pepse.profiling.FrameProfiler;
+import pepse.world.AvatarAnimations;
+import pepse.world.WorldContext;
+
+import java.awt.*;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Runs the Pepse world without a window. The same world logic that {@link PepseGameManager}
+ * runs (terrain, flora, clouds, day-night cycle, avatar and world streaming) is updated at a
+ * fixed timestep as fast as possible, with a {@link TickInput} (a {@link ScriptedInput} or a
+ * replayed recording) in place of the keyboard and a stub image in place of the avatar's
+ * sprites. Used for soak tests, replays and for measuring world-streaming throughput on
+ * machines with no display.
+ *
+ * The avatar's contacts are resolved by the world itself, as in the game, so no danogl
+ * collision handling is needed.
+ *
+ * Usage: HeadlessRunner [frames] [script] [seed]
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see PepseWorld
+ * @see ScriptedInput
+ */
+public class HeadlessRunner {
+
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+    private static final int DEFAULT_FRAMES = 100000;
+    private static final String DEFAULT_SCRIPT = "R600,RJ30,I120,L400,LJ30,I60";
+    private static final int REPORT_INTERVAL = 10000;
+    private static final float NANOS_IN_SECOND = 1e9f;
+    private static final Renderable STUB_IMAGE = new RectangleRenderable(Color.BLACK);
+    private static final double NANOS_IN_MILLI = 1e6;
+    private static final double P50 = 50;
+    private static final double P99 = 99;
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final HeadlessObjectCollection gameObjects = new HeadlessObjectCollection();
+    private final TickInput input;
+    private final PepseWorld world;
+    private final WorldDeltaStore deltaStore;
+    private final Thread deltaStoreCleanup = new Thread(this::deleteDeltaStore);
+    private long frame;
+
+    /**
+     * Constructs a new headless runner and creates its world. The world's changes are kept in a
+     * temporary store, deleted when the runner is closed or, at the latest, when the JVM exits.
+     *
+     * @param input The input to play in place of the keyboard.
+     * @param seed  The seed of the world.
+     */
+    public HeadlessRunner(TickInput input, int seed) {
+        this.input = input;
+        this.deltaStore = openTemporaryDeltaStore(seed);
+        Runtime.getRuntime().addShutdownHook(deltaStoreCleanup);
+        this.world = new PepseWorld(WINDOW_DIMENSIONS, gameObjects::addGameObject,
+                gameObjects::removeGameObject, input, AvatarAnimations.read((path, isTransparent) -> STUB_IMAGE), profiler,
+                deltaStore, new WorldContext(seed, WINDOW_DIMENSIONS,
+                Boolean.getBoolean(WorldContext.CAVES_PROPERTY)));
+        world.create();
+    }
+
+    /**
+     * Simulates a single frame: updates all game objects, then the world, which resolves the
+     * avatar's contacts and streams the world around it.
+     */
+    public void step() {
+        profiler.beginFrame();
+        profiler.begin(FrameProfiler.UPDATE);
+        gameObjects.update(PepseWorld.TICK_LENGTH);
+        world.update(PepseWorld.TICK_LENGTH);
+        input.advance();
+        profiler.end(FrameProfiler.UPDATE);
+        frame++;
+    }
+
+    /**
+     * Simulates the given number of frames, printing statistics along the way.
+     *
+     * @param frames The number of frames to simulate.
+     */
+    public void run(long frames) {
+        long start = System.nanoTime();
+        for (long i = 0; i < frames; i++) {
+            step();
+            if (frame % REPORT_INTERVAL == 0) {
+                report(start);
+            }
+        }
+        report(start);
+    }
+
+    /**
+     * Returns the collection holding the world's game objects.
+     *
+     * @return The game objects of the world.
+     */
+    public HeadlessObjectCollection gameObjects() {
+        return gameObjects;
+    }
+
+    /**
+     * Returns the profiler timing the simulated frames.
+     *
+     * @return The profiler.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Returns the world being simulated.
+     *
+     * @return The world.
+     */
+    public PepseWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Deletes the world's delta store. The runner should not be stepped afterwards.
+     */
+    public void close() {
+        Runtime.getRuntime().removeShutdownHook(deltaStoreCleanup);
+        deleteDeltaStore();
+    }
+
+    /*
+     * Opens a world delta store in a temporary file.
+     */
+    private static WorldDeltaStore openTemporaryDeltaStore(int seed) {
+        try {
+            return WorldDeltaStore.openTemporary(seed);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open a temporary world delta store", e);
+        }
+    }
+
+    /*
+     * Closes the world's delta store and deletes its file.
+     */
+    private void deleteDeltaStore() {
+        try {
+            deltaStore.delete();
+        } catch (IOException e) {
+            System.err.println("Failed to delete the world delta store: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Prints the simulation speed and the live object counts.
+     */
+    private void report(long start) {
+        float seconds = (System.nanoTime() - start) / NANOS_IN_SECOND;
+        System.out.printf("frame %d: %.0f frames/sec (p50 %.3f p99 %.3f ms, streaming p99 %.3f ms), " +
+                        "%d objects (%d columns, %d column objects), %d creatures (%d awake), avatar x=%.0f energy=%.0f%n",
+                frame, frame / seconds,
+                profiler.percentile(FrameProfiler.UPDATE, P50) / NANOS_IN_MILLI,
+                profiler.percentile(FrameProfiler.UPDATE, P99) / NANOS_IN_MILLI,
+                profiler.percentile(FrameProfiler.UPDATE_MIN_AND_MAX, P99) / NANOS_IN_MILLI,
+                gameObjects.count(), world.getLoadedWindow().getLoadedColumns(),
+                world.getLoadedWindow().getLoadedObjects(), world.getCreatures().size(),
+                world.getCreatures().awakeCount(), world.getAvatar().getCenter().x(),
+                world.getAvatar().getEnergy());
+    }
+
+    /**
+     * Runs the headless simulation.
+     *
+     * @param args Optional: the number of frames, the input script and the seed.
+     */
+    public static void main(String[] args) {
+        long frames = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_FRAMES;
+        String script = args.length > 1 ? args[1] : DEFAULT_SCRIPT;
+        int seed = args.length > 2 ? Integer.parseInt(args[2]) : new Random().nextInt();
+        HeadlessRunner runner = new HeadlessRunner(new ScriptedInput(script), seed);
+        runner.run(frames);
+        runner.close();
+    }
+}
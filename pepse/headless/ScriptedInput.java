@@ -0,0 +1,117 @@
+package pepse.headless;
+
+import pepse.PepseWorld;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Replaces the user's keyboard with a looping script of key presses.
+ * A script is a comma separated list of steps, each made of the pressed keys followed by the
+ * number of frames they are held: L (left), R (right), J (jump / space), D (dig), P (place) or
+ * I (idle, no keys).
+ * For example "R300,RJ20,I60,L300" runs right, jumps while running, rests and runs back.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see HeadlessRunner
+ */
+public class ScriptedInput implements TickInput {
+
+    private static final char LEFT_KEY = 'L';
+    private static final char RIGHT_KEY = 'R';
+    private static final char JUMP_KEY = 'J';
+    private static final char DIG_KEY = 'D';
+    private static final char PLACE_KEY = 'P';
+    private static final String VALID_KEYS = "LRJDPI";
+    private static final String STEP_SEPARATOR = ",";
+    private static final String[] RANDOM_STEP_KEYS = {"L", "R", "LJ", "RJ", "J", "I"};
+    private static final int MAX_RANDOM_STEP_FRAMES = 300;
+    private final List<String> stepKeys = new ArrayList<>();
+    private final List<Integer> stepFrames = new ArrayList<>();
+    private int step;
+    private int frameInStep;
+
+    /**
+     * Constructs a new scripted input.
+     *
+     * @param script The script to play, in the format described above.
+     * @throws IllegalArgumentException if the script is malformed.
+     */
+    public ScriptedInput(String script) {
+        for (String token : script.split(STEP_SEPARATOR)) {
+            String trimmed = token.trim().toUpperCase();
+            int digitsStart = 0;
+            while (digitsStart < trimmed.length() && VALID_KEYS.indexOf(trimmed.charAt(digitsStart)) >= 0) {
+                digitsStart++;
+            }
+            if (digitsStart == 0 || digitsStart == trimmed.length()) {
+                throw new IllegalArgumentException("Bad script step: " + token);
+            }
+            int frames = Integer.parseInt(trimmed.substring(digitsStart));
+            if (frames <= 0) {
+                throw new IllegalArgumentException("Bad script step: " + token + " (frames must be positive)");
+            }
+            stepKeys.add(trimmed.substring(0, digitsStart));
+            stepFrames.add(frames);
+        }
+    }
+
+    /**
+     * Creates a script of random movement: random key combinations held for random lengths.
+     *
+     * @param seed  The seed of the random script.
+     * @param steps The number of steps in the script.
+     * @return The random scripted input.
+     */
+    public static ScriptedInput random(long seed, int steps) {
+        Random random = new Random(seed);
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < steps; i++) {
+            if (i > 0) {
+                script.append(STEP_SEPARATOR);
+            }
+            script.append(RANDOM_STEP_KEYS[random.nextInt(RANDOM_STEP_KEYS.length)])
+                    .append(1 + random.nextInt(MAX_RANDOM_STEP_FRAMES));
+        }
+        return new ScriptedInput(script.toString());
+    }
+
+    /**
+     * Moves the script one frame forward, looping back to the first step after the last one.
+     */
+    @Override
+    public void advance() {
+        frameInStep++;
+        if (frameInStep >= stepFrames.get(step)) {
+            frameInStep = 0;
+            step = (step + 1) % stepFrames.size();
+        }
+    }
+
+    /**
+     * Tells whether the given key is pressed in the current frame of the script.
+     *
+     * @param keyCode The KeyEvent code of the key.
+     * @return true if the key is pressed.
+     */
+    @Override
+    public boolean test(Integer keyCode) {
+        String keys = stepKeys.get(step);
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:
+                return keys.indexOf(LEFT_KEY) >= 0;
+            case KeyEvent.VK_RIGHT:
+                return keys.indexOf(RIGHT_KEY) >= 0;
+            case KeyEvent.VK_SPACE:
+                return keys.indexOf(JUMP_KEY) >= 0;
+            case PepseWorld.DIG_KEY:
+                return keys.indexOf(DIG_KEY) >= 0;
+            case PepseWorld.PLACE_KEY:
+                return keys.indexOf(PLACE_KEY) >= 0;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package pepse.headless;
+
+import pepse.world.LoadedWindow;
+
+import java.util.Random;
+
+/**
+ * A long-run soak check of world streaming. Simulates many frames of random movement with the
+ * loaded window's invariants verified on every frame, and checks that the number of live game
+ * objects stays flat: after the first interval, no interval may peak above the first interval's
+ * peak by more than a small tolerance (rain drops and fruit are transient).
+ * Exits with status 1 if the object count grew or an invariant was broken.
+ *
+ * Usage: SoakRunner [frames] [seed]
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see HeadlessRunner
+ * @see LoadedWindow
+ */
+public class SoakRunner {
+
+    private static final String DEBUG_PROPERTY = "pepse.debugWorld";
+    private static final long DEFAULT_FRAMES = 100000;
+    private static final int INTERVAL_FRAMES = 10000;
+    private static final int RANDOM_SCRIPT_STEPS = 2000;
+    private static final float GROWTH_TOLERANCE = 1.1f;
+    private static final int FAILURE_STATUS = 1;
+
+    /**
+     * Runs the soak check.
+     *
+     * @param args Optional: the number of frames and the seed.
+     */
+    public static void main(String[] args) {
+        long frames = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_FRAMES;
+        int seed = args.length > 1 ? Integer.parseInt(args[1]) : new Random().nextInt();
+        System.setProperty(DEBUG_PROPERTY, Boolean.TRUE.toString());
+        HeadlessRunner runner = new HeadlessRunner(ScriptedInput.random(seed, RANDOM_SCRIPT_STEPS), seed);
+        LoadedWindow loadedWindow = runner.getWorld().getLoadedWindow();
+        int firstIntervalPeak = 0;
+        int intervalPeak = 0;
+        boolean failed = false;
+        for (long frame = 1; frame <= frames; frame++) {
+            try {
+                runner.step();
+            } catch (IllegalStateException e) {
+                System.out.println("FAIL at frame " + frame + ": " + e.getMessage());
+                System.exit(FAILURE_STATUS);
+            }
+            intervalPeak = Math.max(intervalPeak, runner.gameObjects().count());
+            if (frame % INTERVAL_FRAMES == 0) {
+                if (frame == INTERVAL_FRAMES) {
+                    firstIntervalPeak = intervalPeak;
+                }
+                boolean grew = intervalPeak > firstIntervalPeak * GROWTH_TOLERANCE;
+                failed |= grew;
+                System.out.printf("frames %d: peak %d objects, %d/%d columns loaded%s%n", frame,
+                        intervalPeak, loadedWindow.getLoadedColumns(), loadedWindow.getMaxLoadedColumns(),
+                        grew ? " - GREW" : "");
+                intervalPeak = 0;
+            }
+        }
+        runner.close();
+        System.out.println(failed ? "FAIL: object count grew" : "OK: object count stayed flat");
+        if (failed) {
+            System.exit(FAILURE_STATUS);
+        }
+    }
+}
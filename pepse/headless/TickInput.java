@@ -0,0 +1,19 @@
+package pepse.headless;
+
+import java.util.function.Predicate;
+
+/**
+ * Input that replaces the user's keyboard in a headless run. Tells which keys (by their
+ * KeyEvent codes) are pressed in the current simulation tick, and is moved to the next tick
+ * after every tick.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see HeadlessRunner
+ */
+public interface TickInput extends Predicate<Integer> {
+
+    /**
+     * Moves the input one tick forward.
+     */
+    void advance();
+}
@@ -0,0 +1,106 @@
+package pepse.hud;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Images of the printable ASCII characters in one font and color, each rendered once, the
+ * first time it is drawn, and blitted from then on. Drawing text through the cache lays out
+ * no glyphs and builds no strings, so it allocates nothing once its characters were drawn.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see HudText
+ */
+public class GlyphCache {
+
+    private static final char FIRST_CHAR = ' ';
+    private static final char LAST_CHAR = '~';
+    private final Font font;
+    private final Color color;
+    private final BufferedImage[] glyphs = new BufferedImage[LAST_CHAR - FIRST_CHAR + 1];
+    private final int[] advances = new int[LAST_CHAR - FIRST_CHAR + 1];
+    private final int ascent;
+    private final int height;
+
+    /**
+     * Constructs a cache of a font's characters.
+     *
+     * @param font  The font.
+     * @param color The characters' color.
+     */
+    public GlyphCache(Font font, Color color) {
+        this.font = font;
+        this.color = color;
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics metrics = g.getFontMetrics(font);
+        for (char c = FIRST_CHAR; c <= LAST_CHAR; c++) {
+            advances[c - FIRST_CHAR] = metrics.charWidth(c);
+        }
+        this.ascent = metrics.getAscent();
+        this.height = metrics.getHeight();
+        g.dispose();
+    }
+
+    /**
+     * Returns how far a character moves the pen.
+     *
+     * @param c The character, drawn as '?' if it is not printable ASCII.
+     * @return The character's advance, in pixels.
+     */
+    public int advance(char c) {
+        return advances[indexOf(c)];
+    }
+
+    /**
+     * Returns the height of a line of text.
+     *
+     * @return The line height, in pixels.
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Draws a character.
+     *
+     * @param g The graphics to draw on.
+     * @param c The character, drawn as '?' if it is not printable ASCII.
+     * @param x The left of the character's cell.
+     * @param y The top of the line.
+     * @return The character's advance, in pixels.
+     */
+    public int draw(Graphics2D g, char c, int x, int y) {
+        int index = indexOf(c);
+        if (glyphs[index] == null) {
+            glyphs[index] = renderGlyph(index);
+        }
+        g.drawImage(glyphs[index], x, y, null);
+        return advances[index];
+    }
+
+    /*
+     * Renders a character into an image of its cell.
+     */
+    private BufferedImage renderGlyph(int index) {
+        BufferedImage glyph = new BufferedImage(Math.max(1, advances[index]), height,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = glyph.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(font);
+        g.setColor(color);
+        g.drawString(String.valueOf((char) (FIRST_CHAR + index)), 0, ascent);
+        g.dispose();
+        return glyph;
+    }
+
+    /*
+     * Returns the index of a character's glyph, that of '?' for characters that are not cached.
+     */
+    private static int indexOf(char c) {
+        return (c < FIRST_CHAR || c > LAST_CHAR ? '?' : c) - FIRST_CHAR;
+    }
+}
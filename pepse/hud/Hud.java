@@ -0,0 +1,89 @@
+package pepse.hud;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * The heads-up display: {@link HudText} widgets fixed to the screen, drawn with one shared
+ * {@link GlyphCache}. A widget's value is either pushed to it, e.g. by a stat listener, or
+ * polled once per frame from a supplier; either way a widget only redraws its text when its
+ * value changes, so the HUD costs the same whether it shows one widget or many.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see HudText
+ */
+public class Hud {
+
+    private static final int FONT_SIZE = 16;
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.BOLD, FONT_SIZE);
+    private final GlyphCache glyphs = new GlyphCache(FONT, Color.BLACK);
+    private final BiConsumer<GameObject, Integer> addFunc;
+    private final int layer;
+    private final List<HudText> polledTexts = new ArrayList<>();
+    private final List<IntSupplier> polledValues = new ArrayList<>();
+
+    /**
+     * Constructs an empty HUD.
+     *
+     * @param addFunc A consumer that adds a GameObject to a specific layer.
+     * @param layer   The layer the HUD's widgets are shown in.
+     */
+    public Hud(BiConsumer<GameObject, Integer> addFunc, int layer) {
+        this.addFunc = addFunc;
+        this.layer = layer;
+    }
+
+    /**
+     * Adds a text widget whose value is set by its caller.
+     *
+     * @param label     The widget's label, drawn before its value.
+     * @param topLeft   The widget's top-left corner on the screen.
+     * @param maxDigits The most characters of the widget's value, its sign included.
+     * @return The widget.
+     */
+    public HudText addText(String label, Vector2 topLeft, int maxDigits) {
+        HudText text = new HudText(label, glyphs, maxDigits);
+        GameObject widget = new GameObject(topLeft, text.getDimensions(), text);
+        widget.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        widget.setTag(PepseGameManager.TEXT_TAG);
+        addFunc.accept(widget, layer);
+        return text;
+    }
+
+    /**
+     * Adds a text widget whose value is read from a supplier once per frame, see
+     * {@link #update()}.
+     *
+     * @param label     The widget's label, drawn before its value.
+     * @param topLeft   The widget's top-left corner on the screen.
+     * @param maxDigits The most characters of the widget's value, its sign included.
+     * @param value     Supplies the widget's value.
+     * @return The widget.
+     */
+    public HudText addPolledText(String label, Vector2 topLeft, int maxDigits, IntSupplier value) {
+        HudText text = addText(label, topLeft, maxDigits);
+        text.setValue(value.getAsInt());
+        polledTexts.add(text);
+        polledValues.add(value);
+        return text;
+    }
+
+    /**
+     * Reads the values of the polled widgets, to be called once per frame. Widgets whose value
+     * did not change are left as they are.
+     */
+    public void update() {
+        for (int i = 0; i < polledTexts.size(); i++) {
+            polledTexts.get(i).setValue(polledValues.get(i).getAsInt());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package pepse.hud;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * A HUD text widget: a fixed label followed by an integer value, e.g. "ENERGY: 100".
+ * The widget's text is kept as a glyph run, an image it is drawn into, so rendering it in a
+ * frame is a single blit. The label's glyphs are drawn into the run once; setting a different
+ * value formats it into a reusable char array and redraws only the value's glyphs, from a
+ * {@link GlyphCache}, the next time the widget is rendered. Setting the value it already shows
+ * does nothing, so the widget does no work, and allocates nothing, while its value stays the
+ * same.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Hud
+ */
+public class HudText implements Renderable {
+
+    private static final String VALUE_DIGITS = "-0123456789";
+    private static final int RADIX = 10;
+    private final GlyphCache glyphs;
+    private final char[] value;
+    private final int valueLeft;
+    private final BufferedImage run;
+    private int valueLength;
+    private int shownValue;
+    private boolean hasValue;
+    private boolean dirty;
+
+    /**
+     * Constructs a widget showing only its label until its value is set.
+     *
+     * @param label     The label, drawn before the value.
+     * @param glyphs    The glyphs the text is drawn with.
+     * @param maxDigits The most characters of a value, its sign included; longer values are
+     *                  cut.
+     */
+    public HudText(String label, GlyphCache glyphs, int maxDigits) {
+        this.glyphs = glyphs;
+        this.value = new char[maxDigits];
+        int labelWidth = 0;
+        for (int i = 0; i < label.length(); i++) {
+            labelWidth += glyphs.advance(label.charAt(i));
+        }
+        int digitWidth = 0;
+        for (int i = 0; i < VALUE_DIGITS.length(); i++) {
+            digitWidth = Math.max(digitWidth, glyphs.advance(VALUE_DIGITS.charAt(i)));
+        }
+        this.valueLeft = labelWidth;
+        this.run = new BufferedImage(Math.max(1, labelWidth + digitWidth * maxDigits), glyphs.height(),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = run.createGraphics();
+        int x = 0;
+        for (int i = 0; i < label.length(); i++) {
+            x += glyphs.draw(g, label.charAt(i), x, 0);
+        }
+        g.dispose();
+    }
+
+    /**
+     * Sets the value shown after the label. The text is redrawn only if the value changed.
+     *
+     * @param newValue The value.
+     */
+    public void setValue(int newValue) {
+        if (hasValue && newValue == shownValue) {
+            return;
+        }
+        shownValue = newValue;
+        hasValue = true;
+        valueLength = format(newValue);
+        dirty = true;
+    }
+
+    /**
+     * Returns the dimensions of the widget's glyph run, the size of the game object showing it.
+     *
+     * @return The widget's dimensions, in pixels.
+     */
+    public Vector2 getDimensions() {
+        return new Vector2(run.getWidth(), run.getHeight());
+    }
+
+    /**
+     * Draws the widget's glyph run, first redrawing its value if the value changed.
+     *
+     * @param g             The graphics to draw on.
+     * @param topLeftCorner Where to draw the widget.
+     * @param dimensions    Ignored: the text is drawn at its font's size.
+     * @param rotation      Ignored.
+     * @param isFlippedHorizontally Ignored.
+     * @param isFlippedVertically   Ignored.
+     * @param opaqueness    Ignored.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions, double rotation,
+                       boolean isFlippedHorizontally, boolean isFlippedVertically, double opaqueness) {
+        if (dirty) {
+            redrawValue();
+            dirty = false;
+        }
+        g.drawImage(run, (int) topLeftCorner.x(), (int) topLeftCorner.y(), null);
+    }
+
+    /*
+     * Clears the value's part of the glyph run and draws the value's glyphs into it.
+     */
+    private void redrawValue() {
+        Graphics2D g = run.createGraphics();
+        Composite composite = g.getComposite();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(valueLeft, 0, run.getWidth() - valueLeft, run.getHeight());
+        g.setComposite(composite);
+        int x = valueLeft;
+        for (int i = value.length - valueLength; i < value.length; i++) {
+            x += glyphs.draw(g, value[i], x, 0);
+        }
+        g.dispose();
+    }
+
+    /*
+     * Formats a value right-aligned into the value array, returning its length, cut to the
+     * array's length.
+     */
+    private int format(int number) {
+        long remaining = Math.abs((long) number);
+        int i = value.length;
+        do {
+            value[--i] = (char) ('0' + remaining % RADIX);
+            remaining /= RADIX;
+        } while (remaining != 0 && i > 0);
+        if (number < 0 && i > 0) {
+            value[--i] = '-';
+        }
+        return value.length - i;
+    }
+}
@@ -0,0 +1,175 @@
+package pepse.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A snapshot of a game session: the world's seed, the avatar's state, and the world's changes.
+ * Snapshots are written in a compact, versioned binary format through a {@link FileChannel}
+ * and a direct buffer. The world's changes are the {@link WorldDeltaStore}'s file, copied as
+ * is right after the header. The world's clock lives only in the store's header; the phases
+ * of the day cycle and the clouds follow from it, so none of them is kept in the snapshot's.
+ *
+ * Format (little endian): magic (int), version (int), seed (int), avatar x, avatar y, avatar
+ * velocity x, avatar velocity y, avatar energy (floats), length of the world changes (long),
+ * then the world changes' bytes.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see WorldDeltaStore
+ */
+public class GameSnapshot {
+
+    /** The version of the snapshot format written. */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x50534E50;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES + 5 * Float.BYTES + Long.BYTES;
+    private final int seed;
+    private final float avatarX;
+    private final float avatarY;
+    private final float avatarVelocityX;
+    private final float avatarVelocityY;
+    private final float avatarEnergy;
+    private WorldDeltaStore deltaStore;
+
+    /**
+     * Constructs a new snapshot.
+     *
+     * @param seed            The world's seed.
+     * @param avatarX         The avatar's top-left x coordinate.
+     * @param avatarY         The avatar's top-left y coordinate.
+     * @param avatarVelocityX The avatar's horizontal velocity.
+     * @param avatarVelocityY The avatar's vertical velocity.
+     * @param avatarEnergy    The avatar's energy.
+     */
+    public GameSnapshot(int seed, float avatarX, float avatarY, float avatarVelocityX,
+                        float avatarVelocityY, float avatarEnergy) {
+        this.seed = seed;
+        this.avatarX = avatarX;
+        this.avatarY = avatarY;
+        this.avatarVelocityX = avatarVelocityX;
+        this.avatarVelocityY = avatarVelocityY;
+        this.avatarEnergy = avatarEnergy;
+    }
+
+    /**
+     * Writes the snapshot, together with the world's changes, to a file.
+     *
+     * @param path       The file to write.
+     * @param deltaStore The store of the world's changes.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(Path path, WorldDeltaStore deltaStore) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            long deltaLength = deltaStore.transferTo(channel);
+            ByteBuffer header = ByteBuffer.allocateDirect(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(seed)
+                    .putFloat(avatarX).putFloat(avatarY)
+                    .putFloat(avatarVelocityX).putFloat(avatarVelocityY).putFloat(avatarEnergy)
+                    .putLong(deltaLength);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot from a file, restoring its world changes into a new store.
+     *
+     * @param path The file to read.
+     * @return The snapshot, holding the store of its world changes.
+     * @throws IOException if the file could not be read or is not a snapshot of this version.
+     */
+    public static GameSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocateDirect(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException(path + " is too short to be a snapshot");
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " is a version " + version + " snapshot, expected " + VERSION);
+            }
+            GameSnapshot snapshot = new GameSnapshot(header.getInt(), header.getFloat(), header.getFloat(),
+                    header.getFloat(), header.getFloat(), header.getFloat());
+            snapshot.deltaStore = WorldDeltaStore.restore(snapshot.seed, channel, header.getLong());
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns the store the snapshot's world changes were restored into.
+     *
+     * @return The store, or null if the snapshot was not read from a file.
+     */
+    public WorldDeltaStore getDeltaStore() {
+        return deltaStore;
+    }
+
+    /**
+     * Returns the world's seed.
+     *
+     * @return The seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the avatar's top-left x coordinate.
+     *
+     * @return The avatar's x.
+     */
+    public float getAvatarX() {
+        return avatarX;
+    }
+
+    /**
+     * Returns the avatar's top-left y coordinate.
+     *
+     * @return The avatar's y.
+     */
+    public float getAvatarY() {
+        return avatarY;
+    }
+
+    /**
+     * Returns the avatar's horizontal velocity.
+     *
+     * @return The avatar's horizontal velocity.
+     */
+    public float getAvatarVelocityX() {
+        return avatarVelocityX;
+    }
+
+    /**
+     * Returns the avatar's vertical velocity.
+     *
+     * @return The avatar's vertical velocity.
+     */
+    public float getAvatarVelocityY() {
+        return avatarVelocityY;
+    }
+
+    /**
+     * Returns the avatar's energy.
+     *
+     * @return The avatar's energy.
+     */
+    public float getAvatarEnergy() {
+        return avatarEnergy;
+    }
+}
@@ -0,0 +1,391 @@
+package pepse.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A persistent store of the changes made to a world, kept in a memory-mapped file so that a
+ * long session's changes do not sit on the heap. Every world column that has changes has a
+ * fixed-size record holding the state of its fruits (eaten or not and when they grow back)
+ * and masks of its edited blocks. Records are kept in an open-addressing hash table keyed by
+ * the column, so looking a column up when it is loaded is O(1) and reads straight from the
+ * mapping. The file also keeps the world's clock, so that respawn times stay valid when the
+ * world is restored. The file is a temporary working copy, deleted with the store: a session's
+ * changes are kept by copying them into a {@link GameSnapshot}, and are restored from it into
+ * a new file, so that a file is never replaced or truncated while it may still be mapped.
+ *
+ * File layout (little endian): a header of magic, version, seed, capacity, record count and
+ * world time, followed by capacity records of {@value #RECORD_SIZE} bytes:
+ * column (int), used (int), eaten fruit mask (long), removed blocks mask (long), placed blocks
+ * mask (long), block mask base row (int), reserved (int) and a respawn time (float) per fruit.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ */
+public class WorldDeltaStore {
+
+    /** The maximal number of fruits a column can keep the state of. */
+    public static final int MAX_FRUITS_PER_COLUMN = 56;
+    /** The size of a column's record, in bytes. */
+    public static final int RECORD_SIZE = 40 + MAX_FRUITS_PER_COLUMN * Float.BYTES;
+
+    private static final int MAGIC = 0x50445354;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SEED_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int COUNT_OFFSET = 16;
+    private static final int WORLD_TIME_OFFSET = 20;
+    private static final int COLUMN_OFFSET = 0;
+    private static final int USED_OFFSET = 4;
+    private static final int EATEN_MASK_OFFSET = 8;
+    private static final int REMOVED_MASK_OFFSET = 16;
+    private static final int PLACED_MASK_OFFSET = 24;
+    private static final int BASE_ROW_OFFSET = 32;
+    private static final int RESPAWN_OFFSET = 40;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_LOAD_DIVIDER = 2;
+    private static final int USED = 1;
+    private static final int NOT_FOUND = -1;
+    private static final String FILE_PREFIX = "pepse-world-";
+    private static final String SEED_SEPARATOR = "-";
+    private static final String FILE_SUFFIX = ".delta";
+    private final Path path;
+    private final int seed;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    /*
+     * Opens the store over an already mapped, valid file.
+     */
+    private WorldDeltaStore(Path path, int seed, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.seed = seed;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.getInt(CAPACITY_OFFSET);
+        this.count = buffer.getInt(COUNT_OFFSET);
+    }
+
+    /**
+     * Opens a new, empty store of the given seed in a temporary file.
+     *
+     * @param seed The world's seed.
+     * @return The store.
+     * @throws IOException if the file could not be created.
+     */
+    public static WorldDeltaStore openTemporary(int seed) throws IOException {
+        return open(createTemporaryFile(seed), seed, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Opens a copy of a store's bytes read from a channel, e.g. a store that was written into
+     * a snapshot by {@link #transferTo}, as a new store in a temporary file.
+     *
+     * @param seed   The world's seed.
+     * @param source The channel to read the store's bytes from, at its current position.
+     * @param length The number of bytes of the store.
+     * @return The store.
+     * @throws IOException if the store could not be copied, or is not a store of the seed.
+     */
+    public static WorldDeltaStore restore(int seed, FileChannel source, long length) throws IOException {
+        Path path = createTemporaryFile(seed);
+        try {
+            try (FileChannel target = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                long copied = 0;
+                while (copied < length) {
+                    long transferred = target.transferFrom(source, copied, length - copied);
+                    if (transferred <= 0) {
+                        throw new IOException("Store ended after " + copied + " of " + length + " bytes");
+                    }
+                    copied += transferred;
+                }
+            }
+            return open(path, seed, INITIAL_CAPACITY);
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns how long until the given fruit of a column grows back.
+     *
+     * @param column     The column's index.
+     * @param fruitIndex The index of the fruit within the column.
+     * @param worldTime  The current world time, in seconds.
+     * @return The time, in seconds, until the fruit grows back, or 0 if it is not eaten.
+     */
+    public float fruitRespawnDelay(int column, int fruitIndex, float worldTime) {
+        int record = find(column);
+        if (record == NOT_FOUND || fruitIndex >= MAX_FRUITS_PER_COLUMN ||
+                (buffer.getLong(record + EATEN_MASK_OFFSET) & (1L << fruitIndex)) == 0) {
+            return 0;
+        }
+        return Math.max(0, buffer.getFloat(record + RESPAWN_OFFSET + fruitIndex * Float.BYTES) - worldTime);
+    }
+
+    /**
+     * Records that a fruit of a column was eaten.
+     *
+     * @param column     The column's index.
+     * @param fruitIndex The index of the fruit within the column.
+     * @param respawnAt  The world time, in seconds, at which the fruit grows back.
+     */
+    public void markFruitEaten(int column, int fruitIndex, float respawnAt) {
+        if (fruitIndex >= MAX_FRUITS_PER_COLUMN) {
+            return;
+        }
+        int record = findOrInsert(column);
+        buffer.putLong(record + EATEN_MASK_OFFSET,
+                buffer.getLong(record + EATEN_MASK_OFFSET) | (1L << fruitIndex));
+        buffer.putFloat(record + RESPAWN_OFFSET + fruitIndex * Float.BYTES, respawnAt);
+    }
+
+    /**
+     * Returns the mask of blocks removed from a column, bit i standing for the block i rows
+     * below the column's base row.
+     *
+     * @param column The column's index.
+     * @return The removed blocks mask, 0 if nothing was removed.
+     */
+    public long removedBlocks(int column) {
+        int record = find(column);
+        return record == NOT_FOUND ? 0 : buffer.getLong(record + REMOVED_MASK_OFFSET);
+    }
+
+    /**
+     * Returns the mask of blocks placed in a column, bit i standing for the block i rows
+     * below the column's base row.
+     *
+     * @param column The column's index.
+     * @return The placed blocks mask, 0 if nothing was placed.
+     */
+    public long placedBlocks(int column) {
+        int record = find(column);
+        return record == NOT_FOUND ? 0 : buffer.getLong(record + PLACED_MASK_OFFSET);
+    }
+
+    /**
+     * Records the edited blocks of a column.
+     *
+     * @param column  The column's index.
+     * @param baseRow The row that bit 0 of the masks stands for.
+     * @param removed The mask of removed blocks.
+     * @param placed  The mask of placed blocks.
+     */
+    public void setBlocks(int column, int baseRow, long removed, long placed) {
+        int record = findOrInsert(column);
+        buffer.putInt(record + BASE_ROW_OFFSET, baseRow);
+        buffer.putLong(record + REMOVED_MASK_OFFSET, removed);
+        buffer.putLong(record + PLACED_MASK_OFFSET, placed);
+    }
+
+    /**
+     * Returns the world time kept in the store.
+     *
+     * @return The world time, in seconds.
+     */
+    public float getWorldTime() {
+        return buffer.getFloat(WORLD_TIME_OFFSET);
+    }
+
+    /**
+     * Keeps the world time in the store.
+     *
+     * @param worldTime The world time, in seconds.
+     */
+    public void setWorldTime(float worldTime) {
+        buffer.putFloat(WORLD_TIME_OFFSET, worldTime);
+    }
+
+    /**
+     * Returns the seed of the world this store belongs to.
+     *
+     * @return The seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of columns that have changes.
+     *
+     * @return The number of changed columns.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes the store's bytes, as they are in its file, to the given channel at its current
+     * position. The bytes are copied file to file without passing through the heap.
+     *
+     * @param target The channel to write to.
+     * @return The number of bytes written.
+     * @throws IOException if the store could not be written.
+     */
+    public long transferTo(FileChannel target) throws IOException {
+        buffer.force();
+        long length = channel.size();
+        long copied = 0;
+        while (copied < length) {
+            copied += channel.transferTo(copied, length - copied, target);
+        }
+        return length;
+    }
+
+    /**
+     * Closes the store and deletes its file. Where a file can not be deleted while it is still
+     * mapped, and the mapping was not released yet, the file is deleted when the JVM exits.
+     *
+     * @throws IOException if the file could not be closed.
+     */
+    public void delete() throws IOException {
+        if (channel.isOpen()) {
+            channel.close();
+        }
+        this.buffer = null;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    /*
+     * Opens (or creates) the store's file with the given capacity for a new file.
+     */
+    private static WorldDeltaStore open(Path path, int seed, int newCapacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean isNew = channel.size() == 0;
+        int capacity = newCapacity;
+        if (!isNew) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION ||
+                    header.getInt(SEED_OFFSET) != seed) {
+                channel.close();
+                throw new IOException(path + " is not a version " + VERSION + " store of seed " + seed);
+            }
+            capacity = header.getInt(CAPACITY_OFFSET);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (isNew) {
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(SEED_OFFSET, seed);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(COUNT_OFFSET, 0);
+            buffer.putFloat(WORLD_TIME_OFFSET, 0);
+        }
+        return new WorldDeltaStore(path, seed, channel, buffer);
+    }
+
+    /*
+     * Creates an empty temporary file for a store of the given seed.
+     */
+    private static Path createTemporaryFile(int seed) throws IOException {
+        return Files.createTempFile(FILE_PREFIX + seed + SEED_SEPARATOR, FILE_SUFFIX);
+    }
+
+    /*
+     * Returns the offset of a column's record, or NOT_FOUND if it has none.
+     */
+    private int find(int column) {
+        int slot = slotOf(column);
+        while (true) {
+            int record = HEADER_SIZE + slot * RECORD_SIZE;
+            if (buffer.getInt(record + USED_OFFSET) != USED) {
+                return NOT_FOUND;
+            }
+            if (buffer.getInt(record + COLUMN_OFFSET) == column) {
+                return record;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    /*
+     * Returns the offset of a column's record, inserting an empty one if it has none.
+     */
+    private int findOrInsert(int column) {
+        int record = find(column);
+        if (record != NOT_FOUND) {
+            return record;
+        }
+        if (count + 1 > capacity / MAX_LOAD_DIVIDER) {
+            grow();
+        }
+        int slot = slotOf(column);
+        while (true) {
+            record = HEADER_SIZE + slot * RECORD_SIZE;
+            if (buffer.getInt(record + USED_OFFSET) != USED) {
+                buffer.putInt(record + COLUMN_OFFSET, column);
+                buffer.putInt(record + USED_OFFSET, USED);
+                count++;
+                buffer.putInt(COUNT_OFFSET, count);
+                return record;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    /*
+     * Doubles the table's capacity in place: the used records are copied aside, the file is
+     * extended and mapped again, and the records are rehashed into the cleared table. The old
+     * mapping is dropped, never written to again.
+     */
+    private void grow() {
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (int slot = 0; slot < capacity; slot++) {
+            int record = HEADER_SIZE + slot * RECORD_SIZE;
+            if (buffer.getInt(record + USED_OFFSET) == USED) {
+                buffer.get(record, records.array(), records.position(), RECORD_SIZE);
+                records.position(records.position() + RECORD_SIZE);
+            }
+        }
+        int oldCapacity = capacity;
+        try {
+            MappedByteBuffer grown = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) oldCapacity * 2 * RECORD_SIZE);
+            grown.order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer = grown;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to grow world delta store " + path, e);
+        }
+        byte[] emptyRecord = new byte[RECORD_SIZE];
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            buffer.put(HEADER_SIZE + slot * RECORD_SIZE, emptyRecord);
+        }
+        this.capacity = oldCapacity * 2;
+        this.count = 0;
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(COUNT_OFFSET, count);
+        for (int copied = 0; copied < records.position(); copied += RECORD_SIZE) {
+            int record = findOrInsert(records.getInt(copied + COLUMN_OFFSET));
+            buffer.put(record + EATEN_MASK_OFFSET, records.array(), copied + EATEN_MASK_OFFSET,
+                    RECORD_SIZE - EATEN_MASK_OFFSET);
+        }
+    }
+
+    /*
+     * Returns the hash table slot a column starts probing from.
+     */
+    private int slotOf(int column) {
+        int hash = column * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (capacity - 1);
+    }
+}
@@ -0,0 +1,349 @@
+package pepse.preview;
+
+import danogl.util.Vector2;
+import pepse.util.ColorSupplier;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.WorldContext;
+import pepse.world.daynight.DayCycleLighting;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.Leaf;
+import pepse.world.trees.TreeLayout;
+import pepse.world.trees.TreeTrunk;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Rasterizes a horizontal strip of a world straight into an image, for world thumbnails.
+ * The strip is drawn from the world's generation data only - ground heights, tree placement
+ * and tree layouts - with the game's colors, and no game objects are created. Strips are
+ * drawn in tiles of {@link #TILE_COLUMNS} columns, in parallel, and single tiles can be drawn
+ * on their own to stream a strip. Colors vary per block like in the game, but are derived from
+ * the block's position, so a world always looks the same. A strip can be drawn at any phase of
+ * the day cycle, the cycle's lighting being baked into its pixels.
+ *
+ * Usage: WorldPreviewRenderer [seeds] [first seed] [columns] [pixels per block] [output directory]
+ * [day phase] renders a thumbnail for each seed, in parallel, and writes them as PNG files if an output
+ * directory is given. Setting the system property "pepse.caves" to true renders worlds with caves.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Terrain
+ * @see Flora
+ * @see TreeLayout
+ * @see DayCycleLighting
+ */
+public class WorldPreviewRenderer {
+
+    /** The number of columns in a tile. */
+    public static final int TILE_COLUMNS = 64;
+
+    private static final int DEFAULT_SEEDS = 1000;
+    private static final int DEFAULT_FIRST_SEED = 1;
+    private static final int DEFAULT_COLUMNS = 256;
+    private static final int DEFAULT_PIXELS_PER_BLOCK = 2;
+    private static final float NOON_PHASE = 0;
+    private static final int WORLD_HEIGHT = 720;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, WORLD_HEIGHT);
+    private static final String IMAGE_FORMAT = "png";
+    private static final String IMAGE_PREFIX = "preview-";
+    private static final String IMAGE_SUFFIX = ".png";
+    private static final float NANOS_IN_SECOND = 1e9f;
+    private static final int TREE_REACH_COLUMNS = TreeLayout.GRID_SIZE - TreeLayout.GRID_LEFT_CELLS - 1;
+    private static final int GROUND_KIND = 1;
+    private static final int TRUNK_KIND = 2;
+    private static final int LEAF_KIND = 3;
+    private static final long COLUMN_MIX = 0x9E3779B97F4A7C15L;
+    private static final long ROW_MIX = 0xC2B2AE3D27D4EB4FL;
+    private static final long KIND_MIX = 0x165667B19E3779F9L;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private static final long MIX_MULTIPLIER_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94D049BB133111EBL;
+    private static final DayCycleLighting LIGHTING = new DayCycleLighting();
+    private static final int FRUIT_RGB = Fruit.FRUIT_COLOR.getRGB();
+    private final WorldContext context;
+    private final Terrain terrain;
+    private final int worldHeight;
+    private final int pixelsPerBlock;
+    private final float scale;
+
+    /*
+     * A tree of the strip: its trunk's x, its ground height and its layout.
+     */
+    private static class TreeInfo {
+        private final int x;
+        private final float groundHeight;
+        private final TreeLayout layout;
+
+        private TreeInfo(int x, float groundHeight, TreeLayout layout) {
+            this.x = x;
+            this.groundHeight = groundHeight;
+            this.layout = layout;
+        }
+    }
+
+    /*
+     * The image being drawn and the range of its columns that a tile may draw in.
+     */
+    private static class Canvas {
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+        private final float originX;
+        private final int clipMinX;
+        private final int clipMaxX;
+
+        private Canvas(int[] pixels, int width, int height, float originX, int clipMinX, int clipMaxX) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.originX = originX;
+            this.clipMinX = clipMinX;
+            this.clipMaxX = clipMaxX;
+        }
+    }
+
+    /**
+     * Constructs a new renderer of a world.
+     *
+     * @param context        The context of the world to draw.
+     * @param worldHeight    The height, in world pixels, of the strip to draw from the top of
+     *                       the world, e.g. the game window's height.
+     * @param pixelsPerBlock The number of image pixels on each side of a block.
+     */
+    public WorldPreviewRenderer(WorldContext context, int worldHeight, int pixelsPerBlock) {
+        this.context = context;
+        this.terrain = new Terrain(context);
+        this.worldHeight = worldHeight;
+        this.pixelsPerBlock = pixelsPerBlock;
+        this.scale = (float) pixelsPerBlock / Block.SIZE;
+    }
+
+    /**
+     * Draws a strip of the world at noon, its tiles in parallel.
+     *
+     * @param firstColumn The index of the strip's leftmost column.
+     * @param columns     The number of columns in the strip.
+     * @return The strip's image, {@code columns * pixelsPerBlock} pixels wide.
+     */
+    public BufferedImage render(int firstColumn, int columns) {
+        return render(firstColumn, columns, NOON_PHASE);
+    }
+
+    /**
+     * Draws a strip of the world at a phase of the day cycle, its tiles in parallel.
+     *
+     * @param firstColumn The index of the strip's leftmost column.
+     * @param columns     The number of columns in the strip.
+     * @param dayPhase    The phase of the day cycle, where 0 is noon and 0.5 is midnight.
+     * @return The strip's image, {@code columns * pixelsPerBlock} pixels wide.
+     */
+    public BufferedImage render(int firstColumn, int columns, float dayPhase) {
+        int width = columns * pixelsPerBlock;
+        int height = imageHeight();
+        int[] pixels = new int[width * height];
+        int tiles = (columns + TILE_COLUMNS - 1) / TILE_COLUMNS;
+        IntStream.range(0, tiles).parallel().forEach(tile -> {
+            int tileFirstColumn = firstColumn + tile * TILE_COLUMNS;
+            int tileColumns = Math.min(TILE_COLUMNS, firstColumn + columns - tileFirstColumn);
+            int clipMinX = (tileFirstColumn - firstColumn) * pixelsPerBlock;
+            Canvas canvas = new Canvas(pixels, width, height, (float) firstColumn * Block.SIZE,
+                    clipMinX, clipMinX + tileColumns * pixelsPerBlock);
+            renderColumns(canvas, tileFirstColumn, tileColumns, dayPhase);
+            grade(canvas, dayPhase);
+        });
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    /**
+     * Draws a single tile of the world, e.g. to stream a strip tile by tile.
+     *
+     * @param tile The index of the tile; tile i starts at column {@code i * TILE_COLUMNS}.
+     * @return The tile's image.
+     */
+    public BufferedImage renderTile(int tile) {
+        return render(tile * TILE_COLUMNS, TILE_COLUMNS);
+    }
+
+    /**
+     * Returns the height of the drawn images.
+     *
+     * @return The images' height, in pixels.
+     */
+    public int imageHeight() {
+        return (int) Math.ceil(worldHeight * scale);
+    }
+
+    /*
+     * Draws the given columns: the sky, then the trees' leaves, the trunks, the ground and
+     * finally the fruit, in the order of the game's layers. Trees of nearby columns are drawn
+     * too, as their leaves may reach into the drawn columns.
+     */
+    private void renderColumns(Canvas canvas, int firstColumn, int columns, float dayPhase) {
+        int skyRgb = LIGHTING.skyRgb(dayPhase);
+        for (int y = 0; y < canvas.height; y++) {
+            int row = y * canvas.width;
+            for (int x = canvas.clipMinX; x < canvas.clipMaxX; x++) {
+                canvas.pixels[row + x] = skyRgb;
+            }
+        }
+        List<TreeInfo> trees = new ArrayList<>();
+        for (int column = firstColumn - TREE_REACH_COLUMNS;
+             column < firstColumn + columns + TreeLayout.GRID_LEFT_CELLS; column++) {
+            int x = column * Block.SIZE;
+            if (Flora.hasTreeAt(x, context)) {
+                trees.add(new TreeInfo(x, terrain.groundHeightAt(x), TreeLayout.generate(x, context)));
+            }
+        }
+        for (TreeInfo tree : trees) {
+            renderLeaves(canvas, tree, false);
+        }
+        for (TreeInfo tree : trees) {
+            for (int i = 0; i < tree.layout.getTrunkHeight(); i++) {
+                float y = tree.groundHeight - i * Block.SIZE;
+                fillRect(canvas, tree.x, y, Block.SIZE, Block.SIZE, ColorSupplier.approximateRgb(
+                        TreeTrunk.TREE_TRUNK_COLOR, hash(tree.x / Block.SIZE, i, TRUNK_KIND)));
+            }
+        }
+        for (int column = firstColumn; column < firstColumn + columns; column++) {
+            int x = column * Block.SIZE;
+            int topRow = terrain.topRow(column);
+            long solidMask = terrain.solidMask(column);
+            Color groundColor = new Color(context.getBiomeMap().groundRgbAt(column));
+            for (int row = topRow; row < topRow + Terrain.TERRAIN_DEPTH && row * Block.SIZE < worldHeight;
+                 row++) {
+                if ((solidMask & (1L << (row - topRow))) == 0) {
+                    continue;
+                }
+                fillRect(canvas, x, row * Block.SIZE, Block.SIZE, Block.SIZE, ColorSupplier.approximateRgb(
+                        groundColor, hash(column, row, GROUND_KIND)));
+            }
+        }
+        for (TreeInfo tree : trees) {
+            renderLeaves(canvas, tree, true);
+        }
+    }
+
+    /*
+     * Draws the leaves of a tree, or the fruit on them.
+     */
+    private void renderLeaves(Canvas canvas, TreeInfo tree, boolean fruit) {
+        float startX = tree.x - Block.SIZE * TreeLayout.GRID_LEFT_CELLS;
+        float startY = tree.groundHeight - tree.layout.getTrunkHeight() * Block.SIZE;
+        for (int cellX = 0; cellX < TreeLayout.GRID_SIZE; cellX++) {
+            for (int cellY = 0; cellY < TreeLayout.GRID_SIZE; cellY++) {
+                float leafX = startX + cellX * Block.SIZE;
+                float leafY = startY - cellY * Block.SIZE;
+                if (!fruit && tree.layout.hasLeaf(cellX, cellY)) {
+                    fillRect(canvas, leafX, leafY, Block.SIZE, Block.SIZE, ColorSupplier.approximateRgb(
+                            Leaf.LEAF_COLOR, hash(tree.x / Block.SIZE, cellX * TreeLayout.GRID_SIZE + cellY,
+                                    LEAF_KIND)));
+                } else if (fruit && tree.layout.hasFruit(cellX, cellY)) {
+                    fillRect(canvas, leafX + Block.SIZE - Fruit.FRUIT_SIZE, leafY - Fruit.FRUIT_SIZE,
+                            Fruit.FRUIT_SIZE, Fruit.FRUIT_SIZE, FRUIT_RGB);
+                }
+            }
+        }
+    }
+
+    /*
+     * Darkens the canvas's drawable columns by the ambient darkening of the day phase, in one
+     * pass, as the night overlay darkens the game's window.
+     */
+    private static void grade(Canvas canvas, float dayPhase) {
+        if (LIGHTING.darkness(dayPhase) == 0) {
+            return;
+        }
+        for (int y = 0; y < canvas.height; y++) {
+            int row = y * canvas.width;
+            for (int x = canvas.clipMinX; x < canvas.clipMaxX; x++) {
+                canvas.pixels[row + x] = LIGHTING.grade(canvas.pixels[row + x], dayPhase);
+            }
+        }
+    }
+
+    /*
+     * Fills a rectangle, given in world coordinates, clipped to the canvas's drawable columns.
+     * Rectangles are at least a pixel wide and high, so that small objects do not vanish.
+     */
+    private void fillRect(Canvas canvas, float worldX, float worldY, float worldWidth, float worldHeight,
+                          int rgb) {
+        int minX = (int) Math.floor((worldX - canvas.originX) * scale);
+        int maxX = Math.max(minX + 1, (int) Math.floor((worldX + worldWidth - canvas.originX) * scale));
+        int minY = (int) Math.floor(worldY * scale);
+        int maxY = Math.max(minY + 1, (int) Math.floor((worldY + worldHeight) * scale));
+        minX = Math.max(minX, canvas.clipMinX);
+        maxX = Math.min(maxX, canvas.clipMaxX);
+        minY = Math.max(minY, 0);
+        maxY = Math.min(maxY, canvas.height);
+        for (int y = minY; y < maxY; y++) {
+            int row = y * canvas.width;
+            for (int x = minX; x < maxX; x++) {
+                canvas.pixels[row + x] = rgb;
+            }
+        }
+    }
+
+    /*
+     * Hashes a block's position and kind, together with the world's seed, for its color.
+     */
+    private long hash(int column, int row, int kind) {
+        long value = context.getSeed() ^ column * COLUMN_MIX ^ row * ROW_MIX ^ kind * KIND_MIX;
+        value = (value ^ (value >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        value = (value ^ (value >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+        return value ^ (value >>> MIX_SHIFT_3);
+    }
+
+    /**
+     * Renders thumbnails for many seeds in parallel and prints the throughput.
+     *
+     * @param args Optional: the number of seeds, the first seed, the number of columns, the
+     *             number of pixels per block, the directory to write the images to and the
+     *             phase of the day cycle to draw them at.
+     * @throws IOException if the output directory could not be created.
+     */
+    public static void main(String[] args) throws IOException {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SEEDS;
+        int firstSeed = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FIRST_SEED;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_COLUMNS;
+        int pixelsPerBlock = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PIXELS_PER_BLOCK;
+        Path outputDirectory = args.length > 4 && !args[4].isEmpty() ? Path.of(args[4]) : null;
+        float dayPhase = args.length > 5 ? Float.parseFloat(args[5]) : NOON_PHASE;
+        if (outputDirectory != null) {
+            Files.createDirectories(outputDirectory);
+        }
+        long start = System.nanoTime();
+        IntStream.range(firstSeed, firstSeed + seeds).parallel().forEach(seed -> {
+            WorldContext context = new WorldContext(seed, WINDOW_DIMENSIONS,
+                    Boolean.getBoolean(WorldContext.CAVES_PROPERTY));
+            // Strips are centered around the world's origin
+            BufferedImage image = new WorldPreviewRenderer(context, WORLD_HEIGHT, pixelsPerBlock)
+                    .render(-columns / 2, columns, dayPhase);
+            if (outputDirectory != null) {
+                try {
+                    ImageIO.write(image, IMAGE_FORMAT, outputDirectory.resolve(IMAGE_PREFIX + seed + IMAGE_SUFFIX)
+                            .toFile());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        float seconds = (System.nanoTime() - start) / NANOS_IN_SECOND;
+        System.out.printf("%d thumbnails of %d columns (%dx%d pixels) in %.2f s: %.0f thumbnails/sec%n",
+                seeds, columns, columns * pixelsPerBlock,
+                (int) Math.ceil(WORLD_HEIGHT * (float) pixelsPerBlock / Block.SIZE), seconds, seeds / seconds);
+    }
+}
@@ -0,0 +1,175 @@
+package pepse.profiling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures frame times, the time spent in each world subsystem and the bytes allocated per
+ * frame. Timers are plain {@code long} nanosecond counters kept in preallocated arrays, and
+ * every frame is also kept in a fixed-size log that can be exported to a CSV file, so that
+ * hitches can be attributed to a specific subsystem.
+ * Sections may be entered several times a frame; their times are summed per frame.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see RollingHistogram
+ */
+public class FrameProfiler {
+
+    /** The time between the starts of two consecutive frames. */
+    public static final int FRAME = 0;
+    /** The time spent in the game's update. */
+    public static final int UPDATE = 1;
+    /** The time spent streaming the world around the avatar. */
+    public static final int UPDATE_MIN_AND_MAX = 2;
+    /** The time spent creating terrain. */
+    public static final int CREATE_TERRAIN = 3;
+    /** The time spent creating flora. */
+    public static final int CREATE_FLORA = 4;
+    /** The time spent removing objects that left the loaded range. */
+    public static final int CLEAN_FRAME = 5;
+    /** The time spent rebuilding the terrain of edited chunks. */
+    public static final int REBUILD_TERRAIN = 6;
+    /** The time spent finding and resolving the avatar's contacts. */
+    public static final int AVATAR_CONTACTS = 7;
+    /** The time spent spawning and updating the world's creatures. */
+    public static final int CREATURES = 8;
+    /** The names of the sections, by their index. */
+    public static final String[] SECTION_NAMES = {"frame", "update", "updateMinAndMax",
+            "createTerrain", "createFlora", "cleanFrame", "rebuildTerrain", "avatarContacts", "creatures"};
+
+    private static final int SECTION_COUNT = SECTION_NAMES.length;
+    // 1 microsecond buckets up to about 1 ms, then 64 buckets per doubling up to about 1 s
+    private static final long TIME_BUCKET_NANOS = 1_000;
+    private static final int TIME_LINEAR_BUCKETS = 1024;
+    private static final int TIME_OCTAVES = 10;
+    // 16 byte buckets up to 16 KB, then 64 buckets per doubling up to 1 GB
+    private static final long ALLOCATION_BUCKET_BYTES = 16;
+    private static final int ALLOCATION_LINEAR_BUCKETS = 1024;
+    private static final int ALLOCATION_OCTAVES = 16;
+    private static final int BUCKETS_PER_OCTAVE = 64;
+    private static final int HISTOGRAM_WINDOW = 600;
+    private static final int LOG_FRAMES = 8192;
+    private static final int LOG_COLUMNS = SECTION_COUNT + 1;
+    private static final String CSV_SEPARATOR = ",";
+    private static final String ALLOCATED_COLUMN = "allocatedBytes";
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final RollingHistogram[] histograms = new RollingHistogram[SECTION_COUNT];
+    private final RollingHistogram allocations;
+    private final long[] sectionStarts = new long[SECTION_COUNT];
+    private final long[] sectionTotals = new long[SECTION_COUNT];
+    private final long[] log = new long[LOG_FRAMES * LOG_COLUMNS];
+    private long frameStart;
+    private long frameStartBytes;
+    private long frames;
+
+    /**
+     * Constructs a new profiler.
+     */
+    public FrameProfiler() {
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            histograms[i] = new RollingHistogram(TIME_BUCKET_NANOS, TIME_LINEAR_BUCKETS, BUCKETS_PER_OCTAVE,
+                    TIME_OCTAVES, HISTOGRAM_WINDOW);
+        }
+        this.allocations = new RollingHistogram(ALLOCATION_BUCKET_BYTES, ALLOCATION_LINEAR_BUCKETS,
+                BUCKETS_PER_OCTAVE, ALLOCATION_OCTAVES, HISTOGRAM_WINDOW);
+    }
+
+    /**
+     * Marks the start of a frame, closing the previous one.
+     */
+    public void beginFrame() {
+        long now = System.nanoTime();
+        long bytes = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        if (frameStart != 0) {
+            sectionTotals[FRAME] = now - frameStart;
+            endFrame(bytes - frameStartBytes);
+        }
+        frameStart = now;
+        frameStartBytes = bytes;
+    }
+
+    /**
+     * Marks the start of a section in the current frame.
+     *
+     * @param section The section's index.
+     */
+    public void begin(int section) {
+        sectionStarts[section] = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a section in the current frame.
+     *
+     * @param section The section's index.
+     */
+    public void end(int section) {
+        sectionTotals[section] += System.nanoTime() - sectionStarts[section];
+    }
+
+    /**
+     * Returns a percentile of a section's time over the recent frames.
+     *
+     * @param section    The section's index.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The percentile, in nanoseconds.
+     */
+    public long percentile(int section, double percentile) {
+        return histograms[section].percentile(percentile);
+    }
+
+    /**
+     * Returns a percentile of the bytes allocated per frame over the recent frames.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The percentile, in bytes.
+     */
+    public long allocatedPercentile(double percentile) {
+        return allocations.percentile(percentile);
+    }
+
+    /**
+     * Writes the log of the recent frames to a CSV file, one frame per line, with the time of
+     * every section in nanoseconds and the bytes allocated in the frame.
+     *
+     * @param path The file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public void export(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("frameIndex");
+            for (String name : SECTION_NAMES) {
+                writer.write(CSV_SEPARATOR + name);
+            }
+            writer.write(CSV_SEPARATOR + ALLOCATED_COLUMN);
+            writer.newLine();
+            long first = Math.max(0, frames - LOG_FRAMES);
+            for (long frame = first; frame < frames; frame++) {
+                int row = (int) (frame % LOG_FRAMES) * LOG_COLUMNS;
+                writer.write(Long.toString(frame));
+                for (int column = 0; column < LOG_COLUMNS; column++) {
+                    writer.write(CSV_SEPARATOR + log[row + column]);
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    /*
+     * Records the totals of the frame that just ended and resets them for the next one.
+     */
+    private void endFrame(long allocatedBytes) {
+        int row = (int) (frames % LOG_FRAMES) * LOG_COLUMNS;
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            histograms[i].record(sectionTotals[i]);
+            log[row + i] = sectionTotals[i];
+            sectionTotals[i] = 0;
+        }
+        allocations.record(allocatedBytes);
+        log[row + SECTION_COUNT] = allocatedBytes;
+        frames++;
+    }
+}
@@ -0,0 +1,117 @@
+package pepse.profiling;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+
+import java.util.function.BiConsumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * An on-screen overlay showing the {@link FrameProfiler}'s data: rolling frame and subsystem
+ * time percentiles, bytes allocated per frame and the number of game objects per layer.
+ * The text is rebuilt a few times a second and only while the overlay is shown.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see FrameProfiler
+ */
+public class ProfilerOverlay {
+
+    private static final float REFRESH_TIME = 0.5f;
+    private static final float LINE_HEIGHT = 20;
+    private static final Vector2 TOP_LEFT = new Vector2(10, 40);
+    private static final Vector2 LINE_DIMENSIONS = new Vector2(360, LINE_HEIGHT);
+    private static final double P50 = 50;
+    private static final double P95 = 95;
+    private static final double P99 = 99;
+    private static final double NANOS_IN_MILLI = 1e6;
+    private static final long BYTES_IN_KILOBYTE = 1024;
+    private final FrameProfiler profiler;
+    private final int[] layers;
+    private final String[] layerNames;
+    private final IntUnaryOperator layerCountFunc;
+    private final BiConsumer<GameObject, Integer> addFunc;
+    private final BiConsumer<GameObject, Integer> removeFunc;
+    private final int overlayLayer;
+    private final GameObject[] lines;
+    private final TextRenderable[] texts;
+    private float timeSinceRefresh;
+    private boolean visible;
+
+    /**
+     * Constructs a new, hidden, overlay.
+     *
+     * @param profiler       The profiler whose data is shown.
+     * @param layers         The layers whose object counts are shown.
+     * @param layerNames     The names of the layers, by the same order.
+     * @param layerCountFunc A function returning the number of game objects in a layer.
+     * @param addFunc        A consumer that adds a GameObject to a specific layer.
+     * @param removeFunc     A consumer that removes a GameObject from a specific layer.
+     * @param overlayLayer   The layer the overlay is shown in.
+     */
+    public ProfilerOverlay(FrameProfiler profiler, int[] layers, String[] layerNames,
+                           IntUnaryOperator layerCountFunc, BiConsumer<GameObject, Integer> addFunc,
+                           BiConsumer<GameObject, Integer> removeFunc, int overlayLayer) {
+        this.profiler = profiler;
+        this.layers = layers;
+        this.layerNames = layerNames;
+        this.layerCountFunc = layerCountFunc;
+        this.addFunc = addFunc;
+        this.removeFunc = removeFunc;
+        this.overlayLayer = overlayLayer;
+        int lineCount = FrameProfiler.SECTION_NAMES.length + 1 + layers.length;
+        this.lines = new GameObject[lineCount];
+        this.texts = new TextRenderable[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            texts[i] = new TextRenderable("");
+            lines[i] = new GameObject(TOP_LEFT.add(new Vector2(0, i * LINE_HEIGHT)),
+                    LINE_DIMENSIONS, texts[i]);
+            lines[i].setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+            lines[i].setTag(PepseGameManager.TEXT_TAG);
+        }
+        lines[0].addComponent(this::refresh);
+    }
+
+    /**
+     * Shows the overlay if it is hidden, hides it otherwise.
+     */
+    public void toggle() {
+        visible = !visible;
+        for (GameObject line : lines) {
+            if (visible) {
+                addFunc.accept(line, overlayLayer);
+            } else {
+                removeFunc.accept(line, overlayLayer);
+            }
+        }
+        timeSinceRefresh = REFRESH_TIME;
+    }
+
+    /*
+     * Rebuilds the overlay's text once every refresh time.
+     */
+    private void refresh(float deltaTime) {
+        timeSinceRefresh += deltaTime;
+        if (timeSinceRefresh < REFRESH_TIME) {
+            return;
+        }
+        timeSinceRefresh = 0;
+        int line = 0;
+        for (int section = 0; section < FrameProfiler.SECTION_NAMES.length; section++) {
+            texts[line++].setString(String.format("%s p50 %.2f p95 %.2f p99 %.2f ms",
+                    FrameProfiler.SECTION_NAMES[section],
+                    profiler.percentile(section, P50) / NANOS_IN_MILLI,
+                    profiler.percentile(section, P95) / NANOS_IN_MILLI,
+                    profiler.percentile(section, P99) / NANOS_IN_MILLI));
+        }
+        texts[line++].setString(String.format("alloc/frame p50 %d p95 %d p99 %d KB",
+                profiler.allocatedPercentile(P50) / BYTES_IN_KILOBYTE,
+                profiler.allocatedPercentile(P95) / BYTES_IN_KILOBYTE,
+                profiler.allocatedPercentile(P99) / BYTES_IN_KILOBYTE));
+        for (int i = 0; i < layers.length; i++) {
+            texts[line++].setString(layerNames[i] + ": " + layerCountFunc.applyAsInt(layers[i]));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package pepse.profiling;
+
+/**
+ * A histogram over the last samples recorded, with preallocated log-linear buckets: the
+ * smallest samples fall in a run of linear buckets of a fixed width, and every doubling of the
+ * samples above them is split into a fixed number of buckets, so small samples are told apart
+ * finely and large ones within a constant relative precision. Recording a sample and evicting
+ * the oldest one are O(1) and allocate nothing, so it is cheap enough to be fed every frame.
+ * Samples larger than the last bucket are counted in it.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see FrameProfiler
+ */
+public class RollingHistogram {
+
+    private static final double MAX_PERCENTILE = 100;
+    private final long bucketWidth;
+    private final int linearBuckets;
+    private final int linearBits;
+    private final int bucketsPerOctave;
+    private final int octaveBits;
+    private final long[] buckets;
+    private final long[] window;
+    private int next;
+    private int size;
+
+    /**
+     * Constructs a new, empty histogram.
+     *
+     * @param bucketWidth      The width of the linear buckets, in the samples' units.
+     * @param linearBuckets    The number of linear buckets, a power of two.
+     * @param bucketsPerOctave The number of buckets every doubling above the linear buckets is
+     *                         split into, a power of two no larger than the linear buckets.
+     * @param octaves          The number of doublings above the linear buckets covered.
+     * @param windowSize       The number of most recent samples the histogram covers.
+     */
+    public RollingHistogram(long bucketWidth, int linearBuckets, int bucketsPerOctave, int octaves,
+                            int windowSize) {
+        if (Integer.bitCount(linearBuckets) != 1 || Integer.bitCount(bucketsPerOctave) != 1 ||
+                bucketsPerOctave > linearBuckets) {
+            throw new IllegalArgumentException("Bucket counts must be powers of two, " + bucketsPerOctave +
+                    " per octave at most " + linearBuckets + " linear");
+        }
+        this.bucketWidth = bucketWidth;
+        this.linearBuckets = linearBuckets;
+        this.linearBits = Integer.numberOfTrailingZeros(linearBuckets);
+        this.bucketsPerOctave = bucketsPerOctave;
+        this.octaveBits = Integer.numberOfTrailingZeros(bucketsPerOctave);
+        this.buckets = new long[linearBuckets + octaves * bucketsPerOctave];
+        this.window = new long[windowSize];
+    }
+
+    /**
+     * Records a sample, evicting the oldest one if the window is full.
+     *
+     * @param value The sample.
+     */
+    public void record(long value) {
+        if (size == window.length) {
+            buckets[bucketOf(window[next])]--;
+        } else {
+            size++;
+        }
+        window[next] = value;
+        buckets[bucketOf(value)]++;
+        next = (next + 1) % window.length;
+    }
+
+    /**
+     * Returns the given percentile of the samples in the window, as the upper bound of the
+     * bucket it falls in.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The percentile, or 0 if no samples were recorded.
+     */
+    public long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(size * percentile / MAX_PERCENTILE);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(buckets.length - 1);
+    }
+
+    /*
+     * Returns the index of the bucket the value falls in.
+     */
+    private int bucketOf(long value) {
+        long units = Math.max(0, value / bucketWidth);
+        if (units < linearBuckets) {
+            return (int) units;
+        }
+        int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(units);
+        long octave = highestBit - linearBits;
+        long subBucket = (units >> (highestBit - octaveBits)) - bucketsPerOctave;
+        return (int) Math.min(buckets.length - 1, linearBuckets + octave * bucketsPerOctave + subBucket);
+    }
+
+    /*
+     * Returns the smallest value above the given bucket.
+     */
+    private long upperBound(int bucket) {
+        if (bucket < linearBuckets) {
+            return (bucket + 1) * bucketWidth;
+        }
+        int octave = (bucket - linearBuckets) / bucketsPerOctave;
+        int subBucket = (bucket - linearBuckets) % bucketsPerOctave;
+        int highestBit = linearBits + octave;
+        long subBucketUnits = 1L << (highestBit - octaveBits);
+        return ((1L << highestBit) + (subBucket + 1) * subBucketUnits) * bucketWidth;
+    }
+}
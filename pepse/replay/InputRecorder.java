@@ -0,0 +1,58 @@
+package pepse.replay;
+
+import java.util.function.Predicate;
+
+/**
+ * Stands between the keyboard and the avatar, recording the avatar's keys once per simulation
+ * tick. The keys are sampled at the start of every tick and the avatar is answered from the
+ * sample, so the recording holds exactly the input the simulation saw.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see InputRecording
+ */
+public class InputRecorder implements Predicate<Integer> {
+
+    private final Predicate<Integer> isKeyPressedFunc;
+    private final InputRecording recording;
+    private int mask;
+
+    /**
+     * Constructs a new recorder.
+     *
+     * @param isKeyPressedFunc A predicate telling whether a key (by its KeyEvent code) is pressed,
+     *                         e.g. UserInputListener::isKeyPressed.
+     * @param seed             The seed of the recorded world.
+     */
+    public InputRecorder(Predicate<Integer> isKeyPressedFunc, int seed) {
+        this.isKeyPressedFunc = isKeyPressedFunc;
+        this.recording = new InputRecording(seed);
+    }
+
+    /**
+     * Samples the keys for a new tick and records them. Called once before every tick.
+     */
+    public void sample() {
+        mask = InputRecording.maskOf(isKeyPressedFunc);
+        recording.record(mask);
+    }
+
+    /**
+     * Tells whether a key was pressed when the current tick was sampled.
+     *
+     * @param keyCode The KeyEvent code of the key.
+     * @return true if the key is one of the recorded keys and was pressed.
+     */
+    @Override
+    public boolean test(Integer keyCode) {
+        return InputRecording.isPressed(mask, keyCode);
+    }
+
+    /**
+     * Returns the recording made so far.
+     *
+     * @return The recording.
+     */
+    public InputRecording getRecording() {
+        return recording;
+    }
+}
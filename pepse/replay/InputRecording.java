@@ -0,0 +1,267 @@
+package pepse.replay;
+
+import pepse.PepseWorld;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A recording of a game session's input: the world's seed and, for every simulation tick,
+ * a bitmask of the avatar's keys (left, right, jump, dig and place). Since the keys are
+ * usually held for many ticks, the masks are kept run-length encoded, as runs of a mask and
+ * the number of ticks it was held.
+ *
+ * File format (little endian): magic (int), version (int), seed (int), number of runs (int),
+ * then every run as its mask (byte) followed by its length (variable-length int, 7 bits per
+ * byte, lowest bits first).
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see InputRecorder
+ * @see ReplayInput
+ */
+public class InputRecording {
+
+    /** The mask bit of the left key. */
+    public static final int LEFT = 1;
+    /** The mask bit of the right key. */
+    public static final int RIGHT = 1 << 1;
+    /** The mask bit of the jump (space) key. */
+    public static final int JUMP = 1 << 2;
+    /** The mask bit of the dig key. */
+    public static final int DIG = 1 << 3;
+    /** The mask bit of the place key. */
+    public static final int PLACE = 1 << 4;
+
+    private static final int MAGIC = 0x50524543;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+    private static final int MAX_RUN_SIZE = 1 + 5;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_VALUE_MASK = 0x7F;
+    private static final int VARINT_CONTINUE = 0x80;
+    private static final int INITIAL_RUNS = 64;
+    private final int seed;
+    private byte[] runMasks = new byte[INITIAL_RUNS];
+    private int[] runLengths = new int[INITIAL_RUNS];
+    private int runs;
+    private long ticks;
+
+    /**
+     * Constructs a new, empty, recording.
+     *
+     * @param seed The seed of the recorded world.
+     */
+    public InputRecording(int seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Appends a tick to the recording.
+     *
+     * @param mask The bitmask of the keys pressed in the tick.
+     */
+    public void record(int mask) {
+        if (runs > 0 && runMasks[runs - 1] == mask && runLengths[runs - 1] < Integer.MAX_VALUE) {
+            runLengths[runs - 1]++;
+        } else {
+            appendRun((byte) mask, 1);
+        }
+        ticks++;
+    }
+
+    /**
+     * Returns the bitmask of the keys that the given predicate tells are pressed.
+     *
+     * @param isKeyPressedFunc A predicate telling whether a key (by its KeyEvent code) is pressed.
+     * @return The keys' bitmask.
+     */
+    public static int maskOf(Predicate<Integer> isKeyPressedFunc) {
+        int mask = 0;
+        if (isKeyPressedFunc.test(KeyEvent.VK_LEFT)) {
+            mask |= LEFT;
+        }
+        if (isKeyPressedFunc.test(KeyEvent.VK_RIGHT)) {
+            mask |= RIGHT;
+        }
+        if (isKeyPressedFunc.test(KeyEvent.VK_SPACE)) {
+            mask |= JUMP;
+        }
+        if (isKeyPressedFunc.test(PepseWorld.DIG_KEY)) {
+            mask |= DIG;
+        }
+        if (isKeyPressedFunc.test(PepseWorld.PLACE_KEY)) {
+            mask |= PLACE;
+        }
+        return mask;
+    }
+
+    /**
+     * Tells whether a key is pressed in a bitmask.
+     *
+     * @param mask    The keys' bitmask.
+     * @param keyCode The KeyEvent code of the key.
+     * @return true if the key is one of the recorded keys and is pressed in the mask.
+     */
+    public static boolean isPressed(int mask, int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:
+                return (mask & LEFT) != 0;
+            case KeyEvent.VK_RIGHT:
+                return (mask & RIGHT) != 0;
+            case KeyEvent.VK_SPACE:
+                return (mask & JUMP) != 0;
+            case PepseWorld.DIG_KEY:
+                return (mask & DIG) != 0;
+            case PepseWorld.PLACE_KEY:
+                return (mask & PLACE) != 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Writes the recording to a file.
+     *
+     * @param path The file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE + runs * MAX_RUN_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(seed).putInt(runs);
+        for (int i = 0; i < runs; i++) {
+            buffer.put(runMasks[i]);
+            int length = runLengths[i];
+            while ((length & ~VARINT_VALUE_MASK) != 0) {
+                buffer.put((byte) ((length & VARINT_VALUE_MASK) | VARINT_CONTINUE));
+                length >>>= VARINT_BITS;
+            }
+            buffer.put((byte) length);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a recording from a file.
+     *
+     * @param path The file to read.
+     * @return The recording.
+     * @throws IOException if the file could not be read or is not a recording of this version.
+     */
+    public static InputRecording read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException(path + " changed while it was read");
+                }
+            }
+            buffer.flip();
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not an input recording");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " is a version " + version + " recording, expected " + VERSION);
+            }
+            InputRecording recording = new InputRecording(buffer.getInt());
+            int runs = buffer.getInt();
+            for (int i = 0; i < runs; i++) {
+                if (!buffer.hasRemaining()) {
+                    throw new IOException(path + " is truncated");
+                }
+                byte mask = buffer.get();
+                int length = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    if (!buffer.hasRemaining()) {
+                        throw new IOException(path + " is truncated");
+                    }
+                    b = buffer.get();
+                    length |= (b & VARINT_VALUE_MASK) << shift;
+                    shift += VARINT_BITS;
+                } while ((b & VARINT_CONTINUE) != 0);
+                if (length <= 0) {
+                    throw new IOException(path + " has a run of " + length + " ticks");
+                }
+                recording.appendRun(mask, length);
+                recording.ticks += length;
+            }
+            return recording;
+        }
+    }
+
+    /**
+     * Returns the seed of the recorded world.
+     *
+     * @return The seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of recorded ticks.
+     *
+     * @return The number of ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the number of runs the recording is encoded in.
+     *
+     * @return The number of runs.
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the bitmask of a run.
+     *
+     * @param run The index of the run.
+     * @return The run's keys' bitmask.
+     */
+    public int runMask(int run) {
+        return runMasks[run];
+    }
+
+    /**
+     * Returns the number of ticks of a run.
+     *
+     * @param run The index of the run.
+     * @return The run's length.
+     */
+    public int runLength(int run) {
+        return runLengths[run];
+    }
+
+    /*
+     * Appends a run, growing the run arrays if they are full.
+     */
+    private void appendRun(byte mask, int length) {
+        if (runs == runMasks.length) {
+            runMasks = Arrays.copyOf(runMasks, runs * 2);
+            runLengths = Arrays.copyOf(runLengths, runs * 2);
+        }
+        runMasks[runs] = mask;
+        runLengths[runs] = length;
+        runs++;
+    }
+}
@@ -0,0 +1,61 @@
+package pepse.replay;
+
+import pepse.headless.TickInput;
+
+/**
+ * Plays an {@link InputRecording} back in place of the keyboard, one recorded tick per
+ * simulation tick. After the last recorded tick no key is pressed.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see InputRecording
+ */
+public class ReplayInput implements TickInput {
+
+    private final InputRecording recording;
+    private int run;
+    private int tickInRun;
+
+    /**
+     * Constructs a new replay input, positioned at the recording's first tick.
+     *
+     * @param recording The recording to play.
+     */
+    public ReplayInput(InputRecording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Moves the replay one tick forward.
+     */
+    @Override
+    public void advance() {
+        if (isFinished()) {
+            return;
+        }
+        tickInRun++;
+        if (tickInRun >= recording.runLength(run)) {
+            tickInRun = 0;
+            run++;
+        }
+    }
+
+    /**
+     * Tells whether all the recorded ticks were played.
+     *
+     * @return true if the replay is over.
+     */
+    public boolean isFinished() {
+        return run >= recording.getRuns();
+    }
+
+    /**
+     * Tells whether the given key is pressed in the current tick of the recording.
+     *
+     * @param keyCode The KeyEvent code of the key.
+     * @return true if the key is pressed.
+     */
+    @Override
+    public boolean test(Integer keyCode) {
+        return !isFinished() && InputRecording.isPressed(recording.runMask(run), keyCode);
+    }
+}
@@ -0,0 +1,78 @@
+package pepse.replay;
+
+import pepse.headless.HeadlessRunner;
+import pepse.profiling.FrameProfiler;
+import pepse.world.Avatar;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replays a recorded game session headlessly, a number of times, under the frame profiler.
+ * Every run replays the recording's input on a fresh world of the recording's seed, and prints
+ * the run's frame times so that builds can be compared on the very same session. Since the
+ * simulation is deterministic, all runs must end in the same state; the runner exits with
+ * status 1 if they do not.
+ *
+ * Replays are exact for sessions recorded from a new game, as sessions restored from a saved
+ * game or played over an earlier session's world changes start from a different world.
+ *
+ * Usage: ReplayRunner recording [runs]
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see InputRecording
+ * @see HeadlessRunner
+ */
+public class ReplayRunner {
+
+    private static final int DEFAULT_RUNS = 5;
+    private static final float NANOS_IN_SECOND = 1e9f;
+    private static final double NANOS_IN_MILLI = 1e6;
+    private static final double P50 = 50;
+    private static final double P99 = 99;
+    private static final int FAILURE_STATUS = 1;
+
+    /**
+     * Replays a recording.
+     *
+     * @param args The recording's path and, optionally, the number of runs.
+     * @throws IOException if the recording could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayRunner recording [runs]");
+            System.exit(FAILURE_STATUS);
+        }
+        InputRecording recording = InputRecording.read(Path.of(args[0]));
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+        System.out.printf("replaying %d ticks (%d runs) of seed %d%n", recording.getTicks(),
+                recording.getRuns(), recording.getSeed());
+        String firstEndState = null;
+        for (int run = 1; run <= runs; run++) {
+            HeadlessRunner runner = new HeadlessRunner(new ReplayInput(recording), recording.getSeed());
+            long start = System.nanoTime();
+            for (long tick = 0; tick < recording.getTicks(); tick++) {
+                runner.step();
+            }
+            float seconds = (System.nanoTime() - start) / NANOS_IN_SECOND;
+            FrameProfiler profiler = runner.getProfiler();
+            Avatar avatar = runner.getWorld().getAvatar();
+            String endState = String.format("avatar (%.2f, %.2f) energy %.0f, %d objects",
+                    avatar.getTopLeftCorner().x(), avatar.getTopLeftCorner().y(), avatar.getEnergy(),
+                    runner.gameObjects().count());
+            runner.close();
+            System.out.printf("run %d: %.0f ticks/sec (update p50 %.3f p99 %.3f ms, streaming p99 %.3f ms), %s%n",
+                    run, recording.getTicks() / seconds,
+                    profiler.percentile(FrameProfiler.UPDATE, P50) / NANOS_IN_MILLI,
+                    profiler.percentile(FrameProfiler.UPDATE, P99) / NANOS_IN_MILLI,
+                    profiler.percentile(FrameProfiler.UPDATE_MIN_AND_MAX, P99) / NANOS_IN_MILLI,
+                    endState);
+            if (firstEndState == null) {
+                firstEndState = endState;
+            } else if (!firstEndState.equals(endState)) {
+                System.err.println("Run " + run + " diverged from run 1: " + endState);
+                System.exit(FAILURE_STATUS);
+            }
+        }
+    }
+}
@@ -9,6 +9,10 @@ import java.util.Random;
  */
 public final class ColorSupplier {
     private static final int DEFAULT_COLOR_DELTA = 10;
+    private static final int CHANNEL_BITS = 8;
+    private static final int CHANNEL_MASK = 0xFF;
+    private static final int HASH_CHANNEL_BITS = 16;
+    private static final int HASH_CHANNEL_MASK = 0xFFFF;
     private final static Random random = new Random();
 
     /**
@@ -64,6 +68,40 @@ public final class ColorSupplier {
                 randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
     }
 
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta per channel,
+     * as a packed RGB int. The difference is derived from the given hash instead of a random
+     * generator, so the same hash always gives the same color, on any thread and without
+     * allocating.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the color and the base color.
+     * @param hash A well-mixed hash, e.g. of the colored object's position.
+     * @return A color similar to baseColor, as 0xRRGGBB.
+     */
+    public static int approximateRgb(Color baseColor, int colorDelta, long hash) {
+        int range = 2 * colorDelta + 1;
+        int red = clipChannel(baseColor.getRed() - colorDelta
+                + (int) ((hash & HASH_CHANNEL_MASK) % range));
+        int green = clipChannel(baseColor.getGreen() - colorDelta
+                + (int) (((hash >>> HASH_CHANNEL_BITS) & HASH_CHANNEL_MASK) % range));
+        int blue = clipChannel(baseColor.getBlue() - colorDelta
+                + (int) (((hash >>> (2 * HASH_CHANNEL_BITS)) & HASH_CHANNEL_MASK) % range));
+        return (red << (2 * CHANNEL_BITS)) | (green << CHANNEL_BITS) | blue;
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a default delta, as a packed RGB int derived
+     * from the given hash.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param hash A well-mixed hash, e.g. of the colored object's position.
+     * @return A color similar to baseColor, as 0xRRGGBB.
+     */
+    public static int approximateRgb(Color baseColor, long hash) {
+        return approximateRgb(baseColor, DEFAULT_COLOR_DELTA, hash);
+    }
+
     /**
      * This method generates a random value for a color channel within the given range [min, max].
      *
@@ -73,6 +111,16 @@ public final class ColorSupplier {
      */
     private static int randomChannelInRange(int min, int max) {
         int channel = random.nextInt(max-min+1) + min;
-        return Math.min(255, Math.max(channel, 0));
+        return clipChannel(channel);
+    }
+
+    /**
+     * Clips a color channel to [0,255].
+     *
+     * @param channel The channel's value.
+     * @return The value, clipped to [0,255].
+     */
+    private static int clipChannel(int channel) {
+        return Math.min(CHANNEL_MASK, Math.max(channel, 0));
     }
 }
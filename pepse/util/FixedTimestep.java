@@ -0,0 +1,47 @@
+package pepse.util;
+
+/**
+ * Turns variable frame times into a whole number of fixed-length simulation ticks.
+ * Frame time is accumulated and spent in ticks of a constant length, so the simulation
+ * advances at the same rate whatever the frame rate is: a slow machine runs several ticks
+ * in a frame instead of slowing the game down, and a fast one runs no tick in some frames.
+ * To avoid falling ever further behind, at most a maximal number of ticks run in a frame
+ * and the frame time beyond them is dropped.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ */
+public class FixedTimestep {
+
+    private final float tickLength;
+    private final int maxTicksPerFrame;
+    private float accumulator;
+
+    /**
+     * Constructs a new fixed timestep.
+     *
+     * @param tickLength       The length of a simulation tick, in seconds.
+     * @param maxTicksPerFrame The maximal number of ticks to run in a single frame.
+     */
+    public FixedTimestep(float tickLength, int maxTicksPerFrame) {
+        this.tickLength = tickLength;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Accumulates a frame's time and returns the number of ticks to run for it.
+     *
+     * @param frameTime The time elapsed since the last frame, in seconds.
+     * @return The number of ticks to run.
+     */
+    public int advance(float frameTime) {
+        accumulator += frameTime;
+        int ticks = (int) (accumulator / tickLength);
+        if (ticks > maxTicksPerFrame) {
+            ticks = maxTicksPerFrame;
+            accumulator = 0;
+        } else {
+            accumulator -= ticks * tickLength;
+        }
+        return ticks;
+    }
+}
@@ -85,6 +85,27 @@ public class NoiseGenerator {
         return value * factor / startPoint;
     }
 
+    /**
+     * Generates two-dimensional noise, like {@link #noise(double, double)} but varying along
+     * both x and y, e.g. to carve caves into the terrain.
+     *
+     * @param x the wanted x to receive noise for.
+     * @param y the wanted y to receive noise for.
+     * @param factor describes how large the noise should be.
+     * @return returns the noise at (x, y), roughly between -factor and factor.
+     */
+    public double noise(double x, double y, double factor) {
+        double value = 0.0;
+        double currentPoint = startPoint;
+
+        while (currentPoint >= 1) {
+            value += smoothNoise((x / currentPoint), (y / currentPoint), 0) * currentPoint;
+            currentPoint /= 2.0;
+        }
+
+        return value * factor / startPoint;
+    }
+
 
     private double smoothNoise(double x, double y, double z) {
         // Offset each coordinate by the seed value
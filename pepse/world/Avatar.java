@@ -2,19 +2,22 @@ package pepse.world;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.gui.ImageReader;
-import danogl.gui.UserInputListener;
 import danogl.gui.rendering.AnimationRenderable;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
+import pepse.world.stats.Stat;
+import pepse.world.stats.StatEngine;
 
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Represents the controllable avatar in the game world. The avatar can run, jump, and consume energy
  * during these actions. It also interacts with other game objects like the ground.
+ * The avatar's energy is kept by its {@link StatEngine}: running, jumping and resting add
+ * modifiers to it during a tick, and whoever advances the world applies them once per tick.
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see GameObject
@@ -25,24 +28,17 @@ public class Avatar extends GameObject {
     private static final float HORIZONTAL_SPEED = 300;
     private static final float JUMP_SPEED = -700;
     private static final float GRAVITY = 700;
-    private static final float MAX_ENERGY = 100;
-    private static final float IDLE_ENERGY = 1.0f;
-    private static final float RUN_ENERGY = 0.5f;
+    private static final float IDLE_ENERGY_PER_SECOND = 60f;
+    private static final float RUN_ENERGY_PER_SECOND = 30f;
     private static final float JUMP_ENERGY = 10f;
-    private static final String[] IDLE_MOOD_IMAGES_PATHS = {"assets/idle_0.png", "assets/idle_1.png",
-            "assets/idle_2.png", "assets/idle_3.png"};
-    private static final String[] JUMP_MOOD_IMAGES_PATHS = {"assets/jump_0.png", "assets/jump_1.png",
-            "assets/jump_2.png", "assets/jump_3.png"};
-    private static final String[] RUN_MOOD_IMAGES_PATHS = {"assets/run_0.png", "assets/run_1.png",
-            "assets/run_2.png", "assets/run_3.png", "assets/run_4.png", "assets/run_5.png"};
-    private static final float TIME_BETWEEN_IMAGES = 0.5f;
-    private float energy = MAX_ENERGY;
-    private final UserInputListener inputListener;
-    private AnimationRenderable idleMoodAnimation;
-    private AnimationRenderable jumpMoodAnimation;
-    private AnimationRenderable runMoodAnimation;
+    private final StatEngine stats = new StatEngine();
+    private final Predicate<Integer> isKeyPressedFunc;
+    private final AnimationRenderable idleMoodAnimation;
+    private final AnimationRenderable jumpMoodAnimation;
+    private final AnimationRenderable runMoodAnimation;
     private final List<AvatarJumpListener> listeners = new ArrayList<>();
     private boolean jumpMode;
+    private boolean facingLeft;
 
 
 
@@ -51,21 +47,18 @@ public class Avatar extends GameObject {
      *
      * @param topLeftCorner The initial position of the avatar in the game world,
      *                      in window coordinates (pixels).
-     * @param inputListener The object responsible for listening to user input for controlling the avatar.
-     * @param imageReader   An image reader for loading animations and textures for the avatar.
+     * @param isKeyPressedFunc A predicate telling whether a key (by its KeyEvent code) is pressed,
+     *                         used for controlling the avatar.
+     * @param animations The animations' frames, shared with other avatars.
      */
-    public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, ImageReader imageReader) {
-        super(topLeftCorner, AVATAR_SIZE, imageReader.readImage(IDLE_MOOD_IMAGES_PATHS[0],
-                true));
-        this.inputListener = inputListener;
+    public Avatar(Vector2 topLeftCorner, Predicate<Integer> isKeyPressedFunc, AvatarAnimations animations) {
+        super(topLeftCorner, AVATAR_SIZE, animations.initialFrame());
+        this.isKeyPressedFunc = isKeyPressedFunc;
         this.transform().setAccelerationY(GRAVITY);
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
-        idleMoodAnimation = new AnimationRenderable(IDLE_MOOD_IMAGES_PATHS, imageReader,
-                true, TIME_BETWEEN_IMAGES);
-        jumpMoodAnimation = new AnimationRenderable(JUMP_MOOD_IMAGES_PATHS, imageReader,
-                true, TIME_BETWEEN_IMAGES);
-        runMoodAnimation = new AnimationRenderable(RUN_MOOD_IMAGES_PATHS, imageReader,
-                true, TIME_BETWEEN_IMAGES);
+        idleMoodAnimation = animations.createIdle();
+        jumpMoodAnimation = animations.createJump();
+        runMoodAnimation = animations.createRun();
         this.setTag(PepseGameManager.AVATAR_TAG);
         this.jumpMode = false;
     }
@@ -90,42 +83,47 @@ public class Avatar extends GameObject {
 
     /**
      * Updates the avatar's position, animations, and energy based on user input and game state.
+     * Running and idling change the energy at a rate per second, so the energy does not depend
+     * on the frame rate.
      *
      * @param deltaTime The time interval since the last frame.
      */
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
+        float runEnergy = RUN_ENERGY_PER_SECOND * deltaTime;
+        boolean spendsRunEnergy = false;
         float velocityX = 0;
-        if(this.inputListener.isKeyPressed(KeyEvent.VK_LEFT) &&
-                !this.inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
-            if(this.energy >= RUN_ENERGY) {
+        if(this.isKeyPressedFunc.test(KeyEvent.VK_LEFT) &&
+                !this.isKeyPressedFunc.test(KeyEvent.VK_RIGHT)) {
+            if(stats.projected(Stat.ENERGY) >= runEnergy) {
                 velocityX -= HORIZONTAL_SPEED;
                 renderer().setRenderable(runMoodAnimation);
                 renderer().setIsFlippedHorizontally(true);
-                if (!jumpMode) {
-                    this.energy -= RUN_ENERGY;
-                }
+                this.facingLeft = true;
+                spendsRunEnergy = !jumpMode;
             }
         }
-        if(this.inputListener.isKeyPressed(KeyEvent.VK_RIGHT) &&
-                !this.inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
-            if(this.energy >= RUN_ENERGY) {
+        if(this.isKeyPressedFunc.test(KeyEvent.VK_RIGHT) &&
+                !this.isKeyPressedFunc.test(KeyEvent.VK_LEFT)) {
+            if(stats.projected(Stat.ENERGY) >= runEnergy) {
                 velocityX += HORIZONTAL_SPEED;
                 renderer().setRenderable(runMoodAnimation);
                 renderer().setIsFlippedHorizontally(false);
-                if (!jumpMode) {
-                    this.energy -= RUN_ENERGY;
-                }
+                this.facingLeft = false;
+                spendsRunEnergy = !jumpMode;
             }
         }
         this.transform().setVelocityX(velocityX);
+        if (spendsRunEnergy) {
+            stats.add(Stat.ENERGY, -runEnergy);
+        }
 
-        if(this.inputListener.isKeyPressed(KeyEvent.VK_SPACE) && this.getVelocity().y() == 0) {
-            if(this.energy >= JUMP_ENERGY) {
+        if(this.isKeyPressedFunc.test(KeyEvent.VK_SPACE) && this.getVelocity().y() == 0) {
+            if(stats.projected(Stat.ENERGY) >= JUMP_ENERGY) {
                 this.jumpMode = true;
                 this.transform().setVelocityY(JUMP_SPEED);
-                this.energy -= JUMP_ENERGY;
+                stats.add(Stat.ENERGY, -JUMP_ENERGY);
                 renderer().setRenderable(jumpMoodAnimation);
                 notifyJump();
 
@@ -133,12 +131,10 @@ public class Avatar extends GameObject {
         }
 
         if(velocityX == 0 && this.getVelocity().y() == 0) {
-            this.energy += IDLE_ENERGY;
+            stats.add(Stat.ENERGY, IDLE_ENERGY_PER_SECOND * deltaTime);
             renderer().setRenderable(idleMoodAnimation);
 
         }
-
-        this.energy = Math.max(0, Math.min(this.energy, MAX_ENERGY));
     }
 
     /**
@@ -147,16 +143,45 @@ public class Avatar extends GameObject {
      * @return The avatar's energy level.
      */
     public float getEnergy() {
-        return (int) Math.floor(this.energy);
+        return stats.getDisplayed(Stat.ENERGY);
     }
 
     /**
-     * Increases the avatar's energy by the specified amount.
+     * Increases the avatar's energy by the specified amount, once the tick's stat modifiers
+     * are applied.
      *
      * @param energyBoost The amount of energy to add to the avatar.
      */
     public void addEnergy(float energyBoost) {
-        this.energy += energyBoost;
+        stats.add(Stat.ENERGY, energyBoost);
+    }
+
+    /**
+     * Sets the avatar's energy right away, e.g. when restoring a saved game.
+     *
+     * @param energy The energy, clamped to the avatar's energy range.
+     */
+    public void setEnergy(float energy) {
+        stats.set(Stat.ENERGY, energy);
+    }
+
+    /**
+     * Returns the engine keeping the avatar's stats. Its modifiers should be applied once per
+     * tick, after the avatar and the objects it touches were updated.
+     *
+     * @return The avatar's stat engine.
+     */
+    public StatEngine getStats() {
+        return stats;
+    }
+
+    /**
+     * Tells whether the avatar faces left, the direction it last ran in.
+     *
+     * @return true if the avatar faces left, false if it faces right.
+     */
+    public boolean isFacingLeft() {
+        return facingLeft;
     }
 
     /**
@@ -169,11 +194,18 @@ public class Avatar extends GameObject {
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
         if(other.getTag().equals(PepseGameManager.GROUND_TAG)){
-            this.transform().setVelocityY(0);
-            this.jumpMode = false;
+            land();
         }
     }
 
+    /**
+     * Lands the avatar on the ground: stops its fall and ends its jump.
+     */
+    public void land() {
+        this.transform().setVelocityY(0);
+        this.jumpMode = false;
+    }
+
 
     /*
      * Notifies all registered listeners that the avatar has jumped.
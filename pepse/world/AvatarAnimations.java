@@ -0,0 +1,164 @@
+package pepse.world;
+
+import danogl.gui.rendering.AnimationRenderable;
+import danogl.gui.rendering.Renderable;
+import pepse.assets.AssetHandle;
+import pepse.assets.AssetManager;
+import pepse.assets.SpriteAtlas;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * The frames of an avatar's idle, jump and run animations, loaded once and shared by every
+ * avatar. Each avatar creates its own {@link AnimationRenderable}s over the shared frames, so
+ * an avatar costs three small animation objects, not fourteen images.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Avatar
+ * @see SpriteAtlas
+ */
+public class AvatarAnimations {
+
+    private static final String[] IDLE_MOOD_IMAGES_PATHS = {"assets/idle_0.png", "assets/idle_1.png",
+            "assets/idle_2.png", "assets/idle_3.png"};
+    private static final String[] JUMP_MOOD_IMAGES_PATHS = {"assets/jump_0.png", "assets/jump_1.png",
+            "assets/jump_2.png", "assets/jump_3.png"};
+    private static final String[] RUN_MOOD_IMAGES_PATHS = {"assets/run_0.png", "assets/run_1.png",
+            "assets/run_2.png", "assets/run_3.png", "assets/run_4.png", "assets/run_5.png"};
+    private static final float TIME_BETWEEN_IMAGES = 0.5f;
+    private final Renderable[] idleClips;
+    private final Renderable[] jumpClips;
+    private final Renderable[] runClips;
+    private final AssetHandle<SpriteAtlas> atlasHandle;
+
+    /**
+     * Constructs the animations out of their frames.
+     *
+     * @param idleClips The idle animation's frames.
+     * @param jumpClips The jump animation's frames.
+     * @param runClips  The run animation's frames.
+     */
+    public AvatarAnimations(Renderable[] idleClips, Renderable[] jumpClips, Renderable[] runClips) {
+        this(idleClips, jumpClips, runClips, null);
+    }
+
+    /*
+     * Constructs the animations out of the frames of an atlas, held by a handle.
+     */
+    private AvatarAnimations(Renderable[] idleClips, Renderable[] jumpClips, Renderable[] runClips,
+                             AssetHandle<SpriteAtlas> atlasHandle) {
+        this.idleClips = idleClips;
+        this.jumpClips = jumpClips;
+        this.runClips = runClips;
+        this.atlasHandle = atlasHandle;
+    }
+
+    /**
+     * Loads the animations' frames as a single sprite atlas of an asset manager, decoding them
+     * in parallel off the calling thread. The atlas stays cached until the animations are
+     * released.
+     *
+     * @param assets The asset manager.
+     * @return The animations, completed once the atlas is packed.
+     */
+    public static CompletableFuture<AvatarAnimations> load(AssetManager assets) {
+        String[] paths = new String[IDLE_MOOD_IMAGES_PATHS.length + JUMP_MOOD_IMAGES_PATHS.length
+                + RUN_MOOD_IMAGES_PATHS.length];
+        System.arraycopy(IDLE_MOOD_IMAGES_PATHS, 0, paths, 0, IDLE_MOOD_IMAGES_PATHS.length);
+        System.arraycopy(JUMP_MOOD_IMAGES_PATHS, 0, paths, IDLE_MOOD_IMAGES_PATHS.length,
+                JUMP_MOOD_IMAGES_PATHS.length);
+        System.arraycopy(RUN_MOOD_IMAGES_PATHS, 0, paths,
+                IDLE_MOOD_IMAGES_PATHS.length + JUMP_MOOD_IMAGES_PATHS.length, RUN_MOOD_IMAGES_PATHS.length);
+        AssetHandle<SpriteAtlas> atlasHandle = assets.atlas(paths);
+        return atlasHandle.future().thenApply(atlas -> {
+            int first = 0;
+            Renderable[] idle = frames(atlas, first, IDLE_MOOD_IMAGES_PATHS.length);
+            first += IDLE_MOOD_IMAGES_PATHS.length;
+            Renderable[] jump = frames(atlas, first, JUMP_MOOD_IMAGES_PATHS.length);
+            first += JUMP_MOOD_IMAGES_PATHS.length;
+            Renderable[] run = frames(atlas, first, RUN_MOOD_IMAGES_PATHS.length);
+            return new AvatarAnimations(idle, jump, run, atlasHandle);
+        });
+    }
+
+    /**
+     * Reads the animations' frames one by one, e.g. with ImageReader::readImage or, where
+     * nothing is drawn, with a function returning a stub image.
+     *
+     * @param readImageFunc A function reading an image (path, is transparent).
+     * @return The animations.
+     */
+    public static AvatarAnimations read(BiFunction<String, Boolean, Renderable> readImageFunc) {
+        return new AvatarAnimations(readClips(IDLE_MOOD_IMAGES_PATHS, readImageFunc),
+                readClips(JUMP_MOOD_IMAGES_PATHS, readImageFunc), readClips(RUN_MOOD_IMAGES_PATHS, readImageFunc));
+    }
+
+    /**
+     * Returns the frame an avatar is shown with before it starts animating.
+     *
+     * @return The idle animation's first frame.
+     */
+    public Renderable initialFrame() {
+        return idleClips[0];
+    }
+
+    /**
+     * Creates an idle animation over the shared frames.
+     *
+     * @return A new idle animation.
+     */
+    public AnimationRenderable createIdle() {
+        return new AnimationRenderable(idleClips, TIME_BETWEEN_IMAGES);
+    }
+
+    /**
+     * Creates a jump animation over the shared frames.
+     *
+     * @return A new jump animation.
+     */
+    public AnimationRenderable createJump() {
+        return new AnimationRenderable(jumpClips, TIME_BETWEEN_IMAGES);
+    }
+
+    /**
+     * Creates a run animation over the shared frames.
+     *
+     * @return A new run animation.
+     */
+    public AnimationRenderable createRun() {
+        return new AnimationRenderable(runClips, TIME_BETWEEN_IMAGES);
+    }
+
+    /**
+     * Releases the atlas the frames were loaded from, if they were. The animations' frames
+     * should not be drawn afterwards.
+     */
+    public void release() {
+        if (atlasHandle != null) {
+            atlasHandle.release();
+        }
+    }
+
+    /*
+     * Returns a run of consecutive frames of an atlas.
+     */
+    private static Renderable[] frames(SpriteAtlas atlas, int first, int count) {
+        Renderable[] clips = new Renderable[count];
+        for (int i = 0; i < count; i++) {
+            clips[i] = atlas.frame(first + i);
+        }
+        return clips;
+    }
+
+    /*
+     * Reads the images in the given paths.
+     */
+    private static Renderable[] readClips(String[] paths, BiFunction<String, Boolean, Renderable> readImageFunc) {
+        Renderable[] clips = new Renderable[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            clips[i] = readImageFunc.apply(paths[i], true);
+        }
+        return clips;
+    }
+}
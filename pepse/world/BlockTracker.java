@@ -0,0 +1,38 @@
+package pepse.world;
+
+/**
+ * Interface for keeping track of the blocks removed from and placed in the terrain, so that a
+ * column which is unloaded and created again keeps its edits. A column's edits are kept as
+ * two masks, bit i standing for the cell i rows below a base row that the terrain chooses
+ * for the column.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Terrain
+ */
+public interface BlockTracker {
+    /**
+     * Returns the cells of a column whose generated block was removed.
+     *
+     * @param column The column's index.
+     * @return The removed cells' mask, 0 if none was removed.
+     */
+    long removedBlocks(int column);
+
+    /**
+     * Returns the cells of a column where a block was placed.
+     *
+     * @param column The column's index.
+     * @return The placed cells' mask, 0 if none was placed.
+     */
+    long placedBlocks(int column);
+
+    /**
+     * Called when the blocks of a column are edited.
+     *
+     * @param column  The column's index.
+     * @param baseRow The row that bit 0 of the masks stands for.
+     * @param removed The cells whose generated block is removed.
+     * @param placed  The cells where a block is placed.
+     */
+    void blocksEdited(int column, int baseRow, long removed, long placed);
+}
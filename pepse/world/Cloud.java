@@ -8,30 +8,32 @@ import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
 import pepse.util.ColorSupplier;
-import pepse.world.AvatarJumpListener;
-import pepse.world.Block;
 
+import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
-
-import java.awt.*;
 import java.util.Random;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
  * Represents a cloud structure that moves across the screen.
- * Can trigger rain animations when an avatar jumps.
+ * Can trigger rain animations when an avatar jumps. Which blocks of the cloud rain is drawn
+ * from the world's context, so rain falls the same way in replays of the same game.
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see AvatarJumpListener
  */
 public class Cloud implements AvatarJumpListener {
 
+    /**
+     * The time, in seconds, it takes a cloud to cross the screen.
+     */
+    public static final int CYCLE_LENGTH = 20;
+
     private static final Color CLOUD_COLOR = new Color(255, 255, 255);
     private static final Color RAIN_DROP_COLOR = Color.blue;
     private static final int RAIN_DROP_SIZE = 15;
-    private static final int TRANSITION_TIME = 20;
     private static final float Y_POSITION_FACTOR = 8f;
     private static final int X_POSITION_FACTOR = 5;
     private static final float RAIN_DROP_TRANS_START = 1f;
@@ -47,25 +49,41 @@ public class Cloud implements AvatarJumpListener {
     );
     private static final float GRAVITY = 700f;
     private static final float OPACITY_FADE_TIME = 1.0f;
-    private static List<GameObject> cloudBlocks;
-    private static BiConsumer<GameObject, Integer> addFunc;
-    private static Consumer<AvatarJumpListener> addListenerFunc;
+    private static final int RAIN_RANDOM_KEY = 0x5241494E;
+    private final List<GameObject> cloudBlocks;
+    private final BiConsumer<GameObject, Integer> addFunc;
+    private final BiConsumer<GameObject, Integer> removeFunc;
+    private final Random random;
+
+    /*
+     * Constructs the rain maker of the given cloud blocks.
+     */
+    private Cloud(List<GameObject> cloudBlocks, BiConsumer<GameObject, Integer> addFunc,
+                  BiConsumer<GameObject, Integer> removeFunc, Random random) {
+        this.cloudBlocks = cloudBlocks;
+        this.addFunc = addFunc;
+        this.removeFunc = removeFunc;
+        this.random = random;
+    }
 
 
     /**
      * Creates and initializes a cloud structure.
      *
+     * @param context The context of the cloud's world.
      * @param windowDimensions The dimensions of the game window.
      * @param cycleLength The duration for a complete cloud movement cycle.
      * @param addFunc Function to add game objects to the game manager.
+     * @param removeFunc Function to remove game objects from the game manager, used to remove
+     *                   rain drops once they have faded out.
      * @param addListenerFunc Function to add listeners for avatar jumps.
      * @return A list of cloud blocks that make up the cloud structure.
      */
-    public static List<GameObject> create(Vector2 windowDimensions, float cycleLength,
+    public static List<GameObject> create(WorldContext context, Vector2 windowDimensions,
+                                          float cycleLength,
                                           BiConsumer<GameObject, Integer> addFunc,
+                                          BiConsumer<GameObject, Integer> removeFunc,
                                           Consumer<AvatarJumpListener> addListenerFunc) {
-        Cloud.addFunc = addFunc;
-        Cloud.addListenerFunc = addListenerFunc;
         Vector2 startPosition = new Vector2(-Block.SIZE * X_POSITION_FACTOR,
                 windowDimensions.y() / Y_POSITION_FACTOR);
         int cloudWidth = CLOUD_PATTERN.get(0).size() * Block.SIZE;
@@ -74,11 +92,11 @@ public class Cloud implements AvatarJumpListener {
         cloud.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         cloud.setTag(PepseGameManager.CLOUD_TAG);
 
-        Cloud.cloudBlocks = buildCloudStructure(startPosition);
+        List<GameObject> cloudBlocks = buildCloudStructure(startPosition);
         applyTransitionPerBlock(cloudBlocks, windowDimensions, cloudWidth);
 
-        Cloud cloud1 = new Cloud();
-        Cloud.addListenerFunc.accept(cloud1);
+        Cloud cloud1 = new Cloud(cloudBlocks, addFunc, removeFunc, context.newRandom(RAIN_RANDOM_KEY));
+        addListenerFunc.accept(cloud1);
         return cloudBlocks;
     }
 
@@ -106,7 +124,7 @@ public class Cloud implements AvatarJumpListener {
                         block.getCenter(),
                         block.getCenter().add(new Vector2(windowDimensions.x() + cloudWidth, 0)),
                         Transition.LINEAR_INTERPOLATOR_VECTOR,
-                        TRANSITION_TIME,
+                        CYCLE_LENGTH,
                         Transition.TransitionType.TRANSITION_LOOP,
                         null);
             }
@@ -139,7 +157,7 @@ public class Cloud implements AvatarJumpListener {
     /*
      * Creates a single raindrop with a specified position and velocity.
      *
-     * Raindrops fall under the effect of gravity and fade out over time.
+     * Raindrops fall under the effect of gravity, fade out over time and are then removed.
      */
     private GameObject createRainDrop(Vector2 position, Vector2 velocity) {
         GameObject rainDrop = new GameObject(position, new Vector2(RAIN_DROP_SIZE, RAIN_DROP_SIZE),
@@ -156,7 +174,7 @@ public class Cloud implements AvatarJumpListener {
                 Transition.LINEAR_INTERPOLATOR_FLOAT,
                 OPACITY_FADE_TIME,
                 Transition.TransitionType.TRANSITION_ONCE,
-                null);
+                () -> this.removeFunc.accept(rainDrop, PepseGameManager.RAIN_DROP_LAYER));
         return rainDrop;
     }
 
@@ -167,11 +185,10 @@ public class Cloud implements AvatarJumpListener {
      * Adds raindrops to the game manager at the specified positions.
      */
     private void createRain() {
-        Random random = new Random();
-        for (GameObject block : Cloud.cloudBlocks) {
-            if (random.nextBoolean()) {
+        for (GameObject block : this.cloudBlocks) {
+            if (this.random.nextBoolean()) {
                 GameObject rainDrop = createRainDrop(block.getCenter(), block.getVelocity());
-                Cloud.addFunc.accept(rainDrop, PepseGameManager.RAIN_DROP_LAYER);
+                this.addFunc.accept(rainDrop, PepseGameManager.RAIN_DROP_LAYER);
             }
         }
     }
@@ -0,0 +1,234 @@
+package pepse.world;
+
+import danogl.GameObject;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps a contiguous window of world columns (of {@link Block#SIZE} pixels each) loaded
+ * around a position. The window holds the following invariants:
+ * - The loaded columns are exactly the columns between {@link #getMinColumn()} and
+ *   {@link #getMaxColumn()}, each of them loaded exactly once.
+ * - No more than {@link #getMaxLoadedColumns()} columns are ever loaded.
+ * Columns are loaded as the position moves towards them and unloaded once they are more than
+ * an unload margin away from the wanted range, so small movements back and forth do not
+ * reload the same columns. In debug mode the invariants are verified after every update.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Block
+ */
+public class LoadedWindow {
+
+    private final IntFunction<List<GameObject>> loadColumnFunc;
+    private final Consumer<List<GameObject>> unloadColumnFunc;
+    private final int leftColumns;
+    private final int rightColumns;
+    private final int unloadMargin;
+    private final boolean debug;
+    private final ArrayDeque<Column> columns = new ArrayDeque<>();
+    private int minColumn;
+    private int maxColumn;
+
+    /*
+     * A loaded column and the game objects that were loaded for it.
+     */
+    private static class Column {
+        private final int index;
+        private List<GameObject> objects;
+
+        private Column(int index, List<GameObject> objects) {
+            this.index = index;
+            this.objects = objects;
+        }
+    }
+
+    /**
+     * Constructs a new, empty, loaded window.
+     *
+     * @param leftWidth        The width, in pixels, that must be loaded left of the position.
+     * @param rightWidth       The width, in pixels, that must be loaded right of the position.
+     * @param unloadMargin     The number of columns beyond the wanted range that are kept loaded.
+     * @param loadColumnFunc   A function that loads a column by its index (its x divided by the
+     *                         block size), returning the game objects it created.
+     * @param unloadColumnFunc A consumer that unloads the game objects of a column.
+     * @param debug            Whether to verify the window's invariants after every update.
+     */
+    public LoadedWindow(int leftWidth, int rightWidth, int unloadMargin,
+                        IntFunction<List<GameObject>> loadColumnFunc,
+                        Consumer<List<GameObject>> unloadColumnFunc, boolean debug) {
+        this.leftColumns = (int) Math.ceil((float) leftWidth / Block.SIZE);
+        this.rightColumns = (int) Math.ceil((float) rightWidth / Block.SIZE);
+        this.unloadMargin = unloadMargin;
+        this.loadColumnFunc = loadColumnFunc;
+        this.unloadColumnFunc = unloadColumnFunc;
+        this.debug = debug;
+    }
+
+    /**
+     * Loads the columns that came into the wanted range around the position, and unloads the
+     * columns that went beyond it by more than the unload margin.
+     *
+     * @param x The position, in world coordinates, to keep the window around.
+     */
+    public void update(float x) {
+        int column = columnOf(x);
+        int wantedMin = column - leftColumns;
+        int wantedMax = column + rightColumns;
+        if (columns.isEmpty() || wantedMin > maxColumn || wantedMax < minColumn) {
+            unloadAll();
+            minColumn = wantedMin;
+            maxColumn = wantedMin - 1;
+        }
+        while (maxColumn < wantedMax) {
+            maxColumn++;
+            columns.addLast(new Column(maxColumn, loadColumnFunc.apply(maxColumn)));
+        }
+        while (minColumn > wantedMin) {
+            minColumn--;
+            columns.addFirst(new Column(minColumn, loadColumnFunc.apply(minColumn)));
+        }
+        while (minColumn < wantedMin - unloadMargin) {
+            unloadColumnFunc.accept(columns.removeFirst().objects);
+            minColumn++;
+        }
+        while (maxColumn > wantedMax + unloadMargin) {
+            unloadColumnFunc.accept(columns.removeLast().objects);
+            maxColumn--;
+        }
+        if (debug) {
+            checkInvariants();
+        }
+    }
+
+    /**
+     * Rebuilds a single loaded column in place, without touching the other columns. Does
+     * nothing if the column is not loaded.
+     *
+     * @param column      The column's index.
+     * @param rebuildFunc A function that rebuilds the column from the game objects loaded
+     *                    for it, returning the game objects it has once rebuilt.
+     */
+    public void rebuildColumn(int column, UnaryOperator<List<GameObject>> rebuildFunc) {
+        if (column < minColumn || column > maxColumn) {
+            return;
+        }
+        for (Column loaded : columns) {
+            if (loaded.index == column) {
+                loaded.objects = rebuildFunc.apply(loaded.objects);
+                break;
+            }
+        }
+        if (debug) {
+            checkInvariants();
+        }
+    }
+
+    /**
+     * Verifies the window's invariants: the loaded columns are contiguous, each loaded once,
+     * no game object belongs to two columns, and the number of columns is bounded.
+     *
+     * @throws IllegalStateException if an invariant does not hold.
+     */
+    public void checkInvariants() {
+        if (columns.size() != maxColumn - minColumn + 1) {
+            throw new IllegalStateException("Loaded " + columns.size() + " columns for range ["
+                    + minColumn + ", " + maxColumn + "]");
+        }
+        if (columns.size() > getMaxLoadedColumns()) {
+            throw new IllegalStateException("Loaded " + columns.size() + " columns, more than "
+                    + getMaxLoadedColumns());
+        }
+        Set<GameObject> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        int expected = minColumn;
+        Iterator<Column> iterator = columns.iterator();
+        while (iterator.hasNext()) {
+            Column column = iterator.next();
+            if (column.index != expected) {
+                throw new IllegalStateException("Column " + column.index + " loaded where column "
+                        + expected + " was expected");
+            }
+            for (GameObject gameObject : column.objects) {
+                if (!seen.add(gameObject)) {
+                    throw new IllegalStateException("Game object loaded twice, in column " + column.index);
+                }
+            }
+            expected++;
+        }
+    }
+
+    /**
+     * Returns the index of the leftmost loaded column.
+     *
+     * @return The leftmost loaded column.
+     */
+    public int getMinColumn() {
+        return minColumn;
+    }
+
+    /**
+     * Returns the index of the rightmost loaded column.
+     *
+     * @return The rightmost loaded column.
+     */
+    public int getMaxColumn() {
+        return maxColumn;
+    }
+
+    /**
+     * Returns the number of loaded columns.
+     *
+     * @return The number of loaded columns.
+     */
+    public int getLoadedColumns() {
+        return columns.size();
+    }
+
+    /**
+     * Returns the maximal number of columns that can be loaded at once.
+     *
+     * @return The bound on the number of loaded columns.
+     */
+    public int getMaxLoadedColumns() {
+        return leftColumns + rightColumns + 1 + 2 * unloadMargin;
+    }
+
+    /**
+     * Returns the number of game objects in all the loaded columns.
+     *
+     * @return The number of loaded game objects.
+     */
+    public int getLoadedObjects() {
+        int count = 0;
+        for (Column column : columns) {
+            count += column.objects.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index of the column containing the given x coordinate.
+     *
+     * @param x An x coordinate, in world coordinates.
+     * @return The index of its column.
+     */
+    public static int columnOf(float x) {
+        return (int) Math.floor(x / Block.SIZE);
+    }
+
+    /*
+     * Unloads all the loaded columns.
+     */
+    private void unloadAll() {
+        while (!columns.isEmpty()) {
+            unloadColumnFunc.accept(columns.removeFirst().objects);
+        }
+    }
+}
@@ -3,32 +3,53 @@ package pepse.world;
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
+import pepse.world.daynight.DayCycleClock;
+import pepse.world.daynight.DayCycleLighting;
 
 import java.awt.*;
 
 /**
  * Represents the sky in the game.
- * The sky spans the entire game window and is rendered with a basic sky color.
+ * The sky spans the entire game window and is tinted by the phase of the day cycle.
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see GameObject
+ * @see DayCycleLighting
  */
 public class Sky {
-    private static final Color BASIC_SKY_COLOR = Color.decode("#80C6E5");
+    /**
+     * The color of the sky.
+     */
+    public static final Color BASIC_SKY_COLOR = Color.decode("#80C6E5");
 
     /**
-     * Creates the sky for the game world.
+     * Creates the sky for the game world. A renderable is made for every entry of the
+     * lighting's table up front, so tinting the sky allocates nothing while the game runs.
      *
      * @param windowDimensions The dimensions of the game window.
+     * @param lighting The day-night cycle's lighting, which gives the sky's tint.
+     * @param clock The day cycle's clock.
      * @return A GameObject representing the sky.
      */
-    public static GameObject create(Vector2 windowDimensions) {
+    public static GameObject create(Vector2 windowDimensions, DayCycleLighting lighting,
+                                    DayCycleClock clock) {
+        Renderable[] tints = new Renderable[DayCycleLighting.LUT_SIZE];
+        for (int i = 0; i < tints.length; i++) {
+            tints[i] = new RectangleRenderable(lighting.skyColor((float) i / tints.length));
+        }
         GameObject sky = new GameObject(Vector2.ZERO, windowDimensions,
-                new RectangleRenderable(BASIC_SKY_COLOR));
+                tints[DayCycleLighting.indexOf(clock.getPhase())]);
         sky.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         sky.setTag(PepseGameManager.SKY_TAG);
+        sky.addComponent(deltaTime -> {
+            Renderable tint = tints[DayCycleLighting.indexOf(clock.getPhase())];
+            if (sky.renderer().getRenderable() != tint) {
+                sky.renderer().setRenderable(tint);
+            }
+        });
         return sky;
     }
 }
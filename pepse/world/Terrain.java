@@ -5,55 +5,256 @@ import danogl.util.Vector2;
 import pepse.PepseGameManager;
 import pepse.util.ColorSupplier;
 import pepse.util.NoiseGenerator;
+import pepse.world.biomes.BiomeMap;
 
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 /**
  * Represents the terrain in the game world.
  * Responsible for generating ground blocks with a noise-based height function and terrain depth.
+ * The height function's amplitude and the ground's color follow the world's biomes. Heights
+ * are computed for a whole chunk of {@link #CHUNK_COLUMNS} columns at once, together with the
+ * chunk's biome parameters, and cached.
+ *
+ * Every column is {@link #TERRAIN_DEPTH} cells deep from its top row. Which of a column's cells
+ * are solid is kept as a bitmask, bit i standing for the cell i rows below the top row. Without
+ * caves every cell is solid. With caves the cells are carved by a two-dimensional density field,
+ * which is evaluated in bulk for chunks of {@link #CHUNK_COLUMNS} columns, in parallel, and
+ * cached; chunks next to the ones being loaded are evaluated ahead of time in the background.
+ * The top {@link #CRUST_ROWS} rows of a column are never carved, so the ground's height stays
+ * where trees and the avatar expect it.
+ *
+ * Only solid cells that touch an air cell are created as colliding ground blocks. The other
+ * solid cells are created as interior blocks, to be added to a layer that does not collide, so
+ * the physics cost of a column depends on its surface and not on its depth.
+ *
+ * Blocks can be removed from and placed in the terrain. The edits are kept by a
+ * {@link BlockTracker} as masks over a window of {@link Long#SIZE} rows per column, starting
+ * some rows above the column's top row, and are applied to the generated cells with two bitwise
+ * operations whenever a column is created. The bottom row of a column cannot be removed.
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see Block
  * @see NoiseGenerator
+ * @see WorldContext
  */
 public class Terrain {
 
-    private static final float X0_HEIGHT_ADJUSTER = 2.0f / 3.0f;
-    private static final Color BASE_GROUND_COLOR = new Color(212, 123, 74);
-    private static final int TERRAIN_DEPTH = 20;
+    /**
+     * The base color of the ground blocks of the plains.
+     */
+    public static final Color BASE_GROUND_COLOR = new Color(212, 123, 74);
+    /**
+     * The number of ground blocks in every column, from the ground's top down.
+     */
+    public static final int TERRAIN_DEPTH = 20;
+    /**
+     * The number of columns whose cells are evaluated together.
+     */
+    public static final int CHUNK_COLUMNS = 16;
+    /**
+     * The number of rows at the top of every column that caves never carve.
+     */
+    public static final int CRUST_ROWS = 2;
     private static final int NOISE_FACTOR = 5 * Block.SIZE;
-    private final float baseHeight;
-    private final NoiseGenerator noiseGenerator;
+    private static final long SOLID_COLUMN_MASK = (1L << TERRAIN_DEPTH) - 1;
+    private static final float TUNNEL_WIDTH = 0.04f;
+    private static final float CAVERN_THRESHOLD = 0.3f;
+    private static final int CAVE_WIDENING_ROWS = 6;
+    private static final float HALF = 0.5f;
+    private static final int MAX_CACHED_CHUNKS = 32;
+    // Rows above a column's top row in which blocks can be placed
+    private static final int EDIT_ROWS_ABOVE = 40;
+    private static final int EDIT_ROWS = EDIT_ROWS_ABOVE + TERRAIN_DEPTH;
+    // Cells below a column's depth are never reached, so they count as solid
+    private static final long BELOW_DEPTH_MASK = -1L << EDIT_ROWS;
+    private static final BlockTracker NO_EDITS = new BlockTracker() {
+        @Override
+        public long removedBlocks(int column) {
+            return 0;
+        }
+
+        @Override
+        public long placedBlocks(int column) {
+            return 0;
+        }
+
+        @Override
+        public void blocksEdited(int column, int baseRow, long removed, long placed) {
+        }
+    };
+    private final WorldContext context;
+    private final BlockTracker blockTracker;
+    private final Map<Integer, CompletableFuture<long[]>> chunks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new Terrain instance that cannot be edited: removing and placing its blocks
+     * does nothing and returns false. The ground height function and the solid cell masks of
+     * the terrain create no game objects and may be called from any thread.
+     *
+     * @param context The context of the world the terrain belongs to.
+     */
+    public Terrain(WorldContext context) {
+        this(context, NO_EDITS);
+    }
 
     /**
-     * Constructs a new Terrain instance.
+     * Constructs a new Terrain instance whose edits are kept by the given tracker.
      *
-     * @param windowDimensions The dimensions of the game window.
+     * @param context      The context of the world the terrain belongs to.
+     * @param blockTracker Keeps track of the removed and placed blocks, so that recreated
+     *                     columns keep them.
      */
-    public Terrain(Vector2 windowDimensions) {
-        this.baseHeight = windowDimensions.y() * X0_HEIGHT_ADJUSTER;
-        this.noiseGenerator = new NoiseGenerator(PepseGameManager.seed, (int) this.baseHeight);
+    public Terrain(WorldContext context, BlockTracker blockTracker) {
+        this.context = context;
+        this.blockTracker = blockTracker;
     }
 
 
     /**
-     * Calculates the ground height at a specific x-coordinate using noise generation.
+     * Calculates the ground height at a specific x-coordinate using noise generation, scaled
+     * by the amplitude of the biomes there. Heights at the columns' left edges are computed for
+     * the column's whole chunk at once and cached in the world's context.
      *
      * @param x The x-coordinate for which the ground height is calculated.
      * @return The height of the ground at the given x-coordinate.
      */
     public float groundHeightAt(float x) {
-        float noise = (float) this.noiseGenerator.noise(x, NOISE_FACTOR);
-        return this.baseHeight + noise;
+        int column = (int) Math.floor(x / Block.SIZE);
+        if (column * Block.SIZE != x) {
+            return computeGroundHeight(x);
+        }
+        float height = context.cachedGroundHeight(column);
+        if (Float.isNaN(height)) {
+            height = computeChunkHeights(Math.floorDiv(column, CHUNK_COLUMNS), column);
+        }
+        return height;
+    }
+
+    /**
+     * Returns the top row of a column, the row of its ground height.
+     *
+     * @param column The column's index.
+     * @return The column's top row.
+     */
+    public int topRow(int column) {
+        return (int) Math.floor(groundHeightAt(column * Block.SIZE) / Block.SIZE);
+    }
+
+    /**
+     * Returns which of a column's cells are solid.
+     *
+     * @param column The column's index.
+     * @return The column's solid cells, bit i standing for the cell i rows below its top row.
+     */
+    public long solidMask(int column) {
+        if (!context.hasCaves()) {
+            return SOLID_COLUMN_MASK;
+        }
+        return chunk(Math.floorDiv(column, CHUNK_COLUMNS))[Math.floorMod(column, CHUNK_COLUMNS)];
+    }
+
+    /**
+     * Returns the row that bit 0 of a column's edit masks stands for.
+     *
+     * @param column The column's index.
+     * @return The base row of the column's edits.
+     */
+    public int editBaseRow(int column) {
+        return topRow(column) - EDIT_ROWS_ABOVE;
+    }
+
+    /**
+     * Tells whether a cell holds a block, generated or placed and not removed. Cells below a
+     * column's depth count as solid.
+     *
+     * @param column The cell's column.
+     * @param row    The cell's row.
+     * @return true if the cell is solid.
+     */
+    public boolean isSolid(int column, int row) {
+        int bit = row - editBaseRow(column);
+        return bit >= 0 && (bit >= Long.SIZE || (cells(column) & (1L << bit)) != 0);
+    }
+
+    /**
+     * Removes the block of a cell. Cells without a block and the bottom row of a column cannot
+     * be removed, and nothing can be removed from a terrain that cannot be edited.
+     *
+     * @param column The cell's column.
+     * @param row    The cell's row.
+     * @return true if a block was removed.
+     */
+    public boolean removeBlock(int column, int row) {
+        int baseRow = editBaseRow(column);
+        int bit = row - baseRow;
+        if (blockTracker == NO_EDITS || bit < 0 || bit >= EDIT_ROWS - 1 || !isSolid(column, row)) {
+            return false;
+        }
+        long cell = 1L << bit;
+        long removed = blockTracker.removedBlocks(column);
+        long placed = blockTracker.placedBlocks(column);
+        if ((placed & cell) != 0) {
+            placed &= ~cell;
+        } else {
+            removed |= cell;
+        }
+        blockTracker.blocksEdited(column, baseRow, removed, placed);
+        return true;
+    }
+
+    /**
+     * Places a block in an empty cell. Blocks can be placed down to a column's depth and up to
+     * a bounded height above its top row, and not at all in a terrain that cannot be edited.
+     *
+     * @param column The cell's column.
+     * @param row    The cell's row.
+     * @return true if a block was placed.
+     */
+    public boolean placeBlock(int column, int row) {
+        int baseRow = editBaseRow(column);
+        int bit = row - baseRow;
+        if (blockTracker == NO_EDITS || bit < 0 || bit >= EDIT_ROWS || isSolid(column, row)) {
+            return false;
+        }
+        long cell = 1L << bit;
+        long removed = blockTracker.removedBlocks(column);
+        long placed = blockTracker.placedBlocks(column);
+        if ((removed & cell) != 0) {
+            removed &= ~cell;
+        } else {
+            placed |= cell;
+        }
+        blockTracker.blocksEdited(column, baseRow, removed, placed);
+        return true;
+    }
+
+    /**
+     * Evaluates the solid cells of the chunks covering a range of columns, in parallel, so that
+     * creating those columns does not wait for them.
+     *
+     * @param firstColumn The range's first column.
+     * @param lastColumn  The range's last column.
+     */
+    public void prepareColumns(int firstColumn, int lastColumn) {
+        if (context.hasCaves()) {
+            IntStream.rangeClosed(Math.floorDiv(firstColumn, CHUNK_COLUMNS), Math.floorDiv(lastColumn, CHUNK_COLUMNS))
+                    .parallel().forEach(this::chunk);
+        }
     }
 
 
     /**
      * Creates ground blocks in a specified range.
-     * Generates blocks starting from the calculated ground height and extends
-     * down to the terrain depth.
+     * Generates blocks for the solid cells from the calculated ground height down to the
+     * terrain depth, with the terrain's edits applied. Blocks of cells touching air are tagged
+     * as ground and the others as ground interior.
      *
      * @param minX The minimum x-coordinate of the range.
      * @param maxX The maximum x-coordinate of the range.
@@ -62,21 +263,139 @@ public class Terrain {
     public List<Block> createInRange(int minX, int maxX) {
         List<Block> blocks = new ArrayList<>();
 
-        int minXAdjusted = (int) (Math.floor((float) minX / Block.SIZE) * Block.SIZE);
-        int maxXAdjusted = (int) (Math.floor((float) maxX / Block.SIZE) * Block.SIZE);
+        int minColumn = (int) Math.floor((float) minX / Block.SIZE);
+        int maxColumn = (int) Math.floor((float) maxX / Block.SIZE);
 
-        for (int x = minXAdjusted; x <= maxXAdjusted; x += Block.SIZE) {
-            float groundHeight = groundHeightAt(x);
-            int topY = (int) (Math.floor(groundHeight / Block.SIZE) * Block.SIZE);
-            for (int y = topY; y < topY + TERRAIN_DEPTH * Block.SIZE; y += Block.SIZE) {
-                Vector2 position = new Vector2(x, y);
+        for (int column = minColumn; column <= maxColumn; column++) {
+            prefetchAround(column);
+            int baseRow = editBaseRow(column);
+            long cells = cells(column);
+            // solid cells whose neighbors above, below and beside are all solid
+            long enclosed = cells & (cells << 1) & (cells >> 1)
+                    & alignedCells(column - 1, baseRow) & alignedCells(column + 1, baseRow);
+            Color groundColor = new Color(context.getBiomeMap().groundRgbAt(column));
+            long remaining = cells & ~BELOW_DEPTH_MASK;
+            while (remaining != 0) {
+                int bit = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                int row = baseRow + bit;
+                Vector2 position = new Vector2(column * Block.SIZE, row * Block.SIZE);
                 RectangleRenderable blockRender = new RectangleRenderable
-                        (ColorSupplier.approximateColor(BASE_GROUND_COLOR));
+                        (ColorSupplier.approximateColor(groundColor));
                 Block block = new Block(position, blockRender);
-                block.setTag(PepseGameManager.GROUND_TAG);
+                block.setTag((enclosed & (1L << bit)) == 0 ?
+                        PepseGameManager.GROUND_TAG : PepseGameManager.GROUND_INTERIOR_TAG);
                 blocks.add(block);
             }
         }
         return blocks;
     }
+
+    /*
+     * Computes the ground height at a specific x-coordinate from the world's noise.
+     */
+    private float computeGroundHeight(float x) {
+        float noise = (float) context.getNoiseGenerator().noise(x, NOISE_FACTOR);
+        return context.getBaseHeight() + noise * context.getBiomeMap().amplitudeAt(x / Block.SIZE);
+    }
+
+    /*
+     * Computes and caches the ground heights of a chunk's columns in a single pass, returning
+     * the height of the given column.
+     */
+    private float computeChunkHeights(int chunk, int wantedColumn) {
+        BiomeMap biomeMap = context.getBiomeMap();
+        NoiseGenerator noiseGenerator = context.getNoiseGenerator();
+        float wantedHeight = Float.NaN;
+        for (int column = chunk * CHUNK_COLUMNS; column < (chunk + 1) * CHUNK_COLUMNS; column++) {
+            float x = column * Block.SIZE;
+            float noise = (float) noiseGenerator.noise(x, NOISE_FACTOR);
+            float height = context.getBaseHeight() + noise * biomeMap.amplitudeAt(column);
+            context.cacheGroundHeight(column, height);
+            if (column == wantedColumn) {
+                wantedHeight = height;
+            }
+        }
+        return wantedHeight;
+    }
+
+    /*
+     * Returns a column's solid cells with its edits applied, bit i standing for the cell i rows
+     * below its edit base row. The bits of the cells below the column's depth are set.
+     */
+    private long cells(int column) {
+        long generated = solidMask(column) << EDIT_ROWS_ABOVE;
+        return generated & ~blockTracker.removedBlocks(column) | blockTracker.placedBlocks(column)
+                | BELOW_DEPTH_MASK;
+    }
+
+    /*
+     * Returns a column's solid cells, bit i standing for the cell i rows below the given row.
+     * The cells above the column's edit window are air and the cells below it are solid.
+     */
+    private long alignedCells(int column, int baseRow) {
+        int shift = editBaseRow(column) - baseRow;
+        if (shift >= Long.SIZE) {
+            return 0;
+        }
+        if (shift <= -Long.SIZE) {
+            return -1L;
+        }
+        long cells = cells(column);
+        return shift >= 0 ? cells << shift : cells >> -shift;
+    }
+
+    /*
+     * Returns the solid cell masks of a chunk's columns, evaluating them if they are not cached.
+     */
+    private long[] chunk(int chunk) {
+        CompletableFuture<long[]> masks = chunks.get(chunk);
+        if (masks == null) {
+            masks = chunks.computeIfAbsent(chunk, key -> CompletableFuture.completedFuture(evaluateChunk(key)));
+        }
+        return masks.join();
+    }
+
+    /*
+     * Starts evaluating the chunks next to a column's chunk in the background, and forgets the
+     * chunks far from it.
+     */
+    private void prefetchAround(int column) {
+        if (!context.hasCaves()) {
+            return;
+        }
+        int chunk = Math.floorDiv(column, CHUNK_COLUMNS);
+        for (int neighbor = chunk - 1; neighbor <= chunk + 1; neighbor += 2) {
+            if (!chunks.containsKey(neighbor)) {
+                chunks.computeIfAbsent(neighbor, key -> CompletableFuture.supplyAsync(() -> evaluateChunk(key)));
+            }
+        }
+        if (chunks.size() > MAX_CACHED_CHUNKS) {
+            chunks.keySet().removeIf(key -> Math.abs(key - chunk) > MAX_CACHED_CHUNKS / 2);
+        }
+    }
+
+    /*
+     * Evaluates the density field over a chunk's cells: a cell below a column's crust is air
+     * where the cave noise is close to zero, along winding tunnels, or high, in caverns. Both
+     * grow over the first rows below the crust, so caves rarely break through it.
+     */
+    private long[] evaluateChunk(int chunk) {
+        NoiseGenerator caveNoise = context.getCaveNoiseGenerator();
+        long[] masks = new long[CHUNK_COLUMNS];
+        for (int i = 0; i < CHUNK_COLUMNS; i++) {
+            int column = chunk * CHUNK_COLUMNS + i;
+            int topRow = topRow(column);
+            long mask = SOLID_COLUMN_MASK;
+            for (int depth = CRUST_ROWS; depth < TERRAIN_DEPTH; depth++) {
+                float growth = Math.min(1, (float) (depth - CRUST_ROWS + 1) / CAVE_WIDENING_ROWS);
+                double density = caveNoise.noise(column + HALF, topRow + depth + HALF, 1);
+                if (Math.abs(density) < TUNNEL_WIDTH * growth || density > CAVERN_THRESHOLD / growth) {
+                    mask &= ~(1L << depth);
+                }
+            }
+            masks[i] = mask;
+        }
+        return masks;
+    }
 }
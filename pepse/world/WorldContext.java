@@ -0,0 +1,171 @@
+package pepse.world;
+
+import danogl.util.Vector2;
+import pepse.util.NoiseGenerator;
+import pepse.world.biomes.BiomeMap;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Everything a world's generation depends on: the world's seed, whether its terrain has
+ * caves, the noise generators of its ground and caves, its biome map, a factory of the seeded
+ * random generators that place and shape its content, and a cache of its ground heights.
+ * Every world has its own context, so several worlds can exist in the same process and be
+ * generated on different threads. A context may be shared by the threads generating the same
+ * world.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Terrain
+ * @see pepse.world.trees.Flora
+ */
+public class WorldContext {
+
+    /**
+     * The system property that, set to true, makes new worlds' terrain have caves.
+     */
+    public static final String CAVES_PROPERTY = "pepse.caves";
+
+    private static final float X0_HEIGHT_ADJUSTER = 2.0f / 3.0f;
+    private static final int HASH_FACTOR = 31;
+    private static final int HEIGHT_CACHE_SIZE = 1024;
+    private static final int HEIGHT_CACHE_MASK = HEIGHT_CACHE_SIZE - 1;
+    private static final int COLUMN_SHIFT = 32;
+    private static final long HEIGHT_BITS_MASK = 0xFFFFFFFFL;
+    private static final long EMPTY_ENTRY = (long) Integer.MIN_VALUE << COLUMN_SHIFT;
+    private static final int CAVE_SEED_OFFSET = 104729;
+    // The cave noise is sampled in cells, not pixels
+    private static final int CAVE_NOISE_SCALE = 32;
+    private final int seed;
+    private final float baseHeight;
+    private final NoiseGenerator noiseGenerator;
+    private final NoiseGenerator caveNoiseGenerator;
+    private final BiomeMap biomeMap;
+    /*
+     * A direct-mapped cache of ground heights by column: each entry packs a column (high bits)
+     * and its height's float bits (low bits), so it is read and written atomically.
+     */
+    private final AtomicLongArray heightCache = new AtomicLongArray(HEIGHT_CACHE_SIZE);
+
+    /**
+     * Constructs a new world context, of a world without caves.
+     *
+     * @param seed             The world's seed.
+     * @param windowDimensions The dimensions of the game window, whose height sets the ground's
+     *                         base height.
+     */
+    public WorldContext(int seed, Vector2 windowDimensions) {
+        this(seed, windowDimensions, false);
+    }
+
+    /**
+     * Constructs a new world context.
+     *
+     * @param seed             The world's seed.
+     * @param windowDimensions The dimensions of the game window, whose height sets the ground's
+     *                         base height.
+     * @param caves            Whether caves are carved into the world's terrain.
+     */
+    public WorldContext(int seed, Vector2 windowDimensions, boolean caves) {
+        this.seed = seed;
+        this.baseHeight = windowDimensions.y() * X0_HEIGHT_ADJUSTER;
+        this.noiseGenerator = new NoiseGenerator(seed, (int) baseHeight);
+        this.caveNoiseGenerator = caves ? new NoiseGenerator(seed + CAVE_SEED_OFFSET, CAVE_NOISE_SCALE) : null;
+        this.biomeMap = new BiomeMap(seed);
+        for (int i = 0; i < HEIGHT_CACHE_SIZE; i++) {
+            heightCache.setPlain(i, EMPTY_ENTRY);
+        }
+    }
+
+    /**
+     * Returns the world's seed.
+     *
+     * @return The seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the height of the ground at x = 0, around which the ground's height varies.
+     *
+     * @return The ground's base height.
+     */
+    public float getBaseHeight() {
+        return baseHeight;
+    }
+
+    /**
+     * Returns the noise generator of the world's ground.
+     *
+     * @return The noise generator.
+     */
+    public NoiseGenerator getNoiseGenerator() {
+        return noiseGenerator;
+    }
+
+    /**
+     * Returns the map of the world's biomes.
+     *
+     * @return The biome map.
+     */
+    public BiomeMap getBiomeMap() {
+        return biomeMap;
+    }
+
+    /**
+     * Tells whether caves are carved into the world's terrain.
+     *
+     * @return true if the terrain has caves.
+     */
+    public boolean hasCaves() {
+        return caveNoiseGenerator != null;
+    }
+
+    /**
+     * Returns the noise generator of the world's caves.
+     *
+     * @return The cave noise generator, or null if the terrain has no caves.
+     */
+    public NoiseGenerator getCaveNoiseGenerator() {
+        return caveNoiseGenerator;
+    }
+
+    /**
+     * Creates a random generator for the given key, seeded by both the key and the world's
+     * seed, so that the same key always generates the same content in the same world.
+     *
+     * @param key The key, e.g. an x coordinate.
+     * @return A new random generator.
+     */
+    public Random newRandom(int key) {
+        // Same as Objects.hash(key, seed), without boxing its arguments
+        return new Random(HASH_FACTOR * (HASH_FACTOR + key) + seed);
+    }
+
+    /**
+     * Returns the cached ground height of a column.
+     *
+     * @param column The column's index.
+     * @return The ground height at the column's left edge, or NaN if it is not cached.
+     */
+    public float cachedGroundHeight(int column) {
+        long entry = heightCache.getOpaque(column & HEIGHT_CACHE_MASK);
+        if ((int) (entry >>> COLUMN_SHIFT) != column || entry == EMPTY_ENTRY) {
+            return Float.NaN;
+        }
+        return Float.intBitsToFloat((int) (entry & HEIGHT_BITS_MASK));
+    }
+
+    /**
+     * Caches the ground height of a column, replacing the cached height of another column
+     * that shares its cache entry.
+     *
+     * @param column The column's index.
+     * @param height The ground height at the column's left edge.
+     */
+    public void cacheGroundHeight(int column, float height) {
+        long entry = ((long) column << COLUMN_SHIFT) | (Float.floatToIntBits(height) & HEIGHT_BITS_MASK);
+        heightCache.setOpaque(column & HEIGHT_CACHE_MASK, entry);
+    }
+}
@@ -0,0 +1,88 @@
+package pepse.world.biomes;
+
+import pepse.world.Terrain;
+
+import java.awt.*;
+
+/**
+ * The biomes of the world, each with its own terrain amplitude, ground color, tree density and
+ * fruit rate. Biomes are ordered along the world's climate, a low-frequency noise channel,
+ * each centered at its own climate value; the world's parameters are blended between the two
+ * biomes around a column's climate.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see BiomeMap
+ */
+public enum Biome {
+
+    /** Dry, nearly flat land with sparse trees that bear little fruit. */
+    DESERT(-0.36f, 0.4f, new Color(226, 190, 120), 0.01f, 0.3f),
+    /** Gently rolling grassland. */
+    PLAINS(-0.12f, 0.7f, Terrain.BASE_GROUND_COLOR, 0.04f, 0.8f),
+    /** Dense woods on dark soil, rich in fruit. */
+    FOREST(0.12f, 1.0f, new Color(150, 96, 58), 0.16f, 0.9f),
+    /** Steep, rocky hills. */
+    HILLS(0.36f, 1.8f, new Color(150, 132, 116), 0.05f, 0.6f);
+
+    private final float climate;
+    private final float amplitude;
+    private final Color groundColor;
+    private final float treeProbability;
+    private final float fruitProbability;
+
+    /*
+     * Constructs a biome centered at the given climate value.
+     */
+    Biome(float climate, float amplitude, Color groundColor, float treeProbability, float fruitProbability) {
+        this.climate = climate;
+        this.amplitude = amplitude;
+        this.groundColor = groundColor;
+        this.treeProbability = treeProbability;
+        this.fruitProbability = fruitProbability;
+    }
+
+    /**
+     * Returns the climate value the biome is centered at.
+     *
+     * @return The biome's climate value.
+     */
+    public float getClimate() {
+        return climate;
+    }
+
+    /**
+     * Returns the factor by which the biome scales the terrain's height variations.
+     *
+     * @return The terrain amplitude factor.
+     */
+    public float getAmplitude() {
+        return amplitude;
+    }
+
+    /**
+     * Returns the base color of the biome's ground.
+     *
+     * @return The ground color.
+     */
+    public Color getGroundColor() {
+        return groundColor;
+    }
+
+    /**
+     * Returns the probability of a tree growing in a column of the biome.
+     *
+     * @return The tree probability.
+     */
+    public float getTreeProbability() {
+        return treeProbability;
+    }
+
+    /**
+     * Returns the probability of a leaf of the biome's trees bearing a fruit.
+     *
+     * @return The fruit probability.
+     */
+    public float getFruitProbability() {
+        return fruitProbability;
+    }
+}
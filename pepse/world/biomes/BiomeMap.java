@@ -0,0 +1,168 @@
+package pepse.world.biomes;
+
+import pepse.util.NoiseGenerator;
+import pepse.world.Terrain;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The map of a world's biomes. The world's climate is a low-frequency noise channel, sampled
+ * only at the edges of chunks of {@link Terrain#CHUNK_COLUMNS} columns and interpolated
+ * linearly between them, so looking a column's biome up evaluates no noise once its chunk's
+ * edges are cached. Parameters blend smoothly between neighboring biomes: a column is purely
+ * of one biome near the biome's climate value and blends into the next one over a band
+ * halfway between them. The map may be used from any thread.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Biome
+ * @see Terrain
+ */
+public class BiomeMap {
+
+    private static final int CLIMATE_SEED_OFFSET = 15485863;
+    // The climate noise is sampled in columns, and its features span hundreds of columns
+    private static final int CLIMATE_NOISE_SCALE = 256;
+    private static final float BLEND_BAND = 0.4f;
+    private static final float HALF = 0.5f;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int CHANNEL_MASK = 0xFF;
+    private static final int CACHE_SIZE = 256;
+    private static final int CACHE_MASK = CACHE_SIZE - 1;
+    private static final int EDGE_SHIFT = 32;
+    private static final long CLIMATE_BITS_MASK = 0xFFFFFFFFL;
+    private static final long EMPTY_ENTRY = (long) Integer.MIN_VALUE << EDGE_SHIFT;
+    private static final Biome[] BIOMES = Biome.values();
+    private final NoiseGenerator climateNoise;
+    /*
+     * A direct-mapped cache of climate values by chunk edge, each entry packing an edge (high
+     * bits) and its climate's float bits (low bits), like the world's ground height cache.
+     */
+    private final AtomicLongArray edgeClimates = new AtomicLongArray(CACHE_SIZE);
+
+    /**
+     * Constructs the biome map of a world.
+     *
+     * @param seed The world's seed.
+     */
+    public BiomeMap(int seed) {
+        this.climateNoise = new NoiseGenerator(seed + CLIMATE_SEED_OFFSET, CLIMATE_NOISE_SCALE);
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            edgeClimates.setPlain(i, EMPTY_ENTRY);
+        }
+    }
+
+    /**
+     * Returns the climate at a column.
+     *
+     * @param column The column's index, possibly fractional.
+     * @return The climate value.
+     */
+    public float climateAt(float column) {
+        float chunkPosition = column / Terrain.CHUNK_COLUMNS;
+        int chunk = (int) Math.floor(chunkPosition);
+        float left = edgeClimate(chunk);
+        float right = edgeClimate(chunk + 1);
+        return left + (right - left) * (chunkPosition - chunk);
+    }
+
+    /**
+     * Returns the biome a column belongs to the most.
+     *
+     * @param column The column's index.
+     * @return The column's biome.
+     */
+    public Biome biomeAt(int column) {
+        float climate = climateAt(column);
+        Biome nearest = BIOMES[0];
+        for (Biome biome : BIOMES) {
+            if (Math.abs(biome.getClimate() - climate) < Math.abs(nearest.getClimate() - climate)) {
+                nearest = biome;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the blended terrain amplitude factor at a column.
+     *
+     * @param column The column's index, possibly fractional.
+     * @return The terrain amplitude factor.
+     */
+    public float amplitudeAt(float column) {
+        return blend(climateAt(column), Biome::getAmplitude);
+    }
+
+    /**
+     * Returns the blended probability of a tree growing in a column.
+     *
+     * @param column The column's index.
+     * @return The tree probability.
+     */
+    public float treeProbabilityAt(int column) {
+        return blend(climateAt(column), Biome::getTreeProbability);
+    }
+
+    /**
+     * Returns the blended probability of a leaf bearing a fruit in a column.
+     *
+     * @param column The column's index.
+     * @return The fruit probability.
+     */
+    public float fruitProbabilityAt(int column) {
+        return blend(climateAt(column), Biome::getFruitProbability);
+    }
+
+    /**
+     * Returns the blended base color of the ground at a column.
+     *
+     * @param column The column's index.
+     * @return The ground color, as 0xRRGGBB.
+     */
+    public int groundRgbAt(int column) {
+        float climate = climateAt(column);
+        int red = Math.round(blend(climate, biome -> biome.getGroundColor().getRed()));
+        int green = Math.round(blend(climate, biome -> biome.getGroundColor().getGreen()));
+        int blue = Math.round(blend(climate, biome -> biome.getGroundColor().getBlue()));
+        return ((red & CHANNEL_MASK) << RED_SHIFT) | ((green & CHANNEL_MASK) << GREEN_SHIFT) | (blue & CHANNEL_MASK);
+    }
+
+    /*
+     * Blends a parameter of the two biomes around a climate value. Beyond the outermost biomes
+     * the parameter is theirs.
+     */
+    private static float blend(float climate, ToDoubleFunction<Biome> parameter) {
+        if (climate <= BIOMES[0].getClimate()) {
+            return (float) parameter.applyAsDouble(BIOMES[0]);
+        }
+        for (int i = 1; i < BIOMES.length; i++) {
+            Biome upper = BIOMES[i];
+            if (climate < upper.getClimate()) {
+                Biome lower = BIOMES[i - 1];
+                float t = (climate - lower.getClimate()) / (upper.getClimate() - lower.getClimate());
+                // Pure biomes away from the middle, a smooth step over the blend band
+                float s = Math.max(0, Math.min(1, (t - HALF) / BLEND_BAND + HALF));
+                float weight = s * s * (3 - 2 * s);
+                double lowerValue = parameter.applyAsDouble(lower);
+                return (float) (lowerValue + (parameter.applyAsDouble(upper) - lowerValue) * weight);
+            }
+        }
+        return (float) parameter.applyAsDouble(BIOMES[BIOMES.length - 1]);
+    }
+
+    /*
+     * Returns the climate at a chunk edge, the left edge of the given chunk, sampling the
+     * climate noise if it is not cached.
+     */
+    private float edgeClimate(int edge) {
+        int slot = edge & CACHE_MASK;
+        long entry = edgeClimates.getOpaque(slot);
+        if ((int) (entry >>> EDGE_SHIFT) == edge && entry != EMPTY_ENTRY) {
+            return Float.intBitsToFloat((int) (entry & CLIMATE_BITS_MASK));
+        }
+        float climate = (float) climateNoise.noise((double) edge * Terrain.CHUNK_COLUMNS, 1);
+        edgeClimates.setOpaque(slot, ((long) edge << EDGE_SHIFT) | (Float.floatToIntBits(climate) & CLIMATE_BITS_MASK));
+        return climate;
+    }
+}
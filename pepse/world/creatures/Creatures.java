@@ -0,0 +1,448 @@
+package pepse.world.creatures;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.world.Block;
+import pepse.world.LoadedWindow;
+import pepse.world.Terrain;
+import pepse.world.WorldContext;
+import pepse.world.biomes.Biome;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The world's wandering creatures: animals walking on the ground of forests and birds flying
+ * in flocks high above it. Creatures are plain data, not game objects: their kinds, states,
+ * positions, velocities and timers are kept in parallel primitive arrays and advanced in a
+ * single loop, and they are all drawn by one batch {@link GameObject}, so hundreds of them cost
+ * about as much as one game object per frame.
+ *
+ * Creatures spawn per chunk of {@link Terrain#CHUNK_COLUMNS} columns, from the world's seed,
+ * when their chunk comes within a few chunks of the avatar, and are dropped when it leaves
+ * that range, so a chunk always spawns the same creatures. Creatures within the awake window
+ * around the avatar are updated every tick; the others sleep and are updated, with a longer
+ * time step, once every {@value #SLEEP_INTERVAL} ticks, a different share of them each tick.
+ * A creature's ground is read from the terrain's cached column heights, so block edits are
+ * not seen by creatures.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Terrain#topRow(int)
+ */
+public class Creatures {
+
+    private static final int SLEEP_INTERVAL = 30;
+    private static final int SLEEP_MARGIN_CHUNKS = 4;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int CREATURE_KEY = 0x43524541;
+    private static final byte ANIMAL = 0;
+    private static final byte BIRD = 1;
+    private static final byte IDLE = 0;
+    private static final byte WALKING = 1;
+    private static final byte FLYING = 2;
+    private static final float ANIMAL_PROBABILITY = 0.1f;
+    private static final float ANIMAL_WIDTH = 24;
+    private static final float ANIMAL_HEIGHT = 16;
+    private static final float ANIMAL_SPEED = 40;
+    private static final int ANIMAL_WANDER_CHUNKS = 1;
+    private static final float MAX_STEP = Block.SIZE;
+    private static final float BIRD_FLOCK_PROBABILITY = 0.35f;
+    private static final int MIN_FLOCK_SIZE = 2;
+    private static final int FLOCK_SIZE_RANGE = 4;
+    private static final float BIRD_SPACING = 22;
+    private static final float BIRD_WIDTH = 14;
+    private static final float BIRD_HEIGHT = 6;
+    private static final float BIRD_SPEED = 90;
+    private static final float BIRD_MIN_ALTITUDE = 220;
+    private static final float BIRD_ALTITUDE_RANGE = 120;
+    private static final float BIRD_BOB_AMPLITUDE = 8;
+    private static final float BIRD_BOB_SPEED = 3;
+    private static final float BIRD_FLAP_SPEED = 4;
+    private static final int BIRD_WANDER_CHUNKS = 2;
+    private static final float MIN_STATE_TIME = 1;
+    private static final float STATE_TIME_RANGE = 3;
+    private static final float HALF = 0.5f;
+    private static final float TURN_PROBABILITY = 0.3f;
+    private static final float FULL_CIRCLE = (float) (2 * Math.PI);
+    private static final int XORSHIFT_1 = 13;
+    private static final int XORSHIFT_2 = 17;
+    private static final int XORSHIFT_3 = 5;
+    private static final int FLOAT_BITS = 24;
+    private static final float FLOAT_UNIT = 1f / (1 << FLOAT_BITS);
+    private static final Color ANIMAL_COLOR = new Color(120, 84, 52);
+    private static final Color ANIMAL_HEAD_COLOR = new Color(96, 64, 40);
+    private static final Color BIRD_COLOR = new Color(40, 40, 48);
+    private static final float HEAD_SIZE = 8;
+    private static final int ARC = 6;
+    private final Terrain terrain;
+    private final WorldContext context;
+    private final float awakeHalfWidth;
+    private final int reachChunks;
+    private final GameObject batch;
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private byte[] states = new byte[INITIAL_CAPACITY];
+    private float[] xs = new float[INITIAL_CAPACITY];
+    private float[] ys = new float[INITIAL_CAPACITY];
+    private float[] velocitiesX = new float[INITIAL_CAPACITY];
+    private float[] baseYs = new float[INITIAL_CAPACITY];
+    private float[] phases = new float[INITIAL_CAPACITY];
+    private float[] timers = new float[INITIAL_CAPACITY];
+    private int[] homeChunks = new int[INITIAL_CAPACITY];
+    private int[] randoms = new int[INITIAL_CAPACITY];
+    private boolean[] awake = new boolean[INITIAL_CAPACITY];
+    private int count;
+    private int awakeCount;
+    private int minChunk;
+    private int maxChunk;
+    private boolean spawned;
+    private int tick;
+    private float batchLeft;
+    private float batchTop;
+
+    /**
+     * Constructs a world's creatures, none spawned until the first update.
+     *
+     * @param terrain        The terrain whose ground the creatures walk and fly over.
+     * @param context        The world's context, whose seed and biomes spawn the creatures.
+     * @param awakeHalfWidth How far from the avatar, in pixels, creatures are awake.
+     */
+    public Creatures(Terrain terrain, WorldContext context, float awakeHalfWidth) {
+        this.terrain = terrain;
+        this.context = context;
+        this.awakeHalfWidth = awakeHalfWidth;
+        this.reachChunks = (int) Math.ceil(awakeHalfWidth / (Terrain.CHUNK_COLUMNS * Block.SIZE))
+                + SLEEP_MARGIN_CHUNKS;
+        this.batch = new GameObject(Vector2.ZERO, new Vector2(2 * awakeHalfWidth, Block.SIZE),
+                new BatchRenderable());
+        batch.setTag(PepseGameManager.CREATURES_TAG);
+    }
+
+    /**
+     * Returns the game object drawing all the awake creatures, to add to the game once.
+     *
+     * @return The creatures' batch game object.
+     */
+    public GameObject getBatch() {
+        return batch;
+    }
+
+    /**
+     * Spawns the creatures of the chunks that came within range of the avatar, drops those of
+     * the chunks that left it, and advances the creatures: the awake ones by the tick's time
+     * and a share of the sleeping ones by {@value #SLEEP_INTERVAL} ticks' time.
+     *
+     * @param avatarX   The avatar's x coordinate.
+     * @param deltaTime The tick's length.
+     */
+    public void update(float avatarX, float deltaTime) {
+        updateChunks(LoadedWindow.columnOf(avatarX));
+        float awakeMin = avatarX - awakeHalfWidth;
+        float awakeMax = avatarX + awakeHalfWidth;
+        int sleepSlot = tick;
+        tick = (tick + 1) % SLEEP_INTERVAL;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        awakeCount = 0;
+        for (int i = 0; i < count; i++) {
+            awake[i] = xs[i] >= awakeMin && xs[i] <= awakeMax;
+            if (awake[i]) {
+                step(i, deltaTime);
+                awakeCount++;
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i] + heightOf(i));
+            } else if (i % SLEEP_INTERVAL == sleepSlot) {
+                step(i, deltaTime * SLEEP_INTERVAL);
+            }
+        }
+        placeBatch(awakeMin, minY, maxY);
+    }
+
+    /**
+     * Returns the number of spawned creatures, awake or sleeping.
+     *
+     * @return The number of creatures.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the number of creatures that were awake in the last update.
+     *
+     * @return The number of awake creatures.
+     */
+    public int awakeCount() {
+        return awakeCount;
+    }
+
+    /*
+     * Drops the creatures of the chunks out of the avatar's range and spawns those of the
+     * chunks that came into it.
+     */
+    private void updateChunks(int avatarColumn) {
+        int avatarChunk = Math.floorDiv(avatarColumn, Terrain.CHUNK_COLUMNS);
+        int newMin = avatarChunk - reachChunks;
+        int newMax = avatarChunk + reachChunks;
+        if (spawned && newMin == minChunk && newMax == maxChunk) {
+            return;
+        }
+        if (spawned) {
+            dropOutside(newMin, newMax);
+        }
+        for (int chunk = newMin; chunk <= newMax; chunk++) {
+            if (!spawned || chunk < minChunk || chunk > maxChunk) {
+                spawnChunk(chunk);
+            }
+        }
+        minChunk = newMin;
+        maxChunk = newMax;
+        spawned = true;
+    }
+
+    /*
+     * Removes the creatures whose home chunk is out of a range, keeping the others in order.
+     */
+    private void dropOutside(int firstChunk, int lastChunk) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (homeChunks[i] >= firstChunk && homeChunks[i] <= lastChunk) {
+                move(i, kept++);
+            }
+        }
+        count = kept;
+    }
+
+    /*
+     * Spawns a chunk's creatures: animals on some of its forest columns and maybe a flock of
+     * birds.
+     */
+    private void spawnChunk(int chunk) {
+        Random random = context.newRandom(CREATURE_KEY + chunk);
+        int firstColumn = chunk * Terrain.CHUNK_COLUMNS;
+        for (int column = firstColumn; column < firstColumn + Terrain.CHUNK_COLUMNS; column++) {
+            if (random.nextFloat() < ANIMAL_PROBABILITY
+                    && context.getBiomeMap().biomeAt(column) == Biome.FOREST) {
+                int i = add(ANIMAL, IDLE, chunk, random.nextInt());
+                xs[i] = column * Block.SIZE;
+                ys[i] = groundAt(column) - ANIMAL_HEIGHT;
+                timers[i] = random.nextFloat() * STATE_TIME_RANGE;
+            }
+        }
+        if (random.nextFloat() < BIRD_FLOCK_PROBABILITY) {
+            int flockSize = MIN_FLOCK_SIZE + random.nextInt(FLOCK_SIZE_RANGE);
+            float flockX = (firstColumn + random.nextFloat() * Terrain.CHUNK_COLUMNS) * Block.SIZE;
+            float flockY = groundAt(LoadedWindow.columnOf(flockX)) - BIRD_MIN_ALTITUDE
+                    - random.nextFloat() * BIRD_ALTITUDE_RANGE;
+            float velocityX = random.nextBoolean() ? BIRD_SPEED : -BIRD_SPEED;
+            for (int bird = 0; bird < flockSize; bird++) {
+                int i = add(BIRD, FLYING, chunk, random.nextInt());
+                xs[i] = flockX + bird * BIRD_SPACING;
+                baseYs[i] = flockY + random.nextFloat() * BIRD_SPACING;
+                ys[i] = baseYs[i];
+                velocitiesX[i] = velocityX;
+                phases[i] = random.nextFloat() * FULL_CIRCLE;
+                timers[i] = MIN_STATE_TIME + random.nextFloat() * STATE_TIME_RANGE;
+            }
+        }
+    }
+
+    /*
+     * Advances a creature by a time step.
+     */
+    private void step(int i, float deltaTime) {
+        timers[i] -= deltaTime;
+        if (kinds[i] == ANIMAL) {
+            stepAnimal(i, deltaTime);
+        } else {
+            stepBird(i, deltaTime);
+        }
+    }
+
+    /*
+     * Advances an animal: it idles or walks for a random time, turns back at the edges of its
+     * range and at steps higher than a block, and stands on the ground.
+     */
+    private void stepAnimal(int i, float deltaTime) {
+        if (timers[i] <= 0) {
+            boolean walks = nextFloat(i) < HALF;
+            states[i] = walks ? WALKING : IDLE;
+            velocitiesX[i] = walks ? (nextFloat(i) < HALF ? -ANIMAL_SPEED : ANIMAL_SPEED) : 0;
+            timers[i] = MIN_STATE_TIME + nextFloat(i) * STATE_TIME_RANGE;
+        }
+        if (states[i] == WALKING) {
+            float x = xs[i] + velocitiesX[i] * deltaTime;
+            float ground = groundAt(LoadedWindow.columnOf(x + ANIMAL_WIDTH * HALF));
+            if (!inRange(i, x, ANIMAL_WANDER_CHUNKS) || ys[i] + ANIMAL_HEIGHT - ground > MAX_STEP) {
+                velocitiesX[i] = -velocitiesX[i];
+            } else {
+                xs[i] = x;
+            }
+        }
+        ys[i] = groundAt(LoadedWindow.columnOf(xs[i] + ANIMAL_WIDTH * HALF)) - ANIMAL_HEIGHT;
+    }
+
+    /*
+     * Advances a bird: it flies along its altitude, bobbing, turns back at the edges of its
+     * range and now and then at random.
+     */
+    private void stepBird(int i, float deltaTime) {
+        if (timers[i] <= 0) {
+            if (nextFloat(i) < TURN_PROBABILITY) {
+                velocitiesX[i] = -velocitiesX[i];
+            }
+            timers[i] = MIN_STATE_TIME + nextFloat(i) * STATE_TIME_RANGE;
+        }
+        float x = xs[i] + velocitiesX[i] * deltaTime;
+        if (inRange(i, x, BIRD_WANDER_CHUNKS)) {
+            xs[i] = x;
+        } else {
+            velocitiesX[i] = -velocitiesX[i];
+        }
+        phases[i] = (phases[i] + deltaTime * BIRD_BOB_SPEED) % FULL_CIRCLE;
+        ys[i] = baseYs[i] + (float) Math.sin(phases[i]) * BIRD_BOB_AMPLITUDE;
+    }
+
+    /*
+     * Tells whether an x coordinate is within a number of chunks of a creature's home chunk.
+     */
+    private boolean inRange(int i, float x, int wanderChunks) {
+        int chunk = Math.floorDiv(LoadedWindow.columnOf(x), Terrain.CHUNK_COLUMNS);
+        return Math.abs(chunk - homeChunks[i]) <= wanderChunks;
+    }
+
+    /*
+     * Returns the top of a column's ground, from the terrain's cached heights.
+     */
+    private float groundAt(int column) {
+        return terrain.topRow(column) * Block.SIZE;
+    }
+
+    /*
+     * Returns the height of a creature's body.
+     */
+    private float heightOf(int i) {
+        return kinds[i] == ANIMAL ? ANIMAL_HEIGHT : BIRD_HEIGHT + BIRD_BOB_AMPLITUDE;
+    }
+
+    /*
+     * Moves the batch over the awake creatures: across the awake window and from the highest
+     * awake creature's top, growing its dimensions only when they no longer cover them.
+     */
+    private void placeBatch(float left, float minY, float maxY) {
+        if (awakeCount == 0) {
+            return;
+        }
+        batchLeft = left;
+        batchTop = minY;
+        batch.transform().setTopLeftCorner(left, minY);
+        Vector2 dimensions = batch.getDimensions();
+        if (maxY - minY > dimensions.y()) {
+            batch.setDimensions(new Vector2(dimensions.x(), maxY - minY));
+        }
+    }
+
+    /*
+     * Appends a creature of a kind, state, home chunk and random seed, returning its index.
+     */
+    private int add(byte kind, byte state, int homeChunk, int seed) {
+        if (count == xs.length) {
+            grow();
+        }
+        int i = count++;
+        kinds[i] = kind;
+        states[i] = state;
+        homeChunks[i] = homeChunk;
+        randoms[i] = seed != 0 ? seed : 1;
+        velocitiesX[i] = 0;
+        baseYs[i] = 0;
+        phases[i] = 0;
+        timers[i] = 0;
+        awake[i] = false;
+        return i;
+    }
+
+    /*
+     * Copies a creature from one index to another.
+     */
+    private void move(int from, int to) {
+        kinds[to] = kinds[from];
+        states[to] = states[from];
+        xs[to] = xs[from];
+        ys[to] = ys[from];
+        velocitiesX[to] = velocitiesX[from];
+        baseYs[to] = baseYs[from];
+        phases[to] = phases[from];
+        timers[to] = timers[from];
+        homeChunks[to] = homeChunks[from];
+        randoms[to] = randoms[from];
+        awake[to] = awake[from];
+    }
+
+    /*
+     * Doubles the capacity of the creatures' arrays.
+     */
+    private void grow() {
+        int capacity = xs.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        states = Arrays.copyOf(states, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        velocitiesX = Arrays.copyOf(velocitiesX, capacity);
+        baseYs = Arrays.copyOf(baseYs, capacity);
+        phases = Arrays.copyOf(phases, capacity);
+        timers = Arrays.copyOf(timers, capacity);
+        homeChunks = Arrays.copyOf(homeChunks, capacity);
+        randoms = Arrays.copyOf(randoms, capacity);
+        awake = Arrays.copyOf(awake, capacity);
+    }
+
+    /*
+     * Returns the next random float in [0, 1) of a creature's own xorshift generator.
+     */
+    private float nextFloat(int i) {
+        int value = randoms[i];
+        value ^= value << XORSHIFT_1;
+        value ^= value >>> XORSHIFT_2;
+        value ^= value << XORSHIFT_3;
+        randoms[i] = value;
+        return (value >>> (Integer.SIZE - FLOAT_BITS)) * FLOAT_UNIT;
+    }
+
+    /*
+     * Draws all the awake creatures, relative to the batch's position on the screen.
+     */
+    private class BatchRenderable implements Renderable {
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions, double rotation,
+                           boolean isFlippedHorizontally, boolean isFlippedVertically, double opaqueness) {
+            float offsetX = topLeftCorner.x() - batchLeft;
+            float offsetY = topLeftCorner.y() - batchTop;
+            for (int i = 0; i < count; i++) {
+                if (!awake[i]) {
+                    continue;
+                }
+                int x = Math.round(xs[i] + offsetX);
+                int y = Math.round(ys[i] + offsetY);
+                if (kinds[i] == ANIMAL) {
+                    g.setColor(ANIMAL_COLOR);
+                    g.fillRoundRect(x, y + (int) (HEAD_SIZE * HALF), (int) ANIMAL_WIDTH,
+                            (int) (ANIMAL_HEIGHT - HEAD_SIZE * HALF), ARC, ARC);
+                    g.setColor(ANIMAL_HEAD_COLOR);
+                    int headX = velocitiesX[i] < 0 ? x - (int) (HEAD_SIZE * HALF) :
+                            x + (int) (ANIMAL_WIDTH - HEAD_SIZE * HALF);
+                    g.fillRect(headX, y, (int) HEAD_SIZE, (int) HEAD_SIZE);
+                } else {
+                    g.setColor(BIRD_COLOR);
+                    int wingY = y + Math.round((float) Math.sin(phases[i] * BIRD_FLAP_SPEED) * BIRD_HEIGHT * HALF);
+                    int middleX = x + (int) (BIRD_WIDTH * HALF);
+                    int middleY = y + (int) BIRD_HEIGHT;
+                    g.drawLine(x, wingY, middleX, middleY);
+                    g.drawLine(middleX, middleY, x + (int) BIRD_WIDTH, wingY);
+                }
+            }
+        }
+    }
+}
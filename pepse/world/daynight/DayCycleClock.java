@@ -0,0 +1,76 @@
+package pepse.world.daynight;
+
+/**
+ * The clock of the day-night cycle, which every object of the sky reads its state from.
+ * The clock is set from the world's clock once per tick, and precomputes then everything that
+ * depends on the time of day: the phase of the cycle and the direction of the sun from the
+ * center of its path. Every object of the sky therefore shows the same moment of the day, and
+ * none of them keeps a transition of its own.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Sun
+ * @see SunHalo
+ * @see Night
+ */
+public class DayCycleClock {
+
+    private static final double FULL_TURN = 2 * Math.PI;
+    private final float cycleLength;
+    private float phase;
+    private float sunDirectionX;
+    private float sunDirectionY;
+
+    /**
+     * Constructs a new clock.
+     *
+     * @param cycleLength The length of the day cycle, in seconds.
+     * @param time        The world's current time, in seconds.
+     */
+    public DayCycleClock(float cycleLength, float time) {
+        this.cycleLength = cycleLength;
+        setTime(time);
+    }
+
+    /**
+     * Sets the clock to the world's time.
+     *
+     * @param time The world's time, in seconds.
+     */
+    public void setTime(float time) {
+        phase = (time % cycleLength) / cycleLength;
+        if (phase < 0) {
+            phase += 1;
+        }
+        double angle = FULL_TURN * phase;
+        sunDirectionX = (float) Math.sin(angle);
+        // The sun is at the top of its path at noon, and y grows downwards
+        sunDirectionY = (float) -Math.cos(angle);
+    }
+
+    /**
+     * Returns the phase of the day cycle.
+     *
+     * @return The phase, from 0 (noon) to 1 (the next noon), 0.5 being midnight.
+     */
+    public float getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns the x coordinate of the unit vector from the center of the sun's path to the sun.
+     *
+     * @return The x coordinate of the sun's direction.
+     */
+    public float getSunDirectionX() {
+        return sunDirectionX;
+    }
+
+    /**
+     * Returns the y coordinate of the unit vector from the center of the sun's path to the sun.
+     *
+     * @return The y coordinate of the sun's direction, negative while the sun is up.
+     */
+    public float getSunDirectionY() {
+        return sunDirectionY;
+    }
+}
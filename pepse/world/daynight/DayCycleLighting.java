@@ -0,0 +1,135 @@
+package pepse.world.daynight;
+
+import pepse.world.Sky;
+
+import java.awt.*;
+
+/**
+ * The lighting of the day-night cycle, precomputed into a lookup table indexed by the cycle's
+ * phase: the sky's tint, the ambient darkening of the world and the visibility of the moon and
+ * stars. Phase 0 is noon and phase 0.5 is midnight. The game applies the darkening through a
+ * single window-sized overlay, which is skipped only around noon, where the darkening rounds to
+ * nothing (about a fifth of the cycle); for the rest of the cycle it is still blended over the
+ * whole window every frame. World previews bake the darkening into their pixels with
+ * {@link #grade(int, float)} instead.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Night
+ * @see Sky
+ */
+public class DayCycleLighting {
+
+    /** The number of entries in the lookup table. */
+    public static final int LUT_SIZE = 256;
+
+    private static final float MIDNIGHT_DARKNESS = 0.5f;
+    private static final Color NIGHT_SKY_COLOR = new Color(11, 16, 48);
+    private static final Color DUSK_SKY_COLOR = new Color(240, 150, 90);
+    private static final float MAX_DUSK_WEIGHT = 0.35f;
+    private static final int CHANNEL_BITS = 8;
+    private static final int CHANNEL_MASK = 0xFF;
+    private static final int RGB_MASK = 0xFFFFFF;
+    private static final float MIDNIGHT_PHASE = 0.5f;
+    private static final float STARS_APPEAR_NIGHT = 0.4f;
+    private final int[] skyRgb = new int[LUT_SIZE];
+    private final Color[] skyColors = new Color[LUT_SIZE];
+    private final float[] darkness = new float[LUT_SIZE];
+    private final float[] starVisibility = new float[LUT_SIZE];
+
+    /**
+     * Constructs the lighting, precomputing its lookup table.
+     */
+    public DayCycleLighting() {
+        Color daySky = Sky.BASIC_SKY_COLOR;
+        for (int i = 0; i < LUT_SIZE; i++) {
+            float phase = (float) i / LUT_SIZE;
+            // 0 at noon, 1 at midnight
+            float night = phase < MIDNIGHT_PHASE ? phase / MIDNIGHT_PHASE : (1 - phase) / MIDNIGHT_PHASE;
+            darkness[i] = MIDNIGHT_DARKNESS * night * night * night;
+            float starNight = Math.max(0, (night - STARS_APPEAR_NIGHT) / (1 - STARS_APPEAR_NIGHT));
+            starVisibility[i] = starNight * starNight * (3 - 2 * starNight);
+            float duskWeight = (float) (MAX_DUSK_WEIGHT * Math.pow(Math.sin(Math.PI * night), 2));
+            Color sky = blend(blend(daySky, NIGHT_SKY_COLOR, night * night), DUSK_SKY_COLOR, duskWeight);
+            skyColors[i] = sky;
+            skyRgb[i] = sky.getRGB() & RGB_MASK;
+        }
+    }
+
+    /**
+     * Returns the lookup table's index of a phase of the cycle.
+     *
+     * @param phase The phase, where 0 is noon and 1 is the next noon.
+     * @return The table index.
+     */
+    public static int indexOf(float phase) {
+        float wrapped = phase - (float) Math.floor(phase);
+        return Math.min(LUT_SIZE - 1, (int) (wrapped * LUT_SIZE));
+    }
+
+    /**
+     * Returns the ambient darkening at a phase of the cycle.
+     *
+     * @param phase The phase, where 0 is noon and 1 is the next noon.
+     * @return The darkening, from 0 (none) to the midnight darkening.
+     */
+    public float darkness(float phase) {
+        return darkness[indexOf(phase)];
+    }
+
+    /**
+     * Returns the visibility of the moon and stars at a phase of the cycle. They appear some
+     * time after dusk and are fully visible at midnight.
+     *
+     * @param phase The phase, where 0 is noon and 1 is the next noon.
+     * @return The visibility, from 0 (hidden) to 1 (fully visible).
+     */
+    public float starVisibility(float phase) {
+        return starVisibility[indexOf(phase)];
+    }
+
+    /**
+     * Returns the sky's color at a phase of the cycle. The same instance is returned for
+     * every phase of the same table entry.
+     *
+     * @param phase The phase, where 0 is noon and 1 is the next noon.
+     * @return The sky's color.
+     */
+    public Color skyColor(float phase) {
+        return skyColors[indexOf(phase)];
+    }
+
+    /**
+     * Returns the sky's color at a phase of the cycle, as a packed RGB int.
+     *
+     * @param phase The phase, where 0 is noon and 1 is the next noon.
+     * @return The sky's color, as 0xRRGGBB.
+     */
+    public int skyRgb(float phase) {
+        return skyRgb[indexOf(phase)];
+    }
+
+    /**
+     * Darkens a color by the ambient darkening of a phase, as the night overlay darkens it.
+     *
+     * @param rgb   The color, as 0xRRGGBB.
+     * @param phase The phase, where 0 is noon and 1 is the next noon.
+     * @return The darkened color, as 0xRRGGBB.
+     */
+    public int grade(int rgb, float phase) {
+        float light = 1 - darkness(phase);
+        int red = (int) (((rgb >>> (2 * CHANNEL_BITS)) & CHANNEL_MASK) * light);
+        int green = (int) (((rgb >>> CHANNEL_BITS) & CHANNEL_MASK) * light);
+        int blue = (int) ((rgb & CHANNEL_MASK) * light);
+        return (red << (2 * CHANNEL_BITS)) | (green << CHANNEL_BITS) | blue;
+    }
+
+    /*
+     * Blends two colors, the given weight of the second one.
+     */
+    private static Color blend(Color from, Color to, float weight) {
+        return new Color(
+                Math.round(from.getRed() + (to.getRed() - from.getRed()) * weight),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * weight),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * weight));
+    }
+}
@@ -0,0 +1,30 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+
+/*
+ * Fades the objects of the sky in and out. An object that would be fully transparent has no
+ * renderable, so it is not drawn at all.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ */
+class Fading {
+
+    private static final float MIN_VISIBLE_OPACITY = 1f / 255;
+
+    private Fading() {
+    }
+
+    /*
+     * Sets a game object's opacity, showing the given renderable only while it is visible.
+     */
+    static void setOpacity(GameObject gameObject, Renderable renderable, float opacity) {
+        if (opacity < MIN_VISIBLE_OPACITY) {
+            gameObject.renderer().setRenderable(null);
+        } else {
+            gameObject.renderer().setRenderable(renderable);
+            gameObject.renderer().setOpaqueness(opacity);
+        }
+    }
+}
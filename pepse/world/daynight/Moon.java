@@ -0,0 +1,45 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.OvalRenderable;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+
+import java.awt.*;
+
+/**
+ * Responsible for creating the moon, which moves on the sun's path opposite the sun and fades
+ * in during the night together with the stars.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Sun
+ * @see DayCycleClock
+ */
+public class Moon {
+
+    private static final Color MOON_COLOR = new Color(236, 236, 220);
+    private static final Vector2 MOON_SIZE = new Vector2(60, 60);
+    private static final float MOON_SIDE = -1;
+
+    /**
+     * Creates the moon.
+     *
+     * @param windowDimensions The dimensions of the game window, which determine the moon's path.
+     * @param lighting         The day-night cycle's lighting, which gives the moon's visibility.
+     * @param clock            The day cycle's clock.
+     * @return A GameObject representing the moon.
+     */
+    public static GameObject create(Vector2 windowDimensions, DayCycleLighting lighting,
+                                    DayCycleClock clock) {
+        OvalRenderable renderable = new OvalRenderable(MOON_COLOR);
+        GameObject moon = new GameObject(Vector2.ZERO, MOON_SIZE, renderable);
+        moon.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        moon.setTag(PepseGameManager.MOON_TAG);
+        moon.addComponent(Sun.followPath(moon, windowDimensions, clock, MOON_SIDE));
+        moon.addComponent(deltaTime ->
+                Fading.setOpacity(moon, renderable, lighting.starVisibility(clock.getPhase())));
+        Fading.setOpacity(moon, renderable, lighting.starVisibility(clock.getPhase()));
+        return moon;
+    }
+}
@@ -2,7 +2,6 @@ package pepse.world.daynight;
 
 import danogl.GameObject;
 import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
@@ -16,40 +15,43 @@ import java.awt.*;
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see GameObject
+ * @see DayCycleLighting
+ * @see DayCycleClock
  */
 public class Night {
 
     private static final Color BLACK_COLOR = Color.BLACK;
-    private static final Float MIDNIGHT_OPACITY = 0.5f;
-    private static final float INITIALIZE_TRANSITION_VALUE = 0f;
-    private static final float HALF_CYCLE = 2;
 
 
     /**
      * Creates a GameObject that represents the night effect.
-     * The night effect is visualized as a black transparent overlay
-     * that oscillates in opacity to simulate the transition between
-     * day and night.
+     * The night effect is visualized as a black transparent overlay whose opacity is the
+     * ambient darkening of the current phase of the day, looked up in the lighting's table.
+     * While the overlay would be fully transparent, around noon, it has no renderable, so it
+     * is not drawn over the whole window for nothing; the rest of the cycle it is.
      *
      * @param windowDimensions The dimensions of the game window.
-     * @param cycleLength The total duration of a full day-night cycle.
+     * @param lighting The day-night cycle's lighting.
+     * @param clock The day cycle's clock.
      * @return A GameObject representing the night effect.
      */
-    public static GameObject create(Vector2 windowDimensions, float cycleLength) {
-        GameObject night = new GameObject(Vector2.ZERO, windowDimensions,
-                new RectangleRenderable(BLACK_COLOR));
+    public static GameObject create(Vector2 windowDimensions, DayCycleLighting lighting,
+                                    DayCycleClock clock) {
+        RectangleRenderable overlay = new RectangleRenderable(BLACK_COLOR);
+        GameObject night = new GameObject(Vector2.ZERO, windowDimensions, overlay);
         night.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         night.setTag(PepseGameManager.NIGHT_TAG);
-        new Transition<Float>(
-                night, // the game object being changed
-                night.renderer()::setOpaqueness, // the method to call
-                INITIALIZE_TRANSITION_VALUE, // initial transition value
-                MIDNIGHT_OPACITY, // final transition value
-                Transition.CUBIC_INTERPOLATOR_FLOAT,// use a cubic interpolator
-                cycleLength/HALF_CYCLE, // transition fully over half a day
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH, // Choose appropriate ENUM value
-                null);// nothing further to execute upon reaching final value
+        night.addComponent(deltaTime -> applyDarkness(night, overlay, lighting, clock));
+        applyDarkness(night, overlay, lighting, clock);
         return night;
 
     }
+
+    /*
+     * Sets the overlay's opacity to the current darkening, hiding it while it is invisible.
+     */
+    private static void applyDarkness(GameObject night, RectangleRenderable overlay,
+                                      DayCycleLighting lighting, DayCycleClock clock) {
+        Fading.setOpacity(night, overlay, lighting.darkness(clock.getPhase()));
+    }
 }
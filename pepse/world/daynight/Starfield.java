@@ -0,0 +1,109 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+import pepse.world.WorldContext;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Responsible for creating the night sky's stars. The stars are generated from the world's seed
+ * and baked once into a single texture, which is drawn as one game object, so the night sky
+ * costs one image per frame however many stars it has. The texture scrolls slowly as the
+ * avatar moves, for a parallax effect, and fades in during the night.
+ *
+ * The texture is twice the window's width, its right half repeating its left half, so that
+ * scrolling it by up to a window's width always covers the window.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see DayCycleLighting
+ * @see Moon
+ */
+public class Starfield {
+
+    private static final int STAR_COUNT = 2500;
+    private static final int STARFIELD_KEY = 0x5747A125;
+    private static final float PARALLAX_FACTOR = 0.02f;
+    private static final float BRIGHT_STAR_PROBABILITY = 0.05f;
+    private static final int MIN_BRIGHTNESS = 90;
+    private static final int MAX_BRIGHTNESS = 255;
+    private static final int MAX_TINT = 40;
+    private static final int ALPHA_SHIFT = 24;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int OPAQUE_ALPHA = 0xFF;
+    private static final int[][] STAR_OFFSETS = {{0, 0}};
+    private static final int[][] BRIGHT_STAR_OFFSETS = {{0, 0}, {1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * Creates the starfield of a world.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param context          The world's context, whose seed places the stars and whose base
+     *                         height is the lowest the stars reach.
+     * @param lighting         The day-night cycle's lighting, which gives the stars' visibility.
+     * @param clock            The day cycle's clock.
+     * @param avatar           The avatar, whose position scrolls the stars.
+     * @return A GameObject representing the starfield.
+     */
+    public static GameObject create(Vector2 windowDimensions, WorldContext context,
+                                    DayCycleLighting lighting, DayCycleClock clock, GameObject avatar) {
+        int width = (int) windowDimensions.x();
+        int height = (int) context.getBaseHeight();
+        ImageRenderable texture = new ImageRenderable(bake(width, height, context));
+        GameObject starfield = new GameObject(Vector2.ZERO, new Vector2(2 * width, height), texture);
+        starfield.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        starfield.setTag(PepseGameManager.STARFIELD_TAG);
+        starfield.addComponent(deltaTime -> {
+            Fading.setOpacity(starfield, texture, lighting.starVisibility(clock.getPhase()));
+            float offset = (avatar.getTopLeftCorner().x() * PARALLAX_FACTOR) % width;
+            if (offset < 0) {
+                offset += width;
+            }
+            starfield.transform().setTopLeftCorner(-offset, 0);
+        });
+        Fading.setOpacity(starfield, texture, lighting.starVisibility(clock.getPhase()));
+        return starfield;
+    }
+
+    /*
+     * Bakes the stars into a texture twice the given width, its halves alike.
+     */
+    private static BufferedImage bake(int width, int height, WorldContext context) {
+        BufferedImage image = new BufferedImage(2 * width, height, BufferedImage.TYPE_INT_ARGB);
+        Random random = context.newRandom(STARFIELD_KEY);
+        for (int i = 0; i < STAR_COUNT; i++) {
+            int x = random.nextInt(width);
+            // Fewer stars near the horizon
+            int y = (int) (height * random.nextFloat() * random.nextFloat());
+            int brightness = MIN_BRIGHTNESS + random.nextInt(MAX_BRIGHTNESS - MIN_BRIGHTNESS + 1);
+            int tint = random.nextInt(2 * MAX_TINT + 1) - MAX_TINT;
+            int argb = (OPAQUE_ALPHA << ALPHA_SHIFT)
+                    | (clampChannel(brightness + tint) << RED_SHIFT)
+                    | (clampChannel(brightness) << GREEN_SHIFT)
+                    | clampChannel(brightness - tint);
+            int[][] offsets = random.nextFloat() < BRIGHT_STAR_PROBABILITY ?
+                    BRIGHT_STAR_OFFSETS : STAR_OFFSETS;
+            for (int[] offset : offsets) {
+                int starX = Math.floorMod(x + offset[0], width);
+                int starY = y + offset[1];
+                if (starY >= 0 && starY < height) {
+                    image.setRGB(starX, starY, argb);
+                    image.setRGB(starX + width, starY, argb);
+                }
+            }
+        }
+        return image;
+    }
+
+    /*
+     * Clamps a color channel to its range.
+     */
+    private static int clampChannel(int value) {
+        return Math.max(0, Math.min(MAX_BRIGHTNESS, value));
+    }
+}
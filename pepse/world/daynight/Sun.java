@@ -1,13 +1,11 @@
 package pepse.world.daynight;
 
 import danogl.GameObject;
+import danogl.components.Component;
 import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
 import danogl.gui.rendering.OvalRenderable;
-import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
 import pepse.PepseGameManager;
-import pepse.world.Terrain;
 
 import java.awt.*;
 
@@ -16,45 +14,59 @@ import java.awt.*;
  * The sun follows a circular path to simulate the natural day-night cycle.
  *
  * @author Ronnie Rozanski and Gilly Sraya
+ * @see DayCycleClock
  */
 public class Sun {
 
     private static final Color SUN_COLOR = Color.YELLOW;
     private static final Vector2 SUN_SIZE = new Vector2(100, 100);
-    private static final float START_ANGLE = 0;
-    private static final float END_ANGLE = 360;
     private static final float POSITION_FACTOR1 = 2f;
     private static final float POSITION_FACTOR2 = 3f;
+    private static final float SUN_SIDE = 1;
 
 
     /**
-     * Creates a sun object that animates in a circular path representing the sun's daily movement.
+     * Creates a sun object that moves in a circular path representing the sun's daily movement.
      *
      * @param windowDimensions The dimensions of the game window. Used to determine the sun's path.
-     * @param cycleLength      The length of the sun's movement cycle in seconds.
+     * @param clock            The day cycle's clock, which gives the sun's position on its path.
      * @return A GameObject representing the sun.
      */
-    public static GameObject create(Vector2 windowDimensions, float cycleLength) {
-
-        Vector2 sunStartPosition = new Vector2(windowDimensions.x() / POSITION_FACTOR1,
-                windowDimensions.y() / POSITION_FACTOR2);
-        Vector2 sunCycleCenter = new Vector2(windowDimensions.x() / POSITION_FACTOR1 ,
-                windowDimensions.y() * POSITION_FACTOR1 / POSITION_FACTOR2);
-
-        GameObject sun = new GameObject(sunStartPosition, SUN_SIZE ,new OvalRenderable(SUN_COLOR));
+    public static GameObject create(Vector2 windowDimensions, DayCycleClock clock) {
+        GameObject sun = new GameObject(Vector2.ZERO, SUN_SIZE, new OvalRenderable(SUN_COLOR));
         sun.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         sun.setTag(PepseGameManager.SUN_TAG);
-
-        new Transition<Float>(
-                sun,
-                (Float angle) -> sun.setCenter
-                        (sunStartPosition.subtract(sunCycleCenter).rotated(angle).add(sunCycleCenter)),
-                START_ANGLE,
-                END_ANGLE,
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                cycleLength,
-                Transition.TransitionType.TRANSITION_LOOP,
-                null);
+        sun.addComponent(followSunPath(sun, windowDimensions, clock));
         return sun;
     }
+
+    /**
+     * Creates a component that keeps a game object's center where the sun is on its path.
+     * The position is computed from the clock's precomputed direction of the sun and set in
+     * place, so the component allocates nothing. The game object is placed right away too.
+     *
+     * @param gameObject       The game object to place.
+     * @param windowDimensions The dimensions of the game window, which determine the sun's path.
+     * @param clock            The day cycle's clock.
+     * @return The component, to add to the game object.
+     */
+    public static Component followSunPath(GameObject gameObject, Vector2 windowDimensions,
+                                          DayCycleClock clock) {
+        return followPath(gameObject, windowDimensions, clock, SUN_SIDE);
+    }
+
+    /*
+     * Creates a component that keeps a game object's center on the sun's path, where the sun is
+     * (side 1) or opposite it (side -1), and places it right away.
+     */
+    static Component followPath(GameObject gameObject, Vector2 windowDimensions, DayCycleClock clock,
+                                float side) {
+        float centerX = windowDimensions.x() / POSITION_FACTOR1;
+        float centerY = windowDimensions.y() * POSITION_FACTOR1 / POSITION_FACTOR2;
+        float radius = side * windowDimensions.y() / POSITION_FACTOR2;
+        Component component = deltaTime -> gameObject.transform().setCenter(
+                centerX + radius * clock.getSunDirectionX(), centerY + radius * clock.getSunDirectionY());
+        component.update(0);
+        return component;
+    }
 }
@@ -10,11 +10,12 @@ import java.awt.*;
 
 /**
  * Represents the halo effect around the sun, enhancing the visual aesthetics
- * of the day-night cycle in the game. The halo dynamically follows the sun's
- * position in the sky.
+ * of the day-night cycle in the game. The halo follows the sun's path, reading its
+ * position from the same clock as the sun.
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see GameObject
+ * @see DayCycleClock
  */
 public class SunHalo {
 
@@ -25,16 +26,18 @@ public class SunHalo {
     /**
      * Creates the sun halo and sets its position and behavior to follow the sun.
      *
-     * @param sun The sun GameObject around which the halo is positioned.
+     * @param sun              The sun GameObject around which the halo is positioned.
+     * @param windowDimensions The dimensions of the game window, which determine the sun's path.
+     * @param clock            The day cycle's clock.
      * @return The created GameObject representing the sun halo.
      */
-    public static GameObject create(GameObject sun) {
+    public static GameObject create(GameObject sun, Vector2 windowDimensions, DayCycleClock clock) {
 
         Vector2 haloSize = sun.getDimensions().mult(HALO_SIZE_MULTIPLIER);
         GameObject sunHalo = new GameObject(Vector2.ZERO, haloSize ,new OvalRenderable(SUN_HALO_COLOR));
         sunHalo.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         sunHalo.setTag(PepseGameManager.SUN_HALO_TAG);
-        sunHalo.addComponent(deltaTime -> sunHalo.setCenter(sun.getCenter()));
+        sunHalo.addComponent(Sun.followSunPath(sunHalo, windowDimensions, clock));
         return sunHalo;
     }
 }
@@ -0,0 +1,61 @@
+package pepse.world.parallax;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.NoiseGenerator;
+import pepse.world.WorldContext;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the background's ranges of hills: far mountains, middle hills and near hills, each a
+ * {@link ParallaxLayer} with its own noise, scrolling slower the farther it is. Their ridges
+ * are drawn from noise seeded by the world's seed, so a world's background always looks the
+ * same. The tiles of every layer, of every world, are rendered ahead of time on a single shared
+ * thread, so that rendering them never competes with the game for more than one core.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see ParallaxLayer
+ */
+public class ParallaxBackground {
+
+    private static final float[] SCROLL_FACTORS = {0.1f, 0.25f, 0.45f};
+    private static final float[] BASE_HEIGHT_FACTORS = {0.42f, 0.52f, 0.6f};
+    private static final float[] AMPLITUDES = {160, 90, 60};
+    private static final int[] NOISE_SCALES = {512, 256, 128};
+    private static final Color[] COLORS = {new Color(122, 138, 178), new Color(92, 128, 124),
+            new Color(76, 118, 78)};
+    private static final int NOISE_SEED_OFFSET = 7919;
+    private static final ExecutorService TILE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "parallax-tiles");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates the background's layers.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param context          The world's context, whose seed shapes the hills.
+     * @param camera           The game object the camera follows, whose x scrolls the layers.
+     * @return The game objects of the layers, from the farthest to the nearest, each layer
+     * followed by its tile objects, to add to the game in this order.
+     */
+    public static List<GameObject> create(Vector2 windowDimensions, WorldContext context, GameObject camera) {
+        List<GameObject> gameObjects = new ArrayList<>();
+        for (int i = 0; i < SCROLL_FACTORS.length; i++) {
+            NoiseGenerator noise = new NoiseGenerator(context.getSeed() + NOISE_SEED_OFFSET * (i + 1),
+                    NOISE_SCALES[i]);
+            ParallaxLayer layer = new ParallaxLayer(windowDimensions, noise, SCROLL_FACTORS[i],
+                    windowDimensions.y() * BASE_HEIGHT_FACTORS[i], AMPLITUDES[i], COLORS[i], camera,
+                    TILE_EXECUTOR);
+            gameObjects.add(layer);
+            gameObjects.addAll(layer.getTileObjects());
+        }
+        return gameObjects;
+    }
+}
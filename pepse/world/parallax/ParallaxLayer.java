@@ -0,0 +1,271 @@
+package pepse.world.parallax;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.util.NoiseGenerator;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A layer of the background: a range of hills, whose ridge is drawn from its own noise, that
+ * scrolls at a fraction of the camera's speed. The layer is drawn in tiles of
+ * {@link #TILE_WIDTH} pixels, each rendered once into an image and kept in a cache of recently
+ * shown tiles. The layer shows its tiles through a fixed set of game objects, so scrolling it
+ * creates none, and tiles about to scroll into view are rendered ahead of time on a background
+ * executor so that they are ready when needed.
+ *
+ * The layer itself is an invisible game object, which moves its tiles when it is updated.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see ParallaxBackground
+ */
+public class ParallaxLayer extends GameObject {
+
+    /** The width, in pixels, of a tile. */
+    public static final int TILE_WIDTH = 256;
+
+    private static final int CACHE_CAPACITY = 24;
+    private static final int PREFETCH_TILES = 3;
+    private static final float MAX_NOISE_REACH = 2;
+    private static final int RIDGE_ROWS = 3;
+    private static final float RIDGE_BRIGHTNESS = 1.15f;
+    private static final int MAX_CHANNEL = 255;
+    private static final int ALPHA_SHIFT = 24;
+    private final NoiseGenerator noise;
+    private final float scrollFactor;
+    private final float baseHeight;
+    private final float amplitude;
+    private final int fillRgb;
+    private final int ridgeRgb;
+    private final int top;
+    private final int tileHeight;
+    private final GameObject camera;
+    private final ExecutorService executor;
+    private final List<GameObject> tileObjects = new ArrayList<>();
+    /*
+     * The tile shown by each tile object, or Integer.MIN_VALUE if none is yet.
+     */
+    private final int[] shownTiles;
+    private final Map<Integer, ImageRenderable> cache = new LinkedHashMap<>(CACHE_CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ImageRenderable> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    private final Map<Integer, Future<BufferedImage>> pending = new HashMap<>();
+    private int firstTile = Integer.MIN_VALUE;
+    private int direction;
+
+    /**
+     * Constructs a new layer.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param noise            The noise the layer's ridge is drawn from.
+     * @param scrollFactor     The fraction of the camera's speed at which the layer scrolls.
+     * @param baseHeight       The height, from the window's top, around which the ridge varies.
+     * @param amplitude        The scale of the ridge's variations.
+     * @param color            The color of the hills.
+     * @param camera           The game object the camera follows, whose x scrolls the layer.
+     * @param executor         The executor rendering tiles ahead of time.
+     */
+    public ParallaxLayer(Vector2 windowDimensions, NoiseGenerator noise, float scrollFactor,
+                         float baseHeight, float amplitude, Color color, GameObject camera,
+                         ExecutorService executor) {
+        super(Vector2.ZERO, Vector2.ZERO, null);
+        this.noise = noise;
+        this.scrollFactor = scrollFactor;
+        this.baseHeight = baseHeight;
+        this.amplitude = amplitude;
+        this.fillRgb = color.getRGB();
+        this.ridgeRgb = brighten(color, RIDGE_BRIGHTNESS).getRGB();
+        this.top = Math.max(0, (int) (baseHeight - MAX_NOISE_REACH * amplitude));
+        this.tileHeight = (int) windowDimensions.y() - top;
+        this.camera = camera;
+        this.executor = executor;
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        int slots = (int) Math.ceil(windowDimensions.x() / TILE_WIDTH) + 1;
+        this.shownTiles = new int[slots];
+        Vector2 tileDimensions = new Vector2(TILE_WIDTH, tileHeight);
+        for (int i = 0; i < slots; i++) {
+            GameObject tileObject = new GameObject(Vector2.ZERO, tileDimensions, null);
+            tileObject.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+            tileObjects.add(tileObject);
+            shownTiles[i] = Integer.MIN_VALUE;
+        }
+        scroll();
+    }
+
+    /**
+     * Returns the game objects showing the layer's tiles, to add to the game.
+     *
+     * @return The tile objects.
+     */
+    public List<GameObject> getTileObjects() {
+        return tileObjects;
+    }
+
+    /**
+     * Scrolls the layer to the camera's position.
+     *
+     * @param deltaTime Time elapsed since the last update.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        scroll();
+    }
+
+    /*
+     * Moves the tile objects to the camera's position, showing the tiles in view and rendering
+     * those ahead of the scroll direction in the background.
+     */
+    private void scroll() {
+        collectRenderedTiles();
+        float scrollX = camera.getTopLeftCorner().x() * scrollFactor;
+        int newFirstTile = (int) Math.floor(scrollX / TILE_WIDTH);
+        if (newFirstTile != firstTile) {
+            int newDirection = firstTile == Integer.MIN_VALUE ? 0 : Integer.signum(newFirstTile - firstTile);
+            firstTile = newFirstTile;
+            if (newDirection != 0) {
+                direction = newDirection;
+            }
+            prefetch();
+        }
+        for (int i = 0; i < shownTiles.length; i++) {
+            int tile = firstTile + i;
+            GameObject tileObject = tileObjects.get(i);
+            if (shownTiles[i] != tile) {
+                tileObject.renderer().setRenderable(tileRenderable(tile));
+                shownTiles[i] = tile;
+            }
+            tileObject.transform().setTopLeftCorner((float) tile * TILE_WIDTH - scrollX, top);
+        }
+    }
+
+    /*
+     * Requests the tiles just beyond the view in the scroll direction (both directions while
+     * the layer has not scrolled yet) that are neither cached nor being rendered.
+     */
+    private void prefetch() {
+        if (direction >= 0) {
+            for (int tile = firstTile + shownTiles.length; tile < firstTile + shownTiles.length + PREFETCH_TILES;
+                 tile++) {
+                request(tile);
+            }
+        }
+        if (direction <= 0) {
+            for (int tile = firstTile - PREFETCH_TILES; tile < firstTile; tile++) {
+                request(tile);
+            }
+        }
+    }
+
+    /*
+     * Starts rendering a tile in the background, unless it is cached or already being rendered.
+     */
+    private void request(int tile) {
+        if (!cache.containsKey(tile) && !pending.containsKey(tile)) {
+            pending.put(tile, executor.submit(() -> renderTile(tile)));
+        }
+    }
+
+    /*
+     * Moves the tiles rendered in the background into the cache.
+     */
+    private void collectRenderedTiles() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<Integer, Future<BufferedImage>>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Future<BufferedImage>> entry = iterator.next();
+            if (entry.getValue().isDone()) {
+                cache.put(entry.getKey(), new ImageRenderable(awaitTile(entry.getKey(), entry.getValue())));
+                iterator.remove();
+            }
+        }
+    }
+
+    /*
+     * Returns the renderable of a tile about to be shown. A tile that is not ready yet, which
+     * only happens when the layer scrolls faster than the tiles are rendered, is waited for if
+     * it is being rendered and rendered right away otherwise.
+     */
+    private ImageRenderable tileRenderable(int tile) {
+        ImageRenderable renderable = cache.get(tile);
+        if (renderable == null) {
+            Future<BufferedImage> future = pending.remove(tile);
+            renderable = new ImageRenderable(future != null ? awaitTile(tile, future) : renderTile(tile));
+            cache.put(tile, renderable);
+        }
+        return renderable;
+    }
+
+    /*
+     * Returns the image a future renders, rendering the tile here if waiting is interrupted.
+     */
+    private BufferedImage awaitTile(int tile, Future<BufferedImage> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return renderTile(tile);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to render background tile " + tile, e.getCause());
+        }
+    }
+
+    /*
+     * Renders a tile: the hills below the ridge, the ridge's top pixel blended by how much of it
+     * the hills cover, and a few brighter rows along the ridge. Only reads immutable state, so
+     * it can run on any thread.
+     */
+    private BufferedImage renderTile(int tile) {
+        int[] pixels = new int[TILE_WIDTH * tileHeight];
+        for (int x = 0; x < TILE_WIDTH; x++) {
+            double layerX = (double) tile * TILE_WIDTH + x;
+            float ridge = baseHeight + (float) noise.noise(layerX, amplitude) - top;
+            int ridgeRow = (int) Math.floor(ridge);
+            float coverage = 1 - (ridge - ridgeRow);
+            for (int y = Math.max(0, ridgeRow); y < tileHeight; y++) {
+                int rgb = y < ridgeRow + RIDGE_ROWS ? ridgeRgb : fillRgb;
+                if (y == ridgeRow) {
+                    rgb = withAlpha(rgb, coverage);
+                }
+                pixels[y * TILE_WIDTH + x] = rgb;
+            }
+        }
+        BufferedImage image = new BufferedImage(TILE_WIDTH, tileHeight, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, TILE_WIDTH, tileHeight, pixels, 0, TILE_WIDTH);
+        return image;
+    }
+
+    /*
+     * Returns an opaque color with its alpha replaced by the given opacity.
+     */
+    private static int withAlpha(int argb, float opacity) {
+        int alpha = Math.round(opacity * MAX_CHANNEL);
+        return (alpha << ALPHA_SHIFT) | (argb & ((1 << ALPHA_SHIFT) - 1));
+    }
+
+    /*
+     * Brightens a color by a factor, clamping its channels.
+     */
+    private static Color brighten(Color color, float factor) {
+        return new Color(Math.min(MAX_CHANNEL, Math.round(color.getRed() * factor)),
+                Math.min(MAX_CHANNEL, Math.round(color.getGreen() * factor)),
+                Math.min(MAX_CHANNEL, Math.round(color.getBlue() * factor)));
+    }
+}
@@ -0,0 +1,145 @@
+package pepse.world.physics;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.PepseGameManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the avatar's contacts with the world's static objects through a {@link SpatialHash},
+ * in place of danogl's checks of every pair of objects in colliding layers. Once per tick,
+ * after the objects moved, the avatar is pushed out of the ground and trunk blocks it sank
+ * into, along the axis of least penetration, and its velocity into them is stopped. Then the
+ * avatar and every object it started touching this tick are notified through
+ * {@link GameObject#onCollisionEnter}, and the objects it stopped touching through
+ * {@link GameObject#onCollisionExit}, as danogl would notify them. The collisions passed are
+ * null, since neither the avatar nor the fruit read them.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see SpatialHash
+ */
+public class AvatarContacts {
+
+    // How far apart, in pixels, the avatar and an object may be and still touch
+    private static final float CONTACT_EPSILON = 0.01f;
+    private final SpatialHash spatialHash;
+    private final GameObject avatar;
+    private final List<GameObject> nearby = new ArrayList<>();
+    private Set<GameObject> contacts = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Set<GameObject> previousContacts = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Constructs the avatar's contacts.
+     *
+     * @param spatialHash The spatial hash holding the objects the avatar can touch.
+     * @param avatar      The avatar.
+     */
+    public AvatarContacts(SpatialHash spatialHash, GameObject avatar) {
+        this.spatialHash = spatialHash;
+        this.avatar = avatar;
+    }
+
+    /**
+     * Resolves the avatar's penetration into solid objects and notifies the contacts that
+     * started and ended since the last update.
+     */
+    public void update() {
+        collectNearby();
+        for (int i = 0; i < nearby.size(); i++) {
+            GameObject other = nearby.get(i);
+            if (isSolid(other)) {
+                pushOut(other);
+            }
+        }
+        Set<GameObject> emptySet = previousContacts;
+        previousContacts = contacts;
+        contacts = emptySet;
+        collectNearby();
+        for (int i = 0; i < nearby.size(); i++) {
+            GameObject other = nearby.get(i);
+            if (touches(other) && contacts.add(other) && !previousContacts.remove(other)) {
+                avatar.onCollisionEnter(other, null);
+                other.onCollisionEnter(avatar, null);
+            }
+        }
+        // the last update's contacts that are left have ended
+        for (GameObject other : previousContacts) {
+            avatar.onCollisionExit(other);
+            other.onCollisionExit(avatar);
+        }
+        previousContacts.clear();
+    }
+
+    /*
+     * Collects the objects registered in the cells the avatar overlaps or touches.
+     */
+    private void collectNearby() {
+        nearby.clear();
+        Vector2 topLeft = avatar.getTopLeftCorner();
+        Vector2 dimensions = avatar.getDimensions();
+        spatialHash.forEachNear(topLeft.x(), topLeft.y(), topLeft.x() + dimensions.x(),
+                topLeft.y() + dimensions.y(), nearby::add);
+    }
+
+    /*
+     * Tells whether an object stops the avatar, as ground and trunk blocks do.
+     */
+    private static boolean isSolid(GameObject other) {
+        String tag = other.getTag();
+        return PepseGameManager.GROUND_TAG.equals(tag) || PepseGameManager.TREE_TRUNK_TAG.equals(tag);
+    }
+
+    /*
+     * Pushes the avatar out of a solid object it sank into, along the axis it sank less into,
+     * stopping its velocity towards the object on that axis.
+     */
+    private void pushOut(GameObject other) {
+        Vector2 topLeft = avatar.getTopLeftCorner();
+        Vector2 dimensions = avatar.getDimensions();
+        Vector2 otherTopLeft = other.getTopLeftCorner();
+        Vector2 otherDimensions = other.getDimensions();
+        float overlapX = Math.min(topLeft.x() + dimensions.x(), otherTopLeft.x() + otherDimensions.x())
+                - Math.max(topLeft.x(), otherTopLeft.x());
+        float overlapY = Math.min(topLeft.y() + dimensions.y(), otherTopLeft.y() + otherDimensions.y())
+                - Math.max(topLeft.y(), otherTopLeft.y());
+        if (overlapX <= 0 || overlapY <= 0) {
+            return;
+        }
+        Vector2 velocity = avatar.getVelocity();
+        if (overlapY <= overlapX) {
+            boolean above = topLeft.y() + dimensions.y() / 2 < otherTopLeft.y() + otherDimensions.y() / 2;
+            avatar.setTopLeftCorner(new Vector2(topLeft.x(), topLeft.y() + (above ? -overlapY : overlapY)));
+            if (above ? velocity.y() > 0 : velocity.y() < 0) {
+                avatar.transform().setVelocityY(0);
+            }
+        } else {
+            boolean left = topLeft.x() + dimensions.x() / 2 < otherTopLeft.x() + otherDimensions.x() / 2;
+            avatar.setTopLeftCorner(new Vector2(topLeft.x() + (left ? -overlapX : overlapX), topLeft.y()));
+            if (left ? velocity.x() > 0 : velocity.x() < 0) {
+                avatar.transform().setVelocityX(0);
+            }
+        }
+    }
+
+    /*
+     * Tells whether the avatar overlaps an object or touches one of its sides, not only one of
+     * its corners.
+     */
+    private boolean touches(GameObject other) {
+        Vector2 topLeft = avatar.getTopLeftCorner();
+        Vector2 dimensions = avatar.getDimensions();
+        Vector2 otherTopLeft = other.getTopLeftCorner();
+        Vector2 otherDimensions = other.getDimensions();
+        float overlapX = Math.min(topLeft.x() + dimensions.x(), otherTopLeft.x() + otherDimensions.x())
+                - Math.max(topLeft.x(), otherTopLeft.x());
+        float overlapY = Math.min(topLeft.y() + dimensions.y(), otherTopLeft.y() + otherDimensions.y())
+                - Math.max(topLeft.y(), otherTopLeft.y());
+        return overlapX >= -CONTACT_EPSILON && overlapY >= -CONTACT_EPSILON
+                && (overlapX > CONTACT_EPSILON || overlapY > CONTACT_EPSILON);
+    }
+}
@@ -0,0 +1,203 @@
+package pepse.world.physics;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.Block;
+import pepse.world.Terrain;
+
+/**
+ * Moves a game object through the terrain's grid of cells with a swept bounding box, instead
+ * of colliding it with ground blocks. Once per tick, after the object moved by its velocity,
+ * its move is replayed from where it was: first along x and then along y, each axis stopping
+ * at the first solid cell the box's leading edge would enter, however far the move goes, so a
+ * fast fall can not pass through the ground. Whether a cell is solid is read from the
+ * terrain's cached column heights and solid cell masks, with its edits applied, so no ground
+ * block game object is needed for collision.
+ *
+ * Landing is detected exactly, as the tick in which a downward move is stopped, and is
+ * reported through a callback once per landing. Whether the object stands on the ground is a
+ * lookup of the cells under its bottom edge.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Terrain#isSolid(int, int)
+ */
+public class KinematicController {
+
+    // The most rows an object found inside solid cells is lifted by in a single tick
+    private static final int MAX_UNSTICK_ROWS = 4;
+    private final GameObject gameObject;
+    private final Terrain terrain;
+    private final Runnable onLanding;
+    private float previousX;
+    private float previousY;
+    private boolean grounded;
+
+    /**
+     * Constructs a controller for a game object at its current position.
+     *
+     * @param gameObject The controlled game object.
+     * @param terrain    The terrain it moves through.
+     * @param onLanding  Called in every tick in which the object lands on a solid cell after
+     *                   being off the ground.
+     */
+    public KinematicController(GameObject gameObject, Terrain terrain, Runnable onLanding) {
+        this.gameObject = gameObject;
+        this.terrain = terrain;
+        this.onLanding = onLanding;
+        this.previousX = gameObject.getTopLeftCorner().x();
+        this.previousY = gameObject.getTopLeftCorner().y();
+    }
+
+    /**
+     * Replays the object's move since the last update against the terrain, stopping it at the
+     * solid cells it would have entered and stopping its velocity towards them.
+     */
+    public void update() {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        float width = gameObject.getDimensions().x();
+        float height = gameObject.getDimensions().y();
+        float moveX = topLeft.x() - previousX;
+        float moveY = topLeft.y() - previousY;
+        float x = previousX;
+        float y = unstick(previousX, previousY, width, height);
+        float sweptX = sweepX(x, y, width, height, moveX);
+        if (sweptX != x + moveX) {
+            gameObject.transform().setVelocityX(0);
+        }
+        x = sweptX;
+        float sweptY = sweepY(x, y, width, height, moveY);
+        if (sweptY != y + moveY) {
+            gameObject.transform().setVelocityY(0);
+            if (moveY > 0 && !grounded) {
+                onLanding.run();
+            }
+        }
+        y = sweptY;
+        if (x != topLeft.x() || y != topLeft.y()) {
+            gameObject.setTopLeftCorner(new Vector2(x, y));
+        }
+        previousX = x;
+        previousY = y;
+        grounded = isGrounded();
+    }
+
+    /**
+     * Tells whether the object stands on a solid cell.
+     *
+     * @return true if a solid cell is right under the object's bottom edge.
+     */
+    public boolean isGrounded() {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        float bottom = topLeft.y() + dimensions.y();
+        int rowBelow = firstCell(bottom);
+        return rowBelow * Block.SIZE == bottom && anySolidInRow(topLeft.x(), dimensions.x(), rowBelow);
+    }
+
+    /*
+     * Moves a box along x from its left edge, through the columns its leading edge enters,
+     * returning where its left edge stops.
+     */
+    private float sweepX(float x, float y, float width, float height, float moveX) {
+        int firstRow = firstCell(y);
+        int lastRow = lastCell(y + height);
+        if (moveX > 0) {
+            for (int column = lastCell(x + width) + 1; column * Block.SIZE < x + width + moveX; column++) {
+                if (anySolidInColumn(column, firstRow, lastRow)) {
+                    return column * Block.SIZE - width;
+                }
+            }
+        } else if (moveX < 0) {
+            for (int column = firstCell(x) - 1; (column + 1) * Block.SIZE > x + moveX; column--) {
+                if (anySolidInColumn(column, firstRow, lastRow)) {
+                    return (column + 1) * Block.SIZE;
+                }
+            }
+        }
+        return x + moveX;
+    }
+
+    /*
+     * Moves a box along y from its top edge, through the rows its leading edge enters,
+     * returning where its top edge stops.
+     */
+    private float sweepY(float x, float y, float width, float height, float moveY) {
+        if (moveY > 0) {
+            for (int row = lastCell(y + height) + 1; row * Block.SIZE < y + height + moveY; row++) {
+                if (anySolidInRow(x, width, row)) {
+                    return row * Block.SIZE - height;
+                }
+            }
+        } else if (moveY < 0) {
+            for (int row = firstCell(y) - 1; (row + 1) * Block.SIZE > y + moveY; row--) {
+                if (anySolidInRow(x, width, row)) {
+                    return (row + 1) * Block.SIZE;
+                }
+            }
+        }
+        return y + moveY;
+    }
+
+    /*
+     * Lifts a box found inside solid cells, e.g. where it was placed over the ground or where a
+     * block was placed in it, onto the top of the cells, returning its top edge.
+     */
+    private float unstick(float x, float y, float width, float height) {
+        for (int i = 0; i < MAX_UNSTICK_ROWS && overlapsSolid(x, y, width, height); i++) {
+            y = lastCell(y + height) * Block.SIZE - height;
+        }
+        return y;
+    }
+
+    /*
+     * Tells whether a box overlaps a solid cell.
+     */
+    private boolean overlapsSolid(float x, float y, float width, float height) {
+        int lastRow = lastCell(y + height);
+        for (int row = firstCell(y); row <= lastRow; row++) {
+            if (anySolidInRow(x, width, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Tells whether any cell of a row under a horizontal span is solid.
+     */
+    private boolean anySolidInRow(float x, float width, int row) {
+        int lastColumn = lastCell(x + width);
+        for (int column = firstCell(x); column <= lastColumn; column++) {
+            if (terrain.isSolid(column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Tells whether any cell of a column within a range of rows is solid.
+     */
+    private boolean anySolidInColumn(int column, int firstRow, int lastRow) {
+        for (int row = firstRow; row <= lastRow; row++) {
+            if (terrain.isSolid(column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns the cell containing a coordinate.
+     */
+    private static int firstCell(float start) {
+        return (int) Math.floor(start / Block.SIZE);
+    }
+
+    /*
+     * Returns the last cell overlapped by a span ending at a coordinate.
+     */
+    private static int lastCell(float end) {
+        return (int) Math.ceil(end / Block.SIZE) - 1;
+    }
+}
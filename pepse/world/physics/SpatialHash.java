@@ -0,0 +1,237 @@
+package pepse.world.physics;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A uniform grid over the world, of cells the size of a {@link Block}, holding the game
+ * objects that the avatar can touch. An object is registered into every cell it overlaps when
+ * it is loaded and leaves them when it is unloaded, so finding the objects near a box costs a
+ * lookup per cell the box overlaps, however many objects are loaded.
+ *
+ * The occupied cells are kept in an open-addressing hash table keyed by the cell's column and
+ * row packed into a long, with linear probing and backward-shift deletion, so lookups allocate
+ * nothing. Registered objects are assumed not to move while registered.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see AvatarContacts
+ */
+public class SpatialHash {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_LOAD_DIVIDER = 2;
+    private static final int ROW_BITS = 32;
+    private static final long ROW_MASK = 0xFFFFFFFFL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private static final long MIX_MULTIPLIER_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94D049BB133111EBL;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private List<?>[] cells = new List<?>[INITIAL_CAPACITY];
+    private int occupiedCells;
+    private int objectCount;
+
+    /**
+     * Registers a game object into the cells it overlaps.
+     *
+     * @param gameObject The game object.
+     */
+    public void insert(GameObject gameObject) {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 bottomRight = topLeft.add(gameObject.getDimensions());
+        int lastColumn = lastCellOf(bottomRight.x());
+        int lastRow = lastCellOf(bottomRight.y());
+        for (int column = cellOf(topLeft.x()); column <= lastColumn; column++) {
+            for (int row = cellOf(topLeft.y()); row <= lastRow; row++) {
+                cellObjects(column, row).add(gameObject);
+            }
+        }
+        objectCount++;
+    }
+
+    /**
+     * Removes a game object from the cells it was registered into. Does nothing if it was not
+     * registered.
+     *
+     * @param gameObject The game object.
+     */
+    public void remove(GameObject gameObject) {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 bottomRight = topLeft.add(gameObject.getDimensions());
+        int lastColumn = lastCellOf(bottomRight.x());
+        int lastRow = lastCellOf(bottomRight.y());
+        boolean removed = false;
+        for (int column = cellOf(topLeft.x()); column <= lastColumn; column++) {
+            for (int row = cellOf(topLeft.y()); row <= lastRow; row++) {
+                int slot = find(key(column, row));
+                if (slot < 0) {
+                    continue;
+                }
+                List<?> objects = cells[slot];
+                removed |= objects.remove(gameObject);
+                if (objects.isEmpty()) {
+                    delete(slot);
+                }
+            }
+        }
+        if (removed) {
+            objectCount--;
+        }
+    }
+
+    /**
+     * Visits the objects registered in the cells that a box overlaps or touches. An object
+     * registered in several of these cells is visited once for each of them.
+     *
+     * @param minX    The box's left edge.
+     * @param minY    The box's top edge.
+     * @param maxX    The box's right edge.
+     * @param maxY    The box's bottom edge.
+     * @param visitor Called with every object found.
+     */
+    public void forEachNear(float minX, float minY, float maxX, float maxY, Consumer<GameObject> visitor) {
+        int lastColumn = cellOf(maxX);
+        int lastRow = cellOf(maxY);
+        for (int column = cellOf(minX); column <= lastColumn; column++) {
+            for (int row = cellOf(minY); row <= lastRow; row++) {
+                int slot = find(key(column, row));
+                if (slot < 0) {
+                    continue;
+                }
+                List<?> objects = cells[slot];
+                for (int i = 0; i < objects.size(); i++) {
+                    visitor.accept((GameObject) objects.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of registered objects.
+     *
+     * @return The number of registered objects.
+     */
+    public int size() {
+        return objectCount;
+    }
+
+    /**
+     * Returns the number of cells holding at least one object.
+     *
+     * @return The number of occupied cells.
+     */
+    public int occupiedCells() {
+        return occupiedCells;
+    }
+
+    /*
+     * Returns the list of objects of a cell, occupying the cell if it is empty.
+     */
+    @SuppressWarnings("unchecked")
+    private List<GameObject> cellObjects(int column, int row) {
+        long key = key(column, row);
+        int slot = find(key);
+        if (slot >= 0) {
+            return (List<GameObject>) cells[slot];
+        }
+        if ((occupiedCells + 1) * MAX_LOAD_DIVIDER > keys.length) {
+            grow();
+        }
+        slot = ~find(key);
+        List<GameObject> objects = new ArrayList<>(1);
+        keys[slot] = key;
+        cells[slot] = objects;
+        occupiedCells++;
+        return objects;
+    }
+
+    /*
+     * Returns the slot of a key, or the complement of the empty slot where it would be put.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (cells[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /*
+     * Empties a slot, shifting back the entries after it that would no longer be found.
+     */
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (cells[next] != null) {
+            int home = (int) mix(keys[next]) & mask;
+            // the entry can fill the hole if its home is not cyclically within (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                cells[hole] = cells[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        cells[hole] = null;
+        occupiedCells--;
+    }
+
+    /*
+     * Doubles the table's capacity, reinserting its entries.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        List<?>[] oldCells = cells;
+        keys = new long[oldKeys.length * 2];
+        cells = new List<?>[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCells[i] != null) {
+                int slot = ~find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                cells[slot] = oldCells[i];
+            }
+        }
+    }
+
+    /*
+     * Returns the cell containing a coordinate.
+     */
+    private static int cellOf(float coordinate) {
+        return (int) Math.floor(coordinate / Block.SIZE);
+    }
+
+    /*
+     * Returns the last cell overlapped by a box ending at a coordinate, not counting the cell
+     * it merely touches.
+     */
+    private static int lastCellOf(float end) {
+        return (int) Math.ceil(end / Block.SIZE) - 1;
+    }
+
+    /*
+     * Packs a cell's column and row into a key.
+     */
+    private static long key(int column, int row) {
+        return ((long) column << ROW_BITS) | (row & ROW_MASK);
+    }
+
+    /*
+     * Scrambles the bits of a key (the SplitMix64 finalizer).
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        value = (value ^ (value >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+        return value ^ (value >>> MIX_SHIFT_3);
+    }
+}
@@ -0,0 +1,54 @@
+package pepse.world.stats;
+
+/**
+ * The stats a {@link StatEngine} keeps, with their ranges and initial values. A new stat
+ * (such as health or stamina) is added as a new constant; the engine sizes its arrays by the
+ * number of stats and needs no other change.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see StatEngine
+ */
+public enum Stat {
+    /** The energy spent on running and jumping and regained by resting and eating fruit. */
+    ENERGY(0, 100, 100);
+
+    private final float min;
+    private final float max;
+    private final float initial;
+
+    /*
+     * Constructs a stat of the given range and initial value.
+     */
+    Stat(float min, float max, float initial) {
+        this.min = min;
+        this.max = max;
+        this.initial = initial;
+    }
+
+    /**
+     * Returns the stat's lowest value.
+     *
+     * @return The stat's minimum.
+     */
+    public float getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the stat's highest value.
+     *
+     * @return The stat's maximum.
+     */
+    public float getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the stat's value when its engine is created.
+     *
+     * @return The stat's initial value.
+     */
+    public float getInitial() {
+        return initial;
+    }
+}
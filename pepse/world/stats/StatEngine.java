@@ -0,0 +1,152 @@
+package pepse.world.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the values of an entity's {@link Stat}s in primitive arrays indexed by the stat.
+ * Changes are not applied as they are made: they are accumulated as modifiers during a tick
+ * and applied together by {@link #apply()}, once per tick, which clamps every stat once to its
+ * range. Listeners are notified only when a stat's displayed value, its value rounded down,
+ * actually changes, so that whatever shows a stat does no work while it stays the same.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Stat
+ * @see StatListener
+ */
+public class StatEngine {
+
+    private static final Stat[] STATS = Stat.values();
+    private final float[] values = new float[STATS.length];
+    private final float[] pending = new float[STATS.length];
+    private final int[] displayed = new int[STATS.length];
+    private final List<List<StatListener>> listeners = new ArrayList<>();
+
+    /**
+     * Constructs an engine with every stat at its initial value.
+     */
+    public StatEngine() {
+        for (Stat stat : STATS) {
+            values[stat.ordinal()] = stat.getInitial();
+            displayed[stat.ordinal()] = displayedValueOf(stat.getInitial());
+            listeners.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds a modifier to a stat, applied with the tick's other modifiers by {@link #apply()}.
+     *
+     * @param stat   The stat.
+     * @param amount The amount to add, negative to subtract.
+     */
+    public void add(Stat stat, float amount) {
+        pending[stat.ordinal()] += amount;
+    }
+
+    /**
+     * Applies the modifiers added since the last call, clamps the stats to their ranges and
+     * notifies the listeners of the stats whose displayed value changed.
+     */
+    public void apply() {
+        for (int i = 0; i < STATS.length; i++) {
+            if (pending[i] != 0) {
+                values[i] = clamp(STATS[i], values[i] + pending[i]);
+                pending[i] = 0;
+                publish(i);
+            }
+        }
+    }
+
+    /**
+     * Sets a stat right away, e.g. when restoring a saved game, dropping its pending modifiers.
+     *
+     * @param stat  The stat.
+     * @param value The value, clamped to the stat's range.
+     */
+    public void set(Stat stat, float value) {
+        values[stat.ordinal()] = clamp(stat, value);
+        pending[stat.ordinal()] = 0;
+        publish(stat.ordinal());
+    }
+
+    /**
+     * Returns a stat's value as of the last {@link #apply()}.
+     *
+     * @param stat The stat.
+     * @return The stat's value.
+     */
+    public float get(Stat stat) {
+        return values[stat.ordinal()];
+    }
+
+    /**
+     * Returns the value a stat would have if its modifiers were applied now, before clamping.
+     * Used to tell whether an action that costs some of a stat can still be afforded within
+     * the tick.
+     *
+     * @param stat The stat.
+     * @return The stat's value with its pending modifiers.
+     */
+    public float projected(Stat stat) {
+        return values[stat.ordinal()] + pending[stat.ordinal()];
+    }
+
+    /**
+     * Returns a stat's displayed value, its value rounded down.
+     *
+     * @param stat The stat.
+     * @return The stat's displayed value.
+     */
+    public int getDisplayed(Stat stat) {
+        return displayed[stat.ordinal()];
+    }
+
+    /**
+     * Adds a listener notified whenever a stat's displayed value changes.
+     *
+     * @param stat     The stat.
+     * @param listener The listener.
+     */
+    public void addListener(Stat stat, StatListener listener) {
+        listeners.get(stat.ordinal()).add(listener);
+    }
+
+    /**
+     * Removes a listener of a stat.
+     *
+     * @param stat     The stat.
+     * @param listener The listener.
+     */
+    public void removeListener(Stat stat, StatListener listener) {
+        listeners.get(stat.ordinal()).remove(listener);
+    }
+
+    /*
+     * Notifies the listeners of a stat if its displayed value changed.
+     */
+    private void publish(int index) {
+        int value = displayedValueOf(values[index]);
+        if (value == displayed[index]) {
+            return;
+        }
+        displayed[index] = value;
+        List<StatListener> statListeners = listeners.get(index);
+        for (int i = 0; i < statListeners.size(); i++) {
+            statListeners.get(i).displayedValueChanged(STATS[index], value);
+        }
+    }
+
+    /*
+     * Clamps a value to a stat's range.
+     */
+    private static float clamp(Stat stat, float value) {
+        return Math.max(stat.getMin(), Math.min(value, stat.getMax()));
+    }
+
+    /*
+     * Returns the displayed value of a stat's value.
+     */
+    private static int displayedValueOf(float value) {
+        return (int) Math.floor(value);
+    }
+}
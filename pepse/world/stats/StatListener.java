@@ -0,0 +1,19 @@
+package pepse.world.stats;
+
+/**
+ * Interface for objects that show a stat, notified only when the stat's displayed value
+ * changes.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see StatEngine
+ */
+@FunctionalInterface
+public interface StatListener {
+    /**
+     * Called when a stat's displayed value changes.
+     *
+     * @param stat  The stat.
+     * @param value The stat's new displayed value, its value rounded down.
+     */
+    void displayedValueChanged(Stat stat, int value);
+}
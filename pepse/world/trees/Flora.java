@@ -2,13 +2,11 @@ package pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.util.Vector2;
-import pepse.PepseGameManager;
 import pepse.world.Block;
+import pepse.world.WorldContext;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Random;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -16,7 +14,8 @@ import java.util.function.Function;
 /**
  * Responsible for generating trees within a given range.
  * Each tree's placement and characteristics are determined
- * pseudo-randomly and consistently for a given seed.
+ * pseudo-randomly and consistently for a given seed, and trees are denser in some biomes
+ * than in others.
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see GameObject
@@ -25,11 +24,12 @@ import java.util.function.Function;
  */
 public class Flora {
 
-    private static final float TREE_PROBABILITY = 0.05f;
     private final Function<Float, Float> groundHeightAtFunc;
     private final BiConsumer<GameObject, Integer> addFunc;
     private final BiConsumer<GameObject, Integer> removeFunc;
     private final Consumer<Float> addEnergyFunc;
+    private final FruitTracker fruitTracker;
+    private final WorldContext context;
 
     /**
      * Constructs a new instance of the Flora system.
@@ -38,14 +38,18 @@ public class Flora {
      * @param addFunc A consumer that adds a GameObject to a specific layer.
      * @param removeFunc A consumer that removes a GameObject from a specific layer.
      * @param addEnergyFunc A consumer that adds energy to the avatar when interacting with certain objects.
+     * @param fruitTracker Keeps track of eaten fruits, so that regenerated trees keep them eaten.
+     * @param context The context of the world the flora grows in.
      */
     public Flora(Function<Float, Float> groundHeightAt, BiConsumer<GameObject, Integer> addFunc,
-                 BiConsumer<GameObject, Integer> removeFunc, Consumer<Float> addEnergyFunc) {
+                 BiConsumer<GameObject, Integer> removeFunc, Consumer<Float> addEnergyFunc,
+                 FruitTracker fruitTracker, WorldContext context) {
         this.groundHeightAtFunc = groundHeightAt;
         this.addFunc = addFunc;
         this.removeFunc = removeFunc;
         this.addEnergyFunc = addEnergyFunc;
-
+        this.fruitTracker = fruitTracker;
+        this.context = context;
     }
 
     /**
@@ -62,15 +66,27 @@ public class Flora {
         int minXAdjusted = (int) (Math.floor((float) minX / Block.SIZE) * Block.SIZE);
         int maxXAdjusted = (int) (Math.floor((float) maxX / Block.SIZE) * Block.SIZE);
         for (int x = minXAdjusted; x <= maxXAdjusted; x += Block.SIZE) {
-            Random treeRandom = new Random(Objects.hash(x, PepseGameManager.seed));
-            if (treeRandom.nextFloat() < TREE_PROBABILITY) {
+            if (hasTreeAt(x, this.context)) {
                 float groundHeight = this.groundHeightAtFunc.apply((float) x);
                 Tree tree = new Tree(new Vector2(x, groundHeight), this.addFunc,
-                        this.removeFunc, this.addEnergyFunc);
+                        this.removeFunc, this.addEnergyFunc, this.fruitTracker, this.context);
                 trees.add(tree.createTree());
             }
         }
         return trees;
     }
 
+    /**
+     * Tells whether a tree grows at the given x coordinate, by the tree density of the biome
+     * there. Depends only on the coordinate and the world's seed, and creates no game objects.
+     *
+     * @param x       The x coordinate, a multiple of the block size.
+     * @param context The context of the world.
+     * @return true if a tree grows at x.
+     */
+    public static boolean hasTreeAt(int x, WorldContext context) {
+        return context.newRandom(x).nextFloat() <
+                context.getBiomeMap().treeProbabilityAt(Math.floorDiv(x, Block.SIZE));
+    }
+
 }
@@ -28,29 +28,60 @@ public class Fruit extends GameObject {
      * the fruits size
      */
     public static final float FRUIT_SIZE = Block.SIZE * 0.8f;
-    private static final Color FRUIT_COLOR = Color.BLUE;
+    /**
+     * the fruits color
+     */
+    public static final Color FRUIT_COLOR = Color.BLUE;
     private static final float FRUIT_ENERGY = 10f;
     private static final int VISIBLE_VALUE = 1000;
     private final BiConsumer<GameObject, Integer> addFunc;
     private final BiConsumer<GameObject, Integer> removeFunc;
     private final Consumer<Float> addEnergyFunc;
+    private final FruitTracker fruitTracker;
+    private final int column;
+    private final int fruitIndex;
+    private boolean eaten;
 
     /**
-     * Constructs a new Fruit instance.
+     * Constructs a new Fruit instance. A fruit that was eaten and has not grown back yet
+     * (according to the fruit tracker) is created eaten, and should be added to the
+     * background layer.
      *
      * @param topLeftCorner The top-left corner of the fruit's position, in window coordinates.
+     * @param column The column of the fruit's tree.
+     * @param fruitIndex The index of the fruit within its tree.
      * @param addFunc A function to add the fruit to a specified layer.
      * @param removeFunc A function to remove the fruit from a specified layer.
      * @param addEnergyFunc A function to add energy to the avatar upon collision with the fruit.
+     * @param fruitTracker Keeps track of eaten fruits.
      *
      */
-    public Fruit(Vector2 topLeftCorner, BiConsumer<GameObject, Integer> addFunc,
-                 BiConsumer<GameObject, Integer> removeFunc, Consumer<Float> addEnergyFunc) {
+    public Fruit(Vector2 topLeftCorner, int column, int fruitIndex, BiConsumer<GameObject, Integer> addFunc,
+                 BiConsumer<GameObject, Integer> removeFunc, Consumer<Float> addEnergyFunc,
+                 FruitTracker fruitTracker) {
         super(topLeftCorner, new Vector2(FRUIT_SIZE, FRUIT_SIZE), new OvalRenderable(FRUIT_COLOR));
         this.addFunc = addFunc;
         this.removeFunc = removeFunc;
         this.addEnergyFunc = addEnergyFunc;
+        this.fruitTracker = fruitTracker;
+        this.column = column;
+        this.fruitIndex = fruitIndex;
         this.setTag(PepseGameManager.FRUIT_TAG);
+        float respawnDelay = fruitTracker.respawnDelay(column, fruitIndex);
+        if (respawnDelay > 0) {
+            this.eaten = true;
+            this.renderer().setOpaqueness(0);
+            new ScheduledTask(this, respawnDelay, false, this::addFruitBack);
+        }
+    }
+
+    /**
+     * Returns whether the fruit is eaten and waiting to grow back.
+     *
+     * @return true if the fruit is eaten.
+     */
+    public boolean isEaten() {
+        return eaten;
     }
 
     /**
@@ -64,8 +95,10 @@ public class Fruit extends GameObject {
      */
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
-        if(other.getTag().equals(PepseGameManager.AVATAR_TAG)) {
+        if(other.getTag().equals(PepseGameManager.AVATAR_TAG) && !eaten) {
             super.onCollisionEnter(other, collision);
+            this.eaten = true;
+            fruitTracker.fruitEaten(column, fruitIndex);
             //remove fruit - make invisible
             this.removeFunc.accept(this, PepseGameManager.FRUIT_LAYER);
             this.addFunc.accept(this, Layer.BACKGROUND);
@@ -85,5 +118,6 @@ public class Fruit extends GameObject {
         this.removeFunc.accept(this, Layer.BACKGROUND);
         this.addFunc.accept(this, PepseGameManager.FRUIT_LAYER);
         this.renderer().setOpaqueness(VISIBLE_VALUE);
+        this.eaten = false;
     }
 }
@@ -0,0 +1,28 @@
+package pepse.world.trees;
+
+/**
+ * Interface for keeping track of eaten fruits, so that a fruit which is unloaded and created
+ * again keeps its state. Fruits are identified by the column of their tree and their index
+ * within it.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Fruit
+ */
+public interface FruitTracker {
+    /**
+     * Returns how long until a fruit grows back.
+     *
+     * @param column     The column of the fruit's tree.
+     * @param fruitIndex The index of the fruit within its tree.
+     * @return The time, in seconds, until the fruit grows back, or 0 if it is not eaten.
+     */
+    float respawnDelay(int column, int fruitIndex);
+
+    /**
+     * Called when a fruit is eaten.
+     *
+     * @param column     The column of the fruit's tree.
+     * @param fruitIndex The index of the fruit within its tree.
+     */
+    void fruitEaten(int column, int fruitIndex);
+}
@@ -24,7 +24,10 @@ import java.util.Random;
  */
 public class Leaf extends GameObject {
 
-    private static final Color LEAF_COLOR = new Color(50, 200, 30);
+    /**
+     * The base color of the leaves.
+     */
+    public static final Color LEAF_COLOR = new Color(50, 200, 30);
     private static final float MAX_RANDOM_DELAY = 2f;
     private static final float ANGLE_MIN = -20f;
     private static final float ANGLE_MAX = 20f;
@@ -2,43 +2,39 @@ package pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.util.Vector2;
-import pepse.PepseGameManager;
 import pepse.world.Block;
+import pepse.world.WorldContext;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Random;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
  * Represents a tree in the game world. A tree consists of a trunk, leaves, and optionally fruits.
- * Trees are procedurally generated with consistent randomness based on their location.
+ * Trees are procedurally generated with consistent randomness based on their location: the
+ * tree's {@link TreeLayout} is generated first and its game objects are then built from it.
  *
  * @author Ronnie Rozanski and Gilly Sraya
  * @see GameObject
  * @see Leaf
  * @see Fruit
  * @see TreeTrunk
+ * @see TreeLayout
  */
 public class Tree {
 
-    private static final int MIN_TRUNK_HEIGHT = 3;
-    private static final int MAX_TRUNK_HEIGHT = 7;
-    private static final int LEAF_GRID_SIZE = 7;
-    private static final int START_LEAF_FACTOR = 3;
-    private static final float LEAF_PROBABILITY = 0.8f;
-    private static final int TRUNK_HEIGHT_FACTOR = 1;
     private static final int FRUIT_FACTOR = 1;
     private final Vector2 treeLoc;
     private final float groundHeight;
     private final List<GameObject> treeParts;
-    private int trunkHeight;
+    private final TreeLayout layout;
     private final BiConsumer<GameObject, Integer> addFunc;
     private final BiConsumer<GameObject, Integer> removeFunc;
     private final Consumer<Float> addEnergyFunc;
-    private Random random;
+    private final FruitTracker fruitTracker;
+    private final int column;
+    private int fruitCount;
 
     /**
      * Constructs a new Tree instance at the specified location.
@@ -47,16 +43,21 @@ public class Tree {
      * @param addFunc A function to add game objects to the game world.
      * @param removeFunc A function to remove game objects from the game world.
      * @param addEnergyFunc A function to increase the energy of the avatar.
+     * @param fruitTracker Keeps track of the tree's eaten fruits.
+     * @param context The context of the tree's world.
      */
     public Tree(Vector2 treeLoc, BiConsumer<GameObject, Integer> addFunc,
-                BiConsumer<GameObject, Integer> removeFunc, Consumer<Float> addEnergyFunc) {
+                BiConsumer<GameObject, Integer> removeFunc, Consumer<Float> addEnergyFunc,
+                FruitTracker fruitTracker, WorldContext context) {
         this.treeLoc = treeLoc;
         this.groundHeight = treeLoc.y();
         this.addFunc = addFunc;
         this.removeFunc = removeFunc;
         this.addEnergyFunc = addEnergyFunc;
+        this.fruitTracker = fruitTracker;
+        this.column = (int) Math.floor(treeLoc.x() / Block.SIZE);
         this.treeParts = new ArrayList<>();
-        this.random = new Random(Objects.hash(this.treeLoc.x(), PepseGameManager.seed));
+        this.layout = TreeLayout.generate(this.treeLoc.x(), context);
     }
 
     /**
@@ -71,24 +72,24 @@ public class Tree {
     }
 
     /*
-     * Creates the leaves for the tree in a grid pattern.
-     * Some leaves may contain fruits based on random probability.
+     * Creates the leaves for the tree in a grid pattern, with the fruits the layout puts on
+     * some of them.
      */
     private void createLeaves() {
-        Vector2 leafStart = new Vector2(treeLoc.x() - (Block.SIZE * START_LEAF_FACTOR),
-                groundHeight - (this.trunkHeight * Block.SIZE));
-        for (int x = 0; x < LEAF_GRID_SIZE; x++) {
-            for (int y = 0; y < LEAF_GRID_SIZE; y++) {
-                if (this.random.nextFloat() < LEAF_PROBABILITY) {
+        Vector2 leafStart = new Vector2(treeLoc.x() - (Block.SIZE * TreeLayout.GRID_LEFT_CELLS),
+                groundHeight - (this.layout.getTrunkHeight() * Block.SIZE));
+        for (int x = 0; x < TreeLayout.GRID_SIZE; x++) {
+            for (int y = 0; y < TreeLayout.GRID_SIZE; y++) {
+                if (this.layout.hasLeaf(x, y)) {
                     Vector2 leafPosition = new Vector2(leafStart.x() + (x * Block.SIZE),
                             leafStart.y() - (y * Block.SIZE));
                     treeParts.add(new Leaf(leafPosition));
-                    // Randomly decide to add a fruit on/near the leaf
-                    if (this.random.nextFloat() < LEAF_PROBABILITY / FRUIT_FACTOR) {
+                    // Add the fruit on/near the leaf
+                    if (this.layout.hasFruit(x, y)) {
                         Vector2 fruitPosition = leafPosition.add(new Vector2(
                                 (Block.SIZE - Fruit.FRUIT_SIZE) / FRUIT_FACTOR, -Fruit.FRUIT_SIZE));
-                        Fruit fruit = new Fruit(fruitPosition, this.addFunc,
-                                this.removeFunc, this.addEnergyFunc);
+                        Fruit fruit = new Fruit(fruitPosition, this.column, this.fruitCount++,
+                                this.addFunc, this.removeFunc, this.addEnergyFunc, this.fruitTracker);
                         treeParts.add(fruit);
                     }
                 }
@@ -97,13 +98,11 @@ public class Tree {
     }
 
     /*
-     * Creates the trunk of the tree with a random height.
+     * Creates the trunk of the tree with the layout's height.
      * Each trunk block is stacked vertically.
      */
     private void createTreeTrunk() {
-        this.trunkHeight = MIN_TRUNK_HEIGHT + random.nextInt(MAX_TRUNK_HEIGHT - MIN_TRUNK_HEIGHT
-                + TRUNK_HEIGHT_FACTOR);
-        for (int i = 0; i < trunkHeight; i++) {
+        for (int i = 0; i < layout.getTrunkHeight(); i++) {
             Vector2 trunkPosition = new Vector2(treeLoc.x(), groundHeight - (i * Block.SIZE));
             treeParts.add(new TreeTrunk(trunkPosition));
         }
@@ -0,0 +1,145 @@
+package pepse.world.trees;
+
+import pepse.world.Block;
+import pepse.world.WorldContext;
+
+import java.util.Random;
+
+/**
+ * The shape of a tree as plain data: its trunk height and which cells of its leaf grid hold a
+ * leaf and a fruit. A layout depends only on the tree's x coordinate and the world's seed, and
+ * is generated without creating any game objects, so it can be computed on any thread, e.g. by
+ * generation stress tools. {@link Tree} builds its game objects from its layout.
+ *
+ * The leaf grid is {@link #GRID_SIZE} by {@link #GRID_SIZE} cells, cell (x, y) being the
+ * x-th column from the left, starting {@link #GRID_LEFT_CELLS} columns left of the trunk, and
+ * the y-th row up from the top of the trunk.
+ *
+ * @author Ronnie Rozanski and Gilly Sraya
+ * @see Tree
+ */
+public class TreeLayout {
+
+    /** The number of cells on each side of the leaf grid. */
+    public static final int GRID_SIZE = 7;
+    /** The number of cells by which the leaf grid extends left of the trunk. */
+    public static final int GRID_LEFT_CELLS = 3;
+
+    private static final int MIN_TRUNK_HEIGHT = 3;
+    private static final int MAX_TRUNK_HEIGHT = 7;
+    private static final float LEAF_PROBABILITY = 0.8f;
+    private final int trunkHeight;
+    private final long leafMask;
+    private final long fruitMask;
+
+    /*
+     * Constructs a layout of the given trunk height and leaf and fruit cells.
+     */
+    private TreeLayout(int trunkHeight, long leafMask, long fruitMask) {
+        this.trunkHeight = trunkHeight;
+        this.leafMask = leafMask;
+        this.fruitMask = fruitMask;
+    }
+
+    /**
+     * Generates the layout of the tree at the given x coordinate. How many of its leaves bear
+     * fruit depends on the biome it grows in.
+     *
+     * @param x       The x coordinate of the tree's trunk.
+     * @param context The context of the tree's world.
+     * @return The tree's layout.
+     */
+    public static TreeLayout generate(float x, WorldContext context) {
+        Random random = context.newRandom(Float.hashCode(x));
+        float fruitProbability = context.getBiomeMap().fruitProbabilityAt((int) Math.floor(x / Block.SIZE));
+        int trunkHeight = MIN_TRUNK_HEIGHT + random.nextInt(MAX_TRUNK_HEIGHT - MIN_TRUNK_HEIGHT + 1);
+        long leafMask = 0;
+        long fruitMask = 0;
+        for (int cellX = 0; cellX < GRID_SIZE; cellX++) {
+            for (int cellY = 0; cellY < GRID_SIZE; cellY++) {
+                if (random.nextFloat() < LEAF_PROBABILITY) {
+                    leafMask |= cellBit(cellX, cellY);
+                    if (random.nextFloat() < fruitProbability) {
+                        fruitMask |= cellBit(cellX, cellY);
+                    }
+                }
+            }
+        }
+        return new TreeLayout(trunkHeight, leafMask, fruitMask);
+    }
+
+    /**
+     * Returns the height of the tree's trunk.
+     *
+     * @return The trunk height, in blocks.
+     */
+    public int getTrunkHeight() {
+        return trunkHeight;
+    }
+
+    /**
+     * Tells whether a cell of the leaf grid holds a leaf.
+     *
+     * @param cellX The cell's column in the grid.
+     * @param cellY The cell's row in the grid.
+     * @return true if the cell holds a leaf.
+     */
+    public boolean hasLeaf(int cellX, int cellY) {
+        return (leafMask & cellBit(cellX, cellY)) != 0;
+    }
+
+    /**
+     * Tells whether a cell of the leaf grid holds a fruit. Only cells holding a leaf may.
+     *
+     * @param cellX The cell's column in the grid.
+     * @param cellY The cell's row in the grid.
+     * @return true if the cell holds a fruit.
+     */
+    public boolean hasFruit(int cellX, int cellY) {
+        return (fruitMask & cellBit(cellX, cellY)) != 0;
+    }
+
+    /**
+     * Returns the leaf grid's cells holding a leaf, as a bitmask with bit x * GRID_SIZE + y
+     * set for cell (x, y).
+     *
+     * @return The leaves' bitmask.
+     */
+    public long getLeafMask() {
+        return leafMask;
+    }
+
+    /**
+     * Returns the leaf grid's cells holding a fruit, as a bitmask like {@link #getLeafMask()}.
+     *
+     * @return The fruits' bitmask.
+     */
+    public long getFruitMask() {
+        return fruitMask;
+    }
+
+    /**
+     * Returns the number of leaves of the tree.
+     *
+     * @return The number of leaves.
+     */
+    public int leafCount() {
+        return Long.bitCount(leafMask);
+    }
+
+    /**
+     * Returns the number of fruits of the tree.
+     *
+     * @return The number of fruits.
+     */
+    public int fruitCount() {
+        return Long.bitCount(fruitMask);
+    }
+
+    /*
+     * Returns the bit of a cell in the leaf and fruit masks.
+     */
+    private static long cellBit(int cellX, int cellY) {
+        return 1L << (cellX * GRID_SIZE + cellY);
+    }
+}
@@ -19,7 +19,10 @@ import java.awt.*;
  */
 public class TreeTrunk extends Block {
 
-    private static final Color TREE_TRUNK_COLOR = new Color(100, 50, 20);
+    /**
+     * The base color of the tree trunks.
+     */
+    public static final Color TREE_TRUNK_COLOR = new Color(100, 50, 20);
 
 
     /**